@@ -0,0 +1,331 @@
+package edu.ncsu.csc316.cleaning.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import edu.ncsu.csc316.cleaning.manager.CleaningEventStore;
+import edu.ncsu.csc316.cleaning.manager.CleaningManager;
+import edu.ncsu.csc316.cleaning.manager.CoverageIndex;
+import edu.ncsu.csc316.cleaning.manager.ReportManager;
+import edu.ncsu.csc316.cleaning.manager.RoomEventIndex;
+
+/**
+ * CleaningBenchmark measures loading, building the indexes, and every query of the
+ * CleaningManager and the ReportManager over the experiment files. Each benchmark runs a
+ * number of warmup iterations that are thrown away and then a number of measured iterations, and reports
+ * the throughput, the bytes allocated for each operation, and the garbage collections
+ * that happened while it was measured.
+ *
+ * Sizes that are not in input/experimentFiles are generated into a temporary directory.
+ *
+ * Usage: CleaningBenchmark [-wi warmups] [-i iterations] [-t seconds] [-sizes 10,12,...] [-k 1,10,...] [-b name]
+ *
+ * @author Daniel Avisse
+ *
+ */
+public class CleaningBenchmark {
+
+	/** The directory that holds the experiment files that come with the project */
+	private static final String EXPERIMENT_DIRECTORY = "input/experimentFiles";
+
+	/** The seed used to generate experiment files that are not in the project */
+	private static final long SEED = 316;
+
+	/** The number of coverage queries spread across the generated time range */
+	private static final int COVERAGE_QUERIES = 1024;
+
+	/** Every result is stored here so that the JIT cannot remove the work that produced it */
+	private static volatile Object sink;
+
+	/** The number of warmup iterations */
+	private int warmupIterations = 3;
+
+	/** The number of measured iterations */
+	private int iterations = 5;
+
+	/** The length of each iteration in nanoseconds */
+	private long iterationNanos = 1_000_000_000L;
+
+	/** The sizes of the experiment files to measure */
+	private int[] sizes = {10, 12, 14, 16, 18, 20};
+
+	/** The number of rooms to ask for in the frequency report */
+	private int[] reportSizes = {1, 10, 100};
+
+	/** Only benchmarks whose name contains this are run */
+	private String filter = "";
+
+	/** The directory that generated experiment files are written to */
+	private Path generatedDirectory;
+
+	/**
+	 * A single operation that is timed
+	 * @author Daniel Avisse
+	 *
+	 */
+	private interface Operation {
+
+		/**
+		 * Runs the operation once
+		 *
+		 * @param invocation the number of times the operation has been run in this iteration
+		 * @return the result of the operation
+		 * @throws Exception if the operation fails
+		 */
+		Object run(int invocation) throws Exception;
+	}
+
+	/**
+	 * Starts the benchmark
+	 *
+	 * @param args the options of the benchmark
+	 * @throws Exception if a file cannot be loaded or generated
+	 */
+	public static void main(String[] args) throws Exception {
+		CleaningBenchmark benchmark = new CleaningBenchmark();
+		benchmark.parseOptions(args);
+		benchmark.runAll();
+	}
+
+	/**
+	 * Reads the command line options
+	 *
+	 * @param args the command line options
+	 */
+	private void parseOptions(String[] args) {
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			switch (args[i]) {
+				case "-wi":
+					warmupIterations = Integer.parseInt(args[i + 1]);
+					break;
+				case "-i":
+					iterations = Integer.parseInt(args[i + 1]);
+					break;
+				case "-t":
+					iterationNanos = (long) (Double.parseDouble(args[i + 1]) * 1_000_000_000L);
+					break;
+				case "-sizes":
+					sizes = parseList(args[i + 1]);
+					break;
+				case "-k":
+					reportSizes = parseList(args[i + 1]);
+					break;
+				case "-b":
+					filter = args[i + 1];
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+	}
+
+	/**
+	 * Parses a comma separated list of numbers
+	 *
+	 * @param list the list
+	 * @return the numbers in the list
+	 */
+	private static int[] parseList(String list) {
+		String[] parts = list.split(",");
+		int[] numbers = new int[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			numbers[i] = Integer.parseInt(parts[i].trim());
+		}
+		return numbers;
+	}
+
+	/**
+	 * Runs every benchmark for every size and prints a row for each one
+	 *
+	 * @throws Exception if a file cannot be loaded or generated
+	 */
+	private void runAll() throws Exception {
+		System.out.printf("%-32s %6s %10s %5s %14s %12s %14s %8s %10s%n", "Benchmark", "(size)", "(param)", "Cnt",
+				"Score", "Error", "Units", "gc.count", "gc.time");
+		for (int size : sizes) {
+			String[] files = experimentFiles(size);
+			String roomFile = files[0];
+			String logFile = files[1];
+
+			for (CleaningManager.LoadMode mode : CleaningManager.LoadMode.values()) {
+				measure("constructor", size, mode.name(), invocation -> new CleaningManager(roomFile, logFile, mode));
+			}
+
+			CleaningManager coverageManager = new CleaningManager(roomFile, logFile, CleaningManager.LoadMode.COLUMNAR);
+			CleaningEventStore store = coverageManager.getEventStore();
+			measure("buildCoverageIndex", size, "-", invocation -> new CoverageIndex(store));
+			measure("buildRoomEventIndex", size, "-", invocation -> new RoomEventIndex(store));
+
+			LocalDateTime[] times = coverageTimes();
+			measure("getCoverageSince", size, "-", invocation -> coverageManager.getCoverageSince(times[invocation % times.length]));
+
+			ReportManager reportManager = new ReportManager(roomFile, logFile);
+			for (int k : reportSizes) {
+				measure("getFrequencyReport", size, "k=" + k, invocation -> reportManager.getFrequencyReport(k));
+			}
+			measure("getRoomReport", size, "-", invocation -> reportManager.getRoomReport());
+		}
+	}
+
+	/**
+	 * Returns the experiment files of a size, generating them if they are not in the project
+	 *
+	 * @param size the power of two that gives the number of rooms and cleaning log entries
+	 * @return the paths of the room file and then the cleaning log file
+	 * @throws IOException if the files cannot be generated
+	 */
+	private String[] experimentFiles(int size) throws IOException {
+		String roomFile = EXPERIMENT_DIRECTORY + "/rooms_" + size + ".csv";
+		String logFile = EXPERIMENT_DIRECTORY + "/cleaningEvents_" + size + ".csv";
+		if (new File(roomFile).exists() && new File(logFile).exists()) {
+			return new String[] {roomFile, logFile};
+		}
+		if (generatedDirectory == null) {
+			generatedDirectory = Files.createTempDirectory("cleaning-benchmark");
+			generatedDirectory.toFile().deleteOnExit();
+		}
+		Path[] generated = ExperimentFileGenerator.generate(generatedDirectory, size, SEED);
+		generated[0].toFile().deleteOnExit();
+		generated[1].toFile().deleteOnExit();
+		return new String[] {generated[0].toString(), generated[1].toString()};
+	}
+
+	/**
+	 * Returns the times that coverage is asked for, spread evenly across the years of the experiment files
+	 *
+	 * @return the times of the coverage queries
+	 */
+	private static LocalDateTime[] coverageTimes() {
+		long first = LocalDateTime.of(2009, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+		long last = LocalDateTime.of(2024, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+		LocalDateTime[] times = new LocalDateTime[COVERAGE_QUERIES];
+		for (int i = 0; i < times.length; i++) {
+			times[i] = LocalDateTime.ofEpochSecond(first + (last - first) / COVERAGE_QUERIES * i, 0, ZoneOffset.UTC);
+		}
+		return times;
+	}
+
+	/**
+	 * Runs the warmup and measured iterations of a benchmark and prints its row
+	 *
+	 * @param name the name of the benchmark
+	 * @param size the size of the experiment files
+	 * @param param the parameter of the benchmark
+	 * @param operation the operation to time
+	 * @throws Exception if the operation fails
+	 */
+	private void measure(String name, int size, String param, Operation operation) throws Exception {
+		if (!name.contains(filter)) {
+			return;
+		}
+		for (int i = 0; i < warmupIterations; i++) {
+			iteration(operation);
+		}
+		double[] scores = new double[iterations];
+		long operations = 0;
+		long allocated = 0;
+		long gcCount = gcCount();
+		long gcTime = gcTime();
+		for (int i = 0; i < iterations; i++) {
+			long allocatedBefore = allocatedBytes();
+			long start = System.nanoTime();
+			int count = iteration(operation);
+			long elapsed = System.nanoTime() - start;
+			allocated += allocatedBytes() - allocatedBefore;
+			operations += count;
+			scores[i] = count * 1e9 / elapsed;
+		}
+		gcCount = gcCount() - gcCount;
+		gcTime = gcTime() - gcTime;
+
+		double mean = 0;
+		for (double score : scores) {
+			mean += score;
+		}
+		mean /= scores.length;
+		double variance = 0;
+		for (double score : scores) {
+			variance += (score - mean) * (score - mean);
+		}
+		double error = scores.length > 1 ? Math.sqrt(variance / (scores.length - 1)) : 0;
+		System.out.printf("%-32s %6d %10s %5d %14.3f %12.3f %14s %8d %8dms%n", name, size, param, iterations, mean, error,
+				"ops/s", gcCount, gcTime);
+		if (allocatedBytes() >= 0) {
+			System.out.printf("%-32s %6d %10s %5d %14.1f %12s %14s%n", name + ":alloc.norm", size, param, iterations,
+					(double) allocated / Math.max(1, operations), "", "B/op");
+		}
+	}
+
+	/**
+	 * Runs the operation until the length of an iteration has passed, and at least once
+	 *
+	 * @param operation the operation to run
+	 * @return the number of times the operation was run
+	 * @throws Exception if the operation fails
+	 */
+	private int iteration(Operation operation) throws Exception {
+		long end = System.nanoTime() + iterationNanos;
+		int count = 0;
+		do {
+			sink = operation.run(count);
+			count++;
+		} while (System.nanoTime() < end);
+		return count;
+	}
+
+	/**
+	 * Returns the number of bytes allocated by every live thread, or -1 if the JVM cannot measure it
+	 *
+	 * @return the number of bytes allocated
+	 */
+	private static long allocatedBytes() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+			return -1;
+		}
+		com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+		if (!hotspot.isThreadAllocatedMemorySupported() || !hotspot.isThreadAllocatedMemoryEnabled()) {
+			return -1;
+		}
+		long total = 0;
+		for (long bytes : hotspot.getThreadAllocatedBytes(hotspot.getAllThreadIds())) {
+			if (bytes > 0) {
+				total += bytes;
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Returns the number of garbage collections since the JVM started
+	 *
+	 * @return the number of garbage collections
+	 */
+	private static long gcCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, collector.getCollectionCount());
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the time spent in garbage collection since the JVM started
+	 *
+	 * @return the time in milliseconds
+	 */
+	private static long gcTime() {
+		long time = 0;
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			time += Math.max(0, collector.getCollectionTime());
+		}
+		return time;
+	}
+}
@@ -0,0 +1,198 @@
+package edu.ncsu.csc316.cleaning.benchmark;
+
+import java.io.FileNotFoundException;
+
+import edu.ncsu.csc316.cleaning.data.CleaningLogEntry;
+import edu.ncsu.csc316.cleaning.data.RoomRecord;
+import edu.ncsu.csc316.cleaning.factory.DSAFactory;
+import edu.ncsu.csc316.cleaning.factory.DSAFactory.ListType;
+import edu.ncsu.csc316.cleaning.factory.DSAFactory.MapType;
+import edu.ncsu.csc316.cleaning.io.InputReader;
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.dsa.map.Map;
+
+/**
+ * DataStructureBenchmark ranks the map and list implementations of the DSAFactory on a
+ * site's own room file and cleaning log file. Every map is filled with the room IDs and
+ * then used the way CleaningManager uses it: one lookup for each cleaning log entry, and
+ * one pass over the entries in key order. Every list is filled with the cleaning log
+ * entries and then read once.
+ *
+ * The fastest implementation of each kind can be chosen with the cleaning.map and
+ * cleaning.list system properties.
+ *
+ * Usage: DataStructureBenchmark roomFile logFile [rounds]
+ *
+ * @author Daniel Avisse
+ *
+ */
+public class DataStructureBenchmark {
+
+	/** The number of times each implementation is timed when no number is given */
+	private static final int DEFAULT_ROUNDS = 5;
+
+	/** An implementation that takes longer than this for one round is only timed once */
+	private static final long SLOW_ROUND_NANOS = 10_000_000_000L;
+
+	/** Every result is stored here so that the JIT cannot remove the work that produced it */
+	private static volatile long sink;
+
+	/**
+	 * Private constructor since the benchmark only provides static behaviors
+	 */
+	private DataStructureBenchmark() {
+		//Do nothing
+	}
+
+	/**
+	 * Starts the benchmark
+	 *
+	 * @param args the room file, the cleaning log file, and optionally the number of rounds
+	 * @throws FileNotFoundException if either file cannot be found
+	 */
+	public static void main(String[] args) throws FileNotFoundException {
+		if (args.length < 2) {
+			System.out.println("Usage: DataStructureBenchmark roomFile logFile [rounds]");
+			return;
+		}
+		int rounds = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_ROUNDS;
+		List<RoomRecord> rooms = InputReader.readRoomFile(args[0]);
+		List<CleaningLogEntry> logs = InputReader.readLogFile(args[1]);
+		String[] roomIDs = new String[rooms.size()];
+		for (int i = 0; i < roomIDs.length; i++) {
+			roomIDs[i] = rooms.get(i).getRoomID();
+		}
+		String[] lookups = new String[logs.size()];
+		CleaningLogEntry[] entries = new CleaningLogEntry[logs.size()];
+		int index = 0;
+		for (CleaningLogEntry entry : logs) {
+			lookups[index] = entry.getRoomID();
+			entries[index] = entry;
+			index++;
+		}
+		System.out.println(roomIDs.length + " rooms, " + entries.length + " cleaning log entries, best of "
+				+ rounds + " rounds\n");
+
+		MapType[] mapTypes = MapType.values();
+		long[] build = new long[mapTypes.length];
+		long[] lookup = new long[mapTypes.length];
+		long[] iterate = new long[mapTypes.length];
+		for (int i = 0; i < mapTypes.length; i++) {
+			build[i] = Long.MAX_VALUE;
+			lookup[i] = Long.MAX_VALUE;
+			iterate[i] = Long.MAX_VALUE;
+			for (int round = 0; round < rounds; round++) {
+				long start = System.nanoTime();
+				Map<String, Integer> map = DSAFactory.getMap(mapTypes[i], roomIDs.length);
+				for (int j = 0; j < roomIDs.length; j++) {
+					map.put(roomIDs[j], j);
+				}
+				long built = System.nanoTime();
+				long found = 0;
+				for (String roomID : lookups) {
+					Integer ordinal = map.get(roomID);
+					if (ordinal != null) {
+						found += ordinal;
+					}
+				}
+				long looked = System.nanoTime();
+				for (Map.Entry<String, Integer> entry : map.entrySet()) {
+					found += entry.getValue();
+				}
+				long iterated = System.nanoTime();
+				sink = found;
+				build[i] = Math.min(build[i], built - start);
+				lookup[i] = Math.min(lookup[i], looked - built);
+				iterate[i] = Math.min(iterate[i], iterated - looked);
+				if (iterated - start > SLOW_ROUND_NANOS) {
+					break;
+				}
+			}
+		}
+
+		long[] pointLookup = new long[mapTypes.length];
+		long[] orderedIteration = new long[mapTypes.length];
+		for (int i = 0; i < mapTypes.length; i++) {
+			pointLookup[i] = build[i] + lookup[i];
+			//Hash maps cannot be used when the rooms have to come out in order
+			orderedIteration[i] = mapTypes[i].isOrdered() ? build[i] + iterate[i] : -1;
+		}
+		System.out.printf("%-20s %12s %12s %12s%n", "Map", "build (ms)", "lookup (ms)", "iterate (ms)");
+		for (int i = 0; i < mapTypes.length; i++) {
+			System.out.printf("%-20s %12.2f %12.2f %12.2f%n", mapTypes[i], build[i] / 1e6, lookup[i] / 1e6, iterate[i] / 1e6);
+		}
+		printRanking("Point lookup (build + lookup)", mapTypes, pointLookup);
+		printRanking("Ordered iteration (build + iterate)", mapTypes, orderedIteration);
+
+		ListType[] listTypes = ListType.values();
+		long[] fill = new long[listTypes.length];
+		ListType configured = DSAFactory.getListType();
+		for (int i = 0; i < listTypes.length; i++) {
+			fill[i] = Long.MAX_VALUE;
+			DSAFactory.setListType(listTypes[i]);
+			for (int round = 0; round < rounds; round++) {
+				long start = System.nanoTime();
+				List<CleaningLogEntry> list = DSAFactory.getIndexedList();
+				for (CleaningLogEntry entry : entries) {
+					list.addLast(entry);
+				}
+				long total = 0;
+				for (CleaningLogEntry entry : list) {
+					total += entry.getPercentCompleted();
+				}
+				sink = total;
+				long elapsed = System.nanoTime() - start;
+				fill[i] = Math.min(fill[i], elapsed);
+				if (elapsed > SLOW_ROUND_NANOS) {
+					break;
+				}
+			}
+		}
+		DSAFactory.setListType(configured);
+		printRanking("Lists (add every entry + read)", listTypes, fill);
+
+		System.out.println("\nSuggested settings: -D" + DSAFactory.MAP_PROPERTY + "=" + mapTypes[best(pointLookup)]
+				+ " -D" + DSAFactory.LIST_PROPERTY + "=" + listTypes[best(fill)]);
+	}
+
+	/**
+	 * Prints the implementations from the fastest to the slowest
+	 *
+	 * @param title the title of the ranking
+	 * @param types the implementations
+	 * @param times the time of each implementation in nanoseconds, or -1 if it cannot be used
+	 */
+	private static void printRanking(String title, Enum<?>[] types, long[] times) {
+		System.out.println("\n" + title);
+		boolean[] printed = new boolean[types.length];
+		for (int rank = 1; rank <= types.length; rank++) {
+			int fastest = -1;
+			for (int i = 0; i < types.length; i++) {
+				if (!printed[i] && times[i] >= 0 && (fastest == -1 || times[i] < times[fastest])) {
+					fastest = i;
+				}
+			}
+			if (fastest == -1) {
+				return;
+			}
+			printed[fastest] = true;
+			System.out.printf("%3d. %-20s %12.2f ms%n", rank, types[fastest], times[fastest] / 1e6);
+		}
+	}
+
+	/**
+	 * Returns the index of the fastest implementation
+	 *
+	 * @param times the time of each implementation in nanoseconds, or -1 if it cannot be used
+	 * @return the index of the fastest implementation
+	 */
+	private static int best(long[] times) {
+		int fastest = 0;
+		for (int i = 1; i < times.length; i++) {
+			if (times[i] >= 0 && times[i] < times[fastest]) {
+				fastest = i;
+			}
+		}
+		return fastest;
+	}
+}
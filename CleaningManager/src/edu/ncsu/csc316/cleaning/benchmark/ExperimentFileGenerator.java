@@ -0,0 +1,75 @@
+package edu.ncsu.csc316.cleaning.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+import edu.ncsu.csc316.cleaning.manager.ReportManager;
+
+/**
+ * ExperimentFileGenerator writes room files and cleaning log files in the same format
+ * as the files in input/experimentFiles. A file pair of size n has 2^n rooms and 2^n
+ * cleaning log entries, so sizes past 16 can be generated for benchmarks. The same
+ * seed always generates the same files.
+ *
+ * @author Daniel Avisse
+ *
+ */
+public class ExperimentFileGenerator {
+
+	/** The kinds of rooms that room IDs are made from */
+	private static final String[] ROOM_TYPES = {"Attic", "Basement", "Bathroom", "Bedroom", "Closet", "Dining Room",
+		"Foyer", "Game Room", "Guest Bedroom", "Gym", "Hallway", "Keeping Room", "Kitchen", "Library", "Living Room",
+		"Lunch Room", "Office", "Sun Room", "Utility Room"};
+
+	/** The earliest time a generated cleaning can happen */
+	private static final long FIRST_CLEANING = LocalDateTime.of(2010, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+
+	/** The latest time a generated cleaning can happen */
+	private static final long LAST_CLEANING = LocalDateTime.of(2023, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+
+	/**
+	 * Private constructor since the generator only provides static behaviors
+	 */
+	private ExperimentFileGenerator() {
+		//Do nothing
+	}
+
+	/**
+	 * Writes rooms_n.csv and cleaningEvents_n.csv into the provided directory
+	 *
+	 * @param directory the directory to write the files into
+	 * @param size the power of two that gives the number of rooms and cleaning log entries
+	 * @param seed the seed of the random numbers
+	 * @return the paths of the room file and then the cleaning log file
+	 * @throws IOException if either file cannot be written
+	 */
+	public static Path[] generate(Path directory, int size, long seed) throws IOException {
+		int count = 1 << size;
+		Random random = new Random(seed);
+		String[] roomIDs = new String[count];
+		Path roomFile = directory.resolve("rooms_" + size + ".csv");
+		try (BufferedWriter writer = Files.newBufferedWriter(roomFile, StandardCharsets.UTF_8)) {
+			writer.write("ROOM_ID,LENGTH,WIDTH\n");
+			for (int i = 0; i < count; i++) {
+				roomIDs[i] = ROOM_TYPES[i % ROOM_TYPES.length] + " " + (i / ROOM_TYPES.length + 1);
+				writer.write(roomIDs[i] + "," + (5 + random.nextInt(46)) + "," + (5 + random.nextInt(46)) + "\n");
+			}
+		}
+		Path logFile = directory.resolve("cleaningEvents_" + size + ".csv");
+		try (BufferedWriter writer = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8)) {
+			writer.write("TIMESTAMP,ROOM_ID,PERCENT_CLEANED\n");
+			for (int i = 0; i < count; i++) {
+				long time = FIRST_CLEANING + (long) (random.nextDouble() * (LAST_CLEANING - FIRST_CLEANING));
+				String timestamp = LocalDateTime.ofEpochSecond(time, 0, ZoneOffset.UTC).format(ReportManager.DATE_TIME_FORMAT);
+				writer.write(timestamp + "," + roomIDs[random.nextInt(count)] + "," + random.nextInt(101) + "\n");
+			}
+		}
+		return new Path[] {roomFile, logFile};
+	}
+}
@@ -2,7 +2,7 @@ package edu.ncsu.csc316.cleaning.factory;
 
 import java.util.Comparator;
 //import edu.ncsu.csc316.dsa.data.Identifiable;
-//import edu.ncsu.csc316.dsa.list.ArrayBasedList;
+import edu.ncsu.csc316.dsa.list.ArrayBasedList;
 import edu.ncsu.csc316.dsa.list.List;
 import edu.ncsu.csc316.dsa.list.SinglyLinkedList;
 //import edu.ncsu.csc316.dsa.list.positional.PositionalLinkedList;
@@ -10,10 +10,12 @@ import edu.ncsu.csc316.dsa.list.SinglyLinkedList;
 import edu.ncsu.csc316.dsa.map.Map;
 import edu.ncsu.csc316.dsa.map.SearchTableMap;
 import edu.ncsu.csc316.dsa.map.SkipListMap;
+import edu.ncsu.csc316.dsa.map.search_tree.AVLTreeMap;
 import edu.ncsu.csc316.dsa.map.search_tree.RedBlackTreeMap;
 import edu.ncsu.csc316.dsa.map.search_tree.SplayTreeMap;
 import edu.ncsu.csc316.dsa.map.UnorderedLinkedMap;
 import edu.ncsu.csc316.dsa.map.hashing.LinearProbingHashMap;
+import edu.ncsu.csc316.dsa.map.hashing.SeparateChainingHashMap;
 //import edu.ncsu.csc316.dsa.queue.ArrayBasedQueue;
 //import edu.ncsu.csc316.dsa.queue.Queue;
 //import edu.ncsu.csc316.dsa.sorter.BubbleSorter;
@@ -30,11 +32,100 @@ import edu.ncsu.csc316.dsa.sorter.Sorter;
 /**
  * Factory for creating new data structure and algorithm instances
  * 
+ * The map and list implementations can be chosen when the program starts with the
+ * system properties cleaning.map and cleaning.list (for example
+ * -Dcleaning.map=AVL_TREE), or with setMapType and setListType. When no implementation
+ * is chosen, or AUTO or an unknown name is given, the factory picks one from the expected size of the map
+ * and whether it will be iterated in key order. DataStructureBenchmark ranks the
+ * implementations on a site's own files.
+ * 
  * @author Dr. King
  *
  */
 public class DSAFactory {
 
+    /** The system property that chooses the map implementation */
+    public static final String MAP_PROPERTY = "cleaning.map";
+
+    /** The system property that chooses the list implementation */
+    public static final String LIST_PROPERTY = "cleaning.list";
+
+    /**
+     * The map implementations the factory can create
+     * 
+     * @author Daniel Avisse
+     *
+     */
+    public enum MapType {
+        /** A hash map that probes for the next open bucket */
+        LINEAR_PROBING(false),
+        /** A hash map that keeps a map in each bucket */
+        SEPARATE_CHAINING(false),
+        /** A skip list, ordered by key */
+        SKIP_LIST(true),
+        /** A sorted array searched with binary search */
+        SEARCH_TABLE(true),
+        /** A red-black tree, ordered by key */
+        RED_BLACK_TREE(true),
+        /** An AVL tree, ordered by key */
+        AVL_TREE(true),
+        /** A splay tree, ordered by key */
+        SPLAY_TREE(true);
+
+        /** True if the entries of the map are iterated in key order */
+        private final boolean ordered;
+
+        /**
+         * Constructs a MapType
+         * 
+         * @param ordered true if the entries of the map are iterated in key order
+         */
+        MapType(boolean ordered) {
+            this.ordered = ordered;
+        }
+
+        /**
+         * Returns true if the entries of the map are iterated in key order
+         * 
+         * @return true if the map is ordered
+         */
+        public boolean isOrdered() {
+            return ordered;
+        }
+    }
+
+    /**
+     * The list implementations the factory can create
+     * 
+     * @author Daniel Avisse
+     *
+     */
+    public enum ListType {
+        /** A singly linked list with front and tail pointers */
+        SINGLY_LINKED,
+        /** A list backed by an array */
+        ARRAY_BASED
+    }
+
+    /**
+     * How a map will be used, which decides the implementation when none is configured
+     * 
+     * @author Daniel Avisse
+     *
+     */
+    public enum AccessPattern {
+        /** The map is mostly used to look up single keys */
+        POINT_LOOKUP,
+        /** The entries of the map are iterated in key order */
+        ORDERED_ITERATION
+    }
+
+    /** The configured map implementation, or null to pick one automatically */
+    private static volatile MapType mapType = parseType(MapType.class, System.getProperty(MAP_PROPERTY));
+
+    /** The configured list implementation, or null to pick one automatically */
+    private static volatile ListType listType = parseType(ListType.class, System.getProperty(LIST_PROPERTY));
+
     /**
      * Returns a data structure that implements a map
      * 
@@ -45,8 +136,76 @@ public class DSAFactory {
      * @return a data structure that implements a map
      */
     public static <K extends Comparable<K>, V> Map<K, V> getMap() {
-		return getLinearProbingMap(null);
-        // return a type of Map
+        return getMap(0, AccessPattern.POINT_LOOKUP);
+    }
+
+    /**
+     * Returns a data structure that implements a map, using the configured implementation
+     * or the one that suits the expected size and access pattern
+     * 
+     * @param <K>
+     *            - the key type
+     * @param <V>
+     *            - the value type
+     * @param expectedSize the number of keys the map is expected to hold, or 0 if it is not known
+     * @param pattern how the map will be used
+     * @return a data structure that implements a map
+     */
+    public static <K extends Comparable<K>, V> Map<K, V> getMap(int expectedSize, AccessPattern pattern) {
+        MapType type = mapType;
+        if (type == null || (pattern == AccessPattern.ORDERED_ITERATION && !type.isOrdered())) {
+            type = selectMapType(expectedSize, pattern);
+        }
+        return getMap(type, expectedSize);
+    }
+
+    /**
+     * Returns a new map of the provided implementation
+     * 
+     * @param <K>
+     *            - the key type
+     * @param <V>
+     *            - the value type
+     * @param type the implementation of the map
+     * @param expectedSize the number of keys the map is expected to hold, or 0 if it is not known
+     * @return a data structure that implements a map
+     */
+    public static <K extends Comparable<K>, V> Map<K, V> getMap(MapType type, int expectedSize) {
+        switch (type) {
+            case LINEAR_PROBING:
+                return getLinearProbingMap(expectedSize);
+            case SEPARATE_CHAINING:
+                return getSeparateChainingMap(expectedSize);
+            case SKIP_LIST:
+                return getSkipListMap(null);
+            case SEARCH_TABLE:
+                return getSearchTableMap(null);
+            case RED_BLACK_TREE:
+                return getRedBlackTree(null);
+            case AVL_TREE:
+                return getAVLTree(null);
+            default:
+                return getSplayTree(null);
+        }
+    }
+
+    /**
+     * Returns the map implementation the factory picks when none is configured. Maps
+     * that are iterated in key order are AVL trees, which insert fastest of the ordered
+     * maps. Maps of a known size are linear probing maps, which are made large enough for
+     * the expected size up front. When the size is not known an AVL tree is used instead,
+     * since the hash maps grow one resize at a time: past 2^16 keys an unsized linear
+     * probing map takes seconds to fill where an AVL tree takes milliseconds.
+     * 
+     * @param expectedSize the number of keys the map is expected to hold, or 0 if it is not known
+     * @param pattern how the map will be used
+     * @return the map implementation to use
+     */
+    public static MapType selectMapType(int expectedSize, AccessPattern pattern) {
+        if (pattern == AccessPattern.ORDERED_ITERATION || expectedSize <= 0) {
+            return MapType.AVL_TREE;
+        }
+        return MapType.LINEAR_PROBING;
     }
 
     /**
@@ -58,9 +217,69 @@ public class DSAFactory {
      */
     public static <E> List<E> getIndexedList() {
         // return a type of List
+        if (listType == ListType.ARRAY_BASED) {
+            return getArrayBasedList();
+        }
     	return getSinglyLinkedList();
     }
 
+    /**
+     * Returns the configured map implementation
+     * 
+     * @return the map implementation, or null if it is picked automatically
+     */
+    public static MapType getMapType() {
+        return mapType;
+    }
+
+    /**
+     * Sets the map implementation that every new map uses
+     * 
+     * @param type the map implementation, or null to pick one automatically
+     */
+    public static void setMapType(MapType type) {
+        mapType = type;
+    }
+
+    /**
+     * Returns the configured list implementation
+     * 
+     * @return the list implementation, or null if it is picked automatically
+     */
+    public static ListType getListType() {
+        return listType;
+    }
+
+    /**
+     * Sets the list implementation that every new list uses
+     * 
+     * @param type the list implementation, or null to pick one automatically
+     */
+    public static void setListType(ListType type) {
+        listType = type;
+    }
+
+    /**
+     * Reads an implementation from the value of a system property. A value that does not
+     * name an implementation picks one automatically, so a typo never stops the factory
+     * from working.
+     * 
+     * @param <T> the type of implementation
+     * @param types the enum of implementations
+     * @param value the value of the property, which may be null or AUTO
+     * @return the implementation, or null to pick one automatically
+     */
+    static <T extends Enum<T>> T parseType(Class<T> types, String value) {
+        if (value == null || value.trim().isEmpty() || "AUTO".equalsIgnoreCase(value.trim())) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(types, value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
 //    /**
 //     * Returns a data structure that implements an positional list
 //     * 
@@ -149,16 +368,16 @@ public class DSAFactory {
     private static <K extends Comparable<K>, V> SkipListMap<K, V> getSkipListMap(Comparator<K> comparator) {
         return new SkipListMap<K, V>(comparator);
     }
-//
-//    /**
-//     * Returns an array-based list
-//     * 
-//     * @return an array-based list
-//     * @param <E> generic that we will us to store any object
-//     */
-//    private static <E> ArrayBasedList<E> getArrayBasedList() {
-//        return new ArrayBasedList<E>();
-//    }
+
+    /**
+     * Returns an array-based list
+     * 
+     * @return an array-based list
+     * @param <E> generic that we will us to store any object
+     */
+    private static <E> ArrayBasedList<E> getArrayBasedList() {
+        return new ArrayBasedList<E>();
+    }
 
     /**
      * Returns a singly linked list with front pointer
@@ -198,8 +417,23 @@ public class DSAFactory {
     	return new SplayTreeMap<K, V>();
     }
     
-    private static <K extends Comparable<K>, V> LinearProbingHashMap<K, V> getLinearProbingMap(Comparator<K> compare) {
-    	return new LinearProbingHashMap<K, V>();
+    private static <K extends Comparable<K>, V> AVLTreeMap<K, V> getAVLTree(Comparator<K> compare) {
+    	return new AVLTreeMap<K, V>();
+    }
+    
+    private static <K extends Comparable<K>, V> LinearProbingHashMap<K, V> getLinearProbingMap(int expectedSize) {
+    	if (expectedSize <= 0) {
+    		return new LinearProbingHashMap<K, V>();
+    	}
+    	//Keep the table under half full so that it never has to resize
+    	return new LinearProbingHashMap<K, V>(2 * expectedSize + 1, false);
+    }
+
+    private static <K extends Comparable<K>, V> SeparateChainingHashMap<K, V> getSeparateChainingMap(int expectedSize) {
+    	if (expectedSize <= 0) {
+    		return new SeparateChainingHashMap<K, V>();
+    	}
+    	return new SeparateChainingHashMap<K, V>(2 * expectedSize + 1, false);
     }
 //    /**
 //     * Returns a quicksorter
@@ -0,0 +1,669 @@
+package edu.ncsu.csc316.cleaning.io;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
+
+import edu.ncsu.csc316.cleaning.data.CleaningLogEntry;
+import edu.ncsu.csc316.cleaning.data.RoomRecord;
+
+/**
+ * MappedInputReader reads room files and cleaning log files by memory-mapping them and
+ * scanning the bytes directly. Timestamps are decoded by hand from the fixed-width
+ * MM/dd/yyyy HH:mm:ss format into epoch seconds (UTC) and numbers are parsed straight
+ * from the bytes, so no String is created for any field other than the room ID. Room IDs
+ * are cached by their bytes, so a room that appears on many lines only creates one String.
+ *
+ * Any line that the fast path does not recognize is handed to StreamingInputReader, so
+ * malformed lines are rejected with the same exceptions as InputReader.
+ *
+ * @author Daniel Avisse
+ *
+ */
+public class MappedInputReader {
+
+	/** The largest part of a file that is mapped into memory at once */
+	private static final int WINDOW_SIZE = 1 << 30;
+
+	/** The number of bytes in a MM/dd/yyyy HH:mm:ss timestamp */
+	private static final int TIMESTAMP_LENGTH = 19;
+
+	/** The number of seconds in a day */
+	private static final long SECONDS_PER_DAY = 86400;
+
+	/**
+	 * Handler that receives each cleaning log entry in its compact form
+	 * @author Daniel Avisse
+	 *
+	 */
+	public interface CleaningEventHandler {
+
+		/**
+		 * Receives a single cleaning log entry
+		 *
+		 * @param epochSecond the time of the cleaning event in seconds since the epoch (UTC)
+		 * @param roomID the ID of the room that was cleaned
+		 * @param percentCleaned the percent of the room that was cleaned
+		 */
+		void accept(long epochSecond, String roomID, int percentCleaned);
+	}
+
+	/**
+	 * Private constructor since the reader only provides static behaviors
+	 */
+	private MappedInputReader() {
+		//Do nothing
+	}
+
+	/**
+	 * Reads every cleaning log entry from the provided log file and passes each one to the handler in file order
+	 *
+	 * @param pathToFile the path to the file that contains cleaning event log information
+	 * @param handler the handler that receives each cleaning log entry
+	 * @throws FileNotFoundException if the file cannot be read
+	 */
+	public static void readLogFile(String pathToFile, CleaningEventHandler handler) throws FileNotFoundException {
+		RoomIDCache cache = new RoomIDCache();
+		readLines(pathToFile, 0, -1, true, (buffer, start, end) -> processLogLine(buffer, start, end, cache, handler));
+	}
+
+	/**
+	 * Reads the cleaning log entries on the lines that start between the provided positions
+	 * of the log file and passes each one to the handler in file order. The from position
+	 * must be the start of a line, such as one of the positions returned by splitLogFile.
+	 * Different chunks of the same file can be read at the same time by different threads.
+	 *
+	 * @param pathToFile the path to the file that contains cleaning event log information
+	 * @param from the position of the first byte of the chunk
+	 * @param to the position after the last byte of the chunk
+	 * @param handler the handler that receives each cleaning log entry
+	 * @throws FileNotFoundException if the file cannot be read
+	 */
+	public static void readLogChunk(String pathToFile, long from, long to, CleaningEventHandler handler) throws FileNotFoundException {
+		RoomIDCache cache = new RoomIDCache();
+		readLines(pathToFile, from, to, false, (buffer, start, end) -> processLogLine(buffer, start, end, cache, handler));
+	}
+
+	/**
+	 * Reads the cleaning log entries that were written to the log file after the provided position
+	 * and passes each one to the handler in file order. Reading from position 0 skips the header and
+	 * reads the whole file as it is, including a final line with no line terminator.
+	 *
+	 * Reading from any other position only reads complete lines. A line that is still being written
+	 * is left for the next read, which starts at the beginning of that line, so an entry is never read
+	 * before it is finished. If a read from position 0 ended with a line that had no terminator and
+	 * the next read starts in the middle of it, the rest of that line is skipped since it was already read.
+	 *
+	 * @param pathToFile the path to the file that contains cleaning event log information
+	 * @param from the position returned by the previous read, or 0 to read the whole file
+	 * @param handler the handler that receives each cleaning log entry
+	 * @return the position to pass to the next read
+	 * @throws FileNotFoundException if the file cannot be read
+	 * @throws IllegalStateException if the file is now shorter than the provided position
+	 */
+	public static long readLogTail(String pathToFile, long from, CleaningEventHandler handler) throws FileNotFoundException {
+		long start = from;
+		long end;
+		try (FileChannel channel = openFile(pathToFile)) {
+			long fileSize = channel.size();
+			if (fileSize < from) {
+				throw new IllegalStateException("Log file is shorter than the last position read: " + pathToFile);
+			}
+			if (from == 0) {
+				end = fileSize;
+			} else {
+				if (from < fileSize && !endsLine(channel, from)) {
+					start = nextLineStart(channel, from, fileSize);
+					//The line that was already read has not been finished yet
+					if (!endsLine(channel, start)) {
+						return from;
+					}
+				}
+				end = lastLineEnd(channel, start, fileSize);
+			}
+		} catch (IOException e) {
+			throw notReadable(pathToFile, e);
+		}
+		if (start < end) {
+			RoomIDCache cache = new RoomIDCache();
+			readLines(pathToFile, start, end, from == 0, (buffer, lineStart, lineEnd) -> processLogLine(buffer, lineStart, lineEnd, cache, handler));
+		}
+		return end;
+	}
+
+	/**
+	 * Returns true if the byte before a position is a line terminator
+	 *
+	 * @param channel the open file
+	 * @param position the position after the byte to check, which must be greater than 0
+	 * @return true if a line ends right before the position
+	 * @throws IOException if the file cannot be read
+	 */
+	private static boolean endsLine(FileChannel channel, long position) throws IOException {
+		ByteBuffer previous = ByteBuffer.allocate(1);
+		return channel.read(previous, position - 1) == 1 && previous.get(0) == '\n';
+	}
+
+	/**
+	 * Returns the position after the last line terminator between two positions
+	 *
+	 * @param channel the open file
+	 * @param from the first position to search
+	 * @param to the position after the last byte to search
+	 * @return the position after the last line terminator, or from if there is none
+	 * @throws IOException if the file cannot be read
+	 */
+	private static long lastLineEnd(FileChannel channel, long from, long to) throws IOException {
+		ByteBuffer block = ByteBuffer.allocate(4096);
+		long current = to;
+		while (current > from) {
+			int length = (int) Math.min(block.capacity(), current - from);
+			block.clear();
+			block.limit(length);
+			int read = 0;
+			while (read < length) {
+				int count = channel.read(block, current - length + read);
+				if (count <= 0) {
+					return from;
+				}
+				read += count;
+			}
+			for (int i = length - 1; i >= 0; i--) {
+				if (block.get(i) == '\n') {
+					return current - length + i + 1;
+				}
+			}
+			current -= length;
+		}
+		return from;
+	}
+
+	/**
+	 * Splits the cleaning log entries of a log file into roughly equal chunks that each begin
+	 * at the start of a line. The header line is not part of any chunk. Chunk i runs from
+	 * position i of the returned array up to position i + 1.
+	 *
+	 * @param pathToFile the path to the file that contains cleaning event log information
+	 * @param parts the number of chunks to split the file into
+	 * @return the boundaries of the chunks, with one more boundary than there are chunks
+	 * @throws FileNotFoundException if the file cannot be read
+	 */
+	public static long[] splitLogFile(String pathToFile, int parts) throws FileNotFoundException {
+		try (FileChannel channel = openFile(pathToFile)) {
+			long fileSize = channel.size();
+			long dataStart = nextLineStart(channel, 0, fileSize);
+			long chunkSize = Math.max(1, (fileSize - dataStart) / Math.max(1, parts));
+			long[] boundaries = new long[Math.max(1, parts) + 1];
+			int count = 0;
+			boundaries[count++] = dataStart;
+			//Move each boundary forward to the start of the next line, dropping boundaries that end up at the same position
+			for (int i = 1; i < parts; i++) {
+				long boundary = nextLineStart(channel, Math.max(dataStart + i * chunkSize, boundaries[count - 1]), fileSize);
+				if (boundary > boundaries[count - 1] && boundary < fileSize) {
+					boundaries[count++] = boundary;
+				}
+			}
+			if (fileSize > boundaries[count - 1]) {
+				boundaries[count++] = fileSize;
+			}
+			long[] result = new long[count];
+			System.arraycopy(boundaries, 0, result, 0, count);
+			return result;
+		} catch (IOException e) {
+			throw notReadable(pathToFile, e);
+		}
+	}
+
+	/**
+	 * Reads every room from the provided room file and passes each one to the handler in file order
+	 *
+	 * @param pathToFile the path to the file that contains room information
+	 * @param handler the handler that receives each room
+	 * @throws FileNotFoundException if the file cannot be read
+	 */
+	public static void readRoomFile(String pathToFile, Consumer<RoomRecord> handler) throws FileNotFoundException {
+		readLines(pathToFile, 0, -1, true, (buffer, start, end) -> handler.accept(processRoomLine(buffer, start, end)));
+	}
+
+	/**
+	 * Handler that receives the position of a single line inside a mapped buffer
+	 */
+	private interface LineHandler {
+
+		/**
+		 * Receives a single line, not including the line terminator
+		 *
+		 * @param buffer the mapped buffer
+		 * @param start the position of the first byte of the line
+		 * @param end the position after the last byte of the line
+		 */
+		void accept(MappedByteBuffer buffer, int start, int end);
+	}
+
+	/**
+	 * Opens a file for reading
+	 *
+	 * @param pathToFile the path to the file
+	 * @return the open file
+	 * @throws FileNotFoundException if the file does not exist, is a directory, or cannot be opened
+	 */
+	private static FileChannel openFile(String pathToFile) throws FileNotFoundException {
+		Path path = Paths.get(pathToFile);
+		//A directory can be opened as a channel on some systems, but it fails once it is read or mapped
+		if (Files.isDirectory(path)) {
+			throw new FileNotFoundException(pathToFile + " (Is a directory)");
+		}
+		try {
+			return FileChannel.open(path, StandardOpenOption.READ);
+		} catch (IOException e) {
+			throw notReadable(pathToFile, e);
+		}
+	}
+
+	/**
+	 * Returns the exception for a file that could not be opened, mapped, or read. Every
+	 * failure is a FileNotFoundException that names the file and the reason, the same as
+	 * InputReader, so callers only have one exception to handle.
+	 *
+	 * @param pathToFile the path to the file
+	 * @param e the reason the file could not be read
+	 * @return the exception to throw
+	 */
+	private static FileNotFoundException notReadable(String pathToFile, IOException e) {
+		if (e instanceof FileNotFoundException) {
+			return (FileNotFoundException) e;
+		}
+		String reason = e.getMessage();
+		if (e instanceof NoSuchFileException) {
+			reason = "No such file or directory";
+		} else if (e instanceof AccessDeniedException) {
+			reason = "Permission denied";
+		}
+		FileNotFoundException notFound = new FileNotFoundException(pathToFile + " (" + reason + ")");
+		notFound.initCause(e);
+		return notFound;
+	}
+
+	/**
+	 * Returns the position after the next line terminator at or after the provided position
+	 *
+	 * @param channel the open file
+	 * @param position the position to start searching from
+	 * @param fileSize the size of the file
+	 * @return the start of the next line, or the size of the file if there is no next line
+	 * @throws IOException if the file cannot be read
+	 */
+	private static long nextLineStart(FileChannel channel, long position, long fileSize) throws IOException {
+		ByteBuffer block = ByteBuffer.allocate(4096);
+		long current = position;
+		while (current < fileSize) {
+			block.clear();
+			int read = channel.read(block, current);
+			if (read <= 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				if (block.get(i) == '\n') {
+					return current + i + 1;
+				}
+			}
+			current += read;
+		}
+		return fileSize;
+	}
+
+	/**
+	 * Maps part of the file into memory one window at a time and passes the position of every line to the handler
+	 *
+	 * @param pathToFile the path to the file
+	 * @param from the position of the first byte to read, which must be the start of a line
+	 * @param to the position after the last byte to read, or -1 to read to the end of the file
+	 * @param skipHeader true if the first line is a header that should not be passed to the handler
+	 * @param handler the handler that receives each line
+	 * @throws FileNotFoundException if the file cannot be read
+	 */
+	private static void readLines(String pathToFile, long from, long to, boolean skipHeader, LineHandler handler) throws FileNotFoundException {
+		try (FileChannel channel = openFile(pathToFile)) {
+			long fileSize = to < 0 ? channel.size() : to;
+			long windowStart = from;
+			boolean header = skipHeader;
+			while (windowStart < fileSize) {
+				int windowLength = (int) Math.min(WINDOW_SIZE, fileSize - windowStart);
+				boolean lastWindow = windowStart + windowLength == fileSize;
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+				int lineStart = 0;
+				for (int i = 0; i < windowLength; i++) {
+					if (buffer.get(i) == '\n') {
+						if (!header) {
+							handler.accept(buffer, lineStart, trimCarriageReturn(buffer, lineStart, i));
+						}
+						header = false;
+						lineStart = i + 1;
+					}
+				}
+				//The final line of the file might not end with a line terminator
+				if (lastWindow) {
+					if (lineStart < windowLength && !header) {
+						handler.accept(buffer, lineStart, trimCarriageReturn(buffer, lineStart, windowLength));
+					}
+					break;
+				}
+				//Start the next window at the beginning of the line that was cut off
+				if (lineStart == 0) {
+					throw new IOException("Line is longer than " + WINDOW_SIZE + " bytes");
+				}
+				windowStart += lineStart;
+			}
+		} catch (IOException e) {
+			throw notReadable(pathToFile, e);
+		}
+	}
+
+	/**
+	 * Returns the end of a line without a trailing carriage return
+	 *
+	 * @param buffer the mapped buffer
+	 * @param start the position of the first byte of the line
+	 * @param end the position of the line terminator
+	 * @return the end of the line without a carriage return
+	 */
+	private static int trimCarriageReturn(MappedByteBuffer buffer, int start, int end) {
+		if (end > start && buffer.get(end - 1) == '\r') {
+			return end - 1;
+		}
+		return end;
+	}
+
+	/**
+	 * Parses a single cleaning log line and passes it to the handler
+	 *
+	 * @param buffer the mapped buffer
+	 * @param start the position of the first byte of the line
+	 * @param end the position after the last byte of the line
+	 * @param cache the cache of room IDs that have already been read
+	 * @param handler the handler that receives the cleaning log entry
+	 */
+	private static void processLogLine(MappedByteBuffer buffer, int start, int end, RoomIDCache cache, CleaningEventHandler handler) {
+		int firstComma = start + TIMESTAMP_LENGTH;
+		long epochSecond = firstComma < end && buffer.get(firstComma) == ',' ? parseTimestamp(buffer, start) : Long.MIN_VALUE;
+		int secondComma = firstComma < end ? indexOfComma(buffer, firstComma + 1, end) : -1;
+		int percent = secondComma < 0 ? -1 : parseNumber(buffer, secondComma + 1, end);
+		if (epochSecond == Long.MIN_VALUE || percent < 0) {
+			//Let the slow path parse the line or throw the same exception as InputReader
+			CleaningLogEntry log = StreamingInputReader.processLogLine(decode(buffer, start, end));
+			handler.accept(log.getTimestamp().toEpochSecond(ZoneOffset.UTC), log.getRoomID(), log.getPercentCompleted());
+			return;
+		}
+		handler.accept(epochSecond, cache.get(buffer, firstComma + 1, secondComma), percent);
+	}
+
+	/**
+	 * Parses a single room line
+	 *
+	 * @param buffer the mapped buffer
+	 * @param start the position of the first byte of the line
+	 * @param end the position after the last byte of the line
+	 * @return the room on the line
+	 */
+	private static RoomRecord processRoomLine(MappedByteBuffer buffer, int start, int end) {
+		int firstComma = indexOfComma(buffer, start, end);
+		int secondComma = firstComma < 0 ? -1 : indexOfComma(buffer, firstComma + 1, end);
+		int length = secondComma < 0 ? -1 : parseNumber(buffer, firstComma + 1, secondComma);
+		int width = secondComma < 0 ? -1 : parseNumber(buffer, secondComma + 1, end);
+		if (length < 0 || width < 0) {
+			return StreamingInputReader.processRoomLine(decode(buffer, start, end));
+		}
+		return new RoomRecord(decode(buffer, start, firstComma), length, width);
+	}
+
+	/**
+	 * Returns the position of the next comma between start and end
+	 *
+	 * @param buffer the mapped buffer
+	 * @param start the position to start searching from
+	 * @param end the position to stop searching at
+	 * @return the position of the comma, or -1 if there is none
+	 */
+	private static int indexOfComma(MappedByteBuffer buffer, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (buffer.get(i) == ',') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Parses a non-negative whole number that runs until the end position or the next comma.
+	 * Numbers with signs, spaces, too many digits, or any other character are not recognized.
+	 *
+	 * @param buffer the mapped buffer
+	 * @param start the position of the first digit
+	 * @param end the position after the last byte of the field
+	 * @return the number, or -1 if it is not recognized
+	 */
+	private static int parseNumber(MappedByteBuffer buffer, int start, int end) {
+		//Nine digits always fit in an int
+		if (start >= end || end - start > 9) {
+			return -1;
+		}
+		int value = 0;
+		for (int i = start; i < end; i++) {
+			int digit = buffer.get(i) - '0';
+			if (digit < 0 || digit > 9) {
+				return -1;
+			}
+			value = value * 10 + digit;
+		}
+		return value;
+	}
+
+	/**
+	 * Decodes a MM/dd/yyyy HH:mm:ss timestamp into seconds since the epoch (UTC). Only
+	 * timestamps whose fields are all in range are recognized.
+	 *
+	 * @param buffer the mapped buffer
+	 * @param start the position of the first byte of the timestamp
+	 * @return the epoch seconds, or Long.MIN_VALUE if the timestamp is not recognized
+	 */
+	private static long parseTimestamp(MappedByteBuffer buffer, int start) {
+		if (buffer.get(start + 2) != '/' || buffer.get(start + 5) != '/' || buffer.get(start + 10) != ' '
+				|| buffer.get(start + 13) != ':' || buffer.get(start + 16) != ':') {
+			return Long.MIN_VALUE;
+		}
+		int month = twoDigits(buffer, start);
+		int day = twoDigits(buffer, start + 3);
+		int century = twoDigits(buffer, start + 6);
+		int yearOfCentury = twoDigits(buffer, start + 8);
+		int hour = twoDigits(buffer, start + 11);
+		int minute = twoDigits(buffer, start + 14);
+		int second = twoDigits(buffer, start + 17);
+		if (century < 0 || yearOfCentury < 0 || hour < 0 || minute < 0 || second < 0) {
+			return Long.MIN_VALUE;
+		}
+		int year = century * 100 + yearOfCentury;
+		if (month < 1 || month > 12 || year < 1 || day < 1 || day > lengthOfMonth(year, month)
+				|| hour > 23 || minute > 59 || second > 59) {
+			return Long.MIN_VALUE;
+		}
+		return toEpochDay(year, month, day) * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second;
+	}
+
+	/**
+	 * Parses two digits
+	 *
+	 * @param buffer the mapped buffer
+	 * @param start the position of the first digit
+	 * @return the two digit number, or a negative number if either byte is not a digit
+	 */
+	private static int twoDigits(MappedByteBuffer buffer, int start) {
+		int tens = buffer.get(start) - '0';
+		int ones = buffer.get(start + 1) - '0';
+		if (tens < 0 || tens > 9 || ones < 0 || ones > 9) {
+			return -100;
+		}
+		return tens * 10 + ones;
+	}
+
+	/**
+	 * Returns the number of days in a month
+	 *
+	 * @param year the year
+	 * @param month the month from 1 to 12
+	 * @return the number of days in the month
+	 */
+	private static int lengthOfMonth(int year, int month) {
+		if (month == 2) {
+			boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+			return leap ? 29 : 28;
+		}
+		if (month == 4 || month == 6 || month == 9 || month == 11) {
+			return 30;
+		}
+		return 31;
+	}
+
+	/**
+	 * Returns the number of days between 01/01/1970 and the given date
+	 *
+	 * @param year the year
+	 * @param month the month from 1 to 12
+	 * @param day the day of the month
+	 * @return the number of days since the epoch
+	 */
+	public static long toEpochDay(int year, int month, int day) {
+		//Count years from March so that the leap day is the last day of the year
+		int y = month <= 2 ? year - 1 : year;
+		int era = y / 400;
+		int yearOfEra = y - era * 400;
+		int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+		int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146097L + dayOfEra - 719468;
+	}
+
+	/**
+	 * Decodes part of the buffer into a String
+	 *
+	 * @param buffer the mapped buffer
+	 * @param start the position of the first byte
+	 * @param end the position after the last byte
+	 * @return the decoded String
+	 */
+	private static String decode(MappedByteBuffer buffer, int start, int end) {
+		byte[] bytes = new byte[end - start];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = buffer.get(start + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Open addressing table that returns the same String for every occurrence of the same room ID bytes
+	 * @author Daniel Avisse
+	 *
+	 */
+	private static class RoomIDCache {
+
+		/** The bytes of each cached room ID */
+		private byte[][] keys = new byte[64][];
+
+		/** The String of each cached room ID */
+		private String[] values = new String[64];
+
+		/** The number of cached room IDs */
+		private int size;
+
+		/**
+		 * Returns the room ID stored in the buffer, creating a String only the first time the ID is seen
+		 *
+		 * @param buffer the mapped buffer
+		 * @param start the position of the first byte of the room ID
+		 * @param end the position after the last byte of the room ID
+		 * @return the room ID
+		 */
+		public String get(MappedByteBuffer buffer, int start, int end) {
+			int hash = 1;
+			for (int i = start; i < end; i++) {
+				hash = 31 * hash + buffer.get(i);
+			}
+			int mask = keys.length - 1;
+			int slot = (hash ^ (hash >>> 16)) & mask;
+			while (keys[slot] != null) {
+				if (matches(keys[slot], buffer, start, end)) {
+					return values[slot];
+				}
+				slot = (slot + 1) & mask;
+			}
+			byte[] key = new byte[end - start];
+			for (int i = 0; i < key.length; i++) {
+				key[i] = buffer.get(start + i);
+			}
+			String roomID = new String(key, StandardCharsets.UTF_8);
+			keys[slot] = key;
+			values[slot] = roomID;
+			size++;
+			//Keep the table at most half full
+			if (size * 2 > keys.length) {
+				resize();
+			}
+			return roomID;
+		}
+
+		/**
+		 * Returns true if the key holds the same bytes as the buffer between start and end
+		 *
+		 * @param key the cached bytes
+		 * @param buffer the mapped buffer
+		 * @param start the position of the first byte
+		 * @param end the position after the last byte
+		 * @return true if the bytes are the same
+		 */
+		private static boolean matches(byte[] key, MappedByteBuffer buffer, int start, int end) {
+			if (key.length != end - start) {
+				return false;
+			}
+			for (int i = 0; i < key.length; i++) {
+				if (key[i] != buffer.get(start + i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Doubles the size of the table
+		 */
+		private void resize() {
+			byte[][] oldKeys = keys;
+			String[] oldValues = values;
+			keys = new byte[oldKeys.length * 2][];
+			values = new String[oldValues.length * 2];
+			int mask = keys.length - 1;
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldKeys[i] != null) {
+					int hash = 1;
+					for (byte b : oldKeys[i]) {
+						hash = 31 * hash + b;
+					}
+					int slot = (hash ^ (hash >>> 16)) & mask;
+					while (keys[slot] != null) {
+						slot = (slot + 1) & mask;
+					}
+					keys[slot] = oldKeys[i];
+					values[slot] = oldValues[i];
+				}
+			}
+		}
+	}
+}
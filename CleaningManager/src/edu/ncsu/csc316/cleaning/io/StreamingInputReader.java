@@ -0,0 +1,178 @@
+package edu.ncsu.csc316.cleaning.io;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+import edu.ncsu.csc316.cleaning.data.CleaningLogEntry;
+import edu.ncsu.csc316.cleaning.data.RoomRecord;
+
+/**
+ * StreamingInputReader reads room files and cleaning log files one line at a time and
+ * hands every parsed record straight to a handler, instead of collecting the records
+ * into a list first like InputReader does. This allows callers to index the records as
+ * they are read so that only one copy of the data is ever held in memory.
+ *
+ * Lines are parsed the same way as InputReader: the first line of each file is a header,
+ * fields are separated by commas, and malformed lines cause the same exceptions to be thrown.
+ *
+ * @author Daniel Avisse
+ *
+ */
+public class StreamingInputReader {
+
+	/** The format of the timestamps in a cleaning log file */
+	private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm:ss");
+
+	/**
+	 * Private constructor since the reader only provides static behaviors
+	 */
+	private StreamingInputReader() {
+		//Do nothing
+	}
+
+	/**
+	 * Reads every room from the provided room file and passes each one to the handler in file order
+	 *
+	 * @param pathToFile the path to the file that contains room information
+	 * @param handler the handler that receives each room as it is read
+	 * @throws FileNotFoundException if the file cannot be read
+	 */
+	public static void readRoomFile(String pathToFile, Consumer<RoomRecord> handler) throws FileNotFoundException {
+		try (BufferedReader reader = openFile(pathToFile)) {
+			//Skip the header
+			String line = reader.readLine();
+			while ((line = reader.readLine()) != null) {
+				handler.accept(processRoomLine(line));
+			}
+		} catch (FileNotFoundException e) {
+			throw e;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Reads every cleaning log entry from the provided log file and passes each one to the handler in file order
+	 *
+	 * @param pathToFile the path to the file that contains cleaning event log information
+	 * @param handler the handler that receives each cleaning log entry as it is read
+	 * @throws FileNotFoundException if the file cannot be read
+	 */
+	public static void readLogFile(String pathToFile, Consumer<CleaningLogEntry> handler) throws FileNotFoundException {
+		try (BufferedReader reader = openFile(pathToFile)) {
+			//Skip the header
+			String line = reader.readLine();
+			while ((line = reader.readLine()) != null) {
+				handler.accept(processLogLine(line));
+			}
+		} catch (FileNotFoundException e) {
+			throw e;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Parses a single line of a cleaning log file
+	 *
+	 * @param line the line to parse
+	 * @return the cleaning log entry on the line
+	 * @throws java.time.format.DateTimeParseException if the timestamp is not formatted correctly
+	 * @throws InputMismatchException if the percent cleaned is not a whole number
+	 * @throws NoSuchElementException if the line is missing a field
+	 */
+	public static CleaningLogEntry processLogLine(String line) {
+		int firstComma = indexOfComma(line, 0);
+		int secondComma = indexOfComma(line, firstComma + 1);
+		LocalDateTime timestamp = LocalDateTime.parse(line.substring(0, firstComma), DATE_TIME_FORMAT);
+		String roomID = line.substring(firstComma + 1, secondComma);
+		int percent = parseInt(line, secondComma + 1, endOfField(line, secondComma + 1));
+		return new CleaningLogEntry(timestamp, roomID, percent);
+	}
+
+	/**
+	 * Parses a single line of a room file
+	 *
+	 * @param line the line to parse
+	 * @return the room on the line
+	 * @throws InputMismatchException if the length or width is not a whole number
+	 * @throws NoSuchElementException if the line is missing a field
+	 */
+	public static RoomRecord processRoomLine(String line) {
+		int firstComma = indexOfComma(line, 0);
+		int secondComma = indexOfComma(line, firstComma + 1);
+		String roomID = line.substring(0, firstComma);
+		int length = parseInt(line, firstComma + 1, secondComma);
+		int width = parseInt(line, secondComma + 1, endOfField(line, secondComma + 1));
+		return new RoomRecord(roomID, length, width);
+	}
+
+	/**
+	 * Opens a file for reading as UTF-8 text
+	 *
+	 * @param pathToFile the path to the file
+	 * @return a reader for the file
+	 * @throws FileNotFoundException if the file cannot be read
+	 */
+	private static BufferedReader openFile(String pathToFile) throws FileNotFoundException {
+		return new BufferedReader(new InputStreamReader(new FileInputStream(pathToFile), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Returns the position of the next comma in the line
+	 *
+	 * @param line the line to search
+	 * @param from the position to start searching from
+	 * @return the position of the next comma
+	 * @throws NoSuchElementException if there is no comma left in the line
+	 */
+	private static int indexOfComma(String line, int from) {
+		int comma = line.indexOf(',', from);
+		if (comma < 0) {
+			throw new NoSuchElementException();
+		}
+		return comma;
+	}
+
+	/**
+	 * Returns the position where the last field on a line ends
+	 *
+	 * @param line the line
+	 * @param from the position that the field starts at
+	 * @return the position of the next comma, or the length of the line if there is none
+	 */
+	private static int endOfField(String line, int from) {
+		int comma = line.indexOf(',', from);
+		return comma < 0 ? line.length() : comma;
+	}
+
+	/**
+	 * Parses a whole number from part of a line
+	 *
+	 * @param line the line
+	 * @param start the first position of the number
+	 * @param end the position after the last character of the number
+	 * @return the parsed number
+	 * @throws InputMismatchException if the text is not a whole number
+	 */
+	private static int parseInt(String line, int start, int end) {
+		if (start >= end) {
+			throw new NoSuchElementException();
+		}
+		try {
+			return Integer.parseInt(line, start, end, 10);
+		} catch (NumberFormatException e) {
+			throw new InputMismatchException(e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,336 @@
+package edu.ncsu.csc316.cleaning.manager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import edu.ncsu.csc316.cleaning.data.CleaningLogEntry;
+import edu.ncsu.csc316.cleaning.data.RoomRecord;
+import edu.ncsu.csc316.dsa.list.List;
+
+/**
+ * CleaningEventStore holds cleaning log entries in columns of primitives instead of as
+ * CleaningLogEntry objects. Each event is stored as a long of epoch seconds (UTC), an int
+ * ordinal for its room, and an int for the percent cleaned, which takes 16 bytes per event
+ * instead of a CleaningLogEntry, its LocalDateTime, and the list node that holds it. The
+ * percent cleaned keeps any value the log holds, the same as a CleaningLogEntry.
+ *
+ * Each event refers to its room by the room's ordinal in a RoomDictionary. Events for
+ * rooms that are not in the dictionary are not stored, and are counted as rejected rows
+ * instead of stopping a load.
+ *
+ * @author Daniel Avisse
+ *
+ */
+public class CleaningEventStore {
+
+	/** The number of events that can be stored before the columns first need to grow */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/** The rooms that events can refer to */
+	private RoomDictionary dictionary;
+
+	/** The totals of every room, updated as each event is added */
+	private RoomAggregates aggregates;
+
+	/** The time of each event in epoch seconds */
+	private long[] timestamps;
+
+	/** The room ordinal of each event */
+	private int[] rooms;
+
+	/** The percent cleaned of each event */
+	private int[] percents;
+
+	/** The number of events */
+	private int size;
+
+	/** True if the store belongs to a published CleaningView and cannot be added to */
+	private boolean readOnly;
+
+	/**
+	 * Constructs a new CleaningEventStore that can hold events for the rooms in the provided dictionary
+	 *
+	 * @param dictionary the rooms that can be cleaned
+	 */
+	public CleaningEventStore(RoomDictionary dictionary) {
+		this.dictionary = dictionary;
+		aggregates = new RoomAggregates(dictionary.size());
+		timestamps = new long[DEFAULT_CAPACITY];
+		rooms = new int[DEFAULT_CAPACITY];
+		percents = new int[DEFAULT_CAPACITY];
+	}
+
+	/**
+	 * Constructs a new CleaningEventStore that can hold events for the provided rooms
+	 *
+	 * @param listOfRooms the rooms that can be cleaned
+	 */
+	public CleaningEventStore(List<RoomRecord> listOfRooms) {
+		this(new RoomDictionary(listOfRooms));
+	}
+
+	/**
+	 * Constructs a CleaningEventStore that holds events which were already read into
+	 * columns, such as the events read back from a CleaningSnapshot. The totals of every
+	 * room are worked out again from the events.
+	 *
+	 * @param dictionary the rooms that the events refer to
+	 * @param timestamps the time of each event in epoch seconds
+	 * @param rooms the room ordinal of each event
+	 * @param percents the percent cleaned of each event
+	 * @param size the number of events in the columns
+	 */
+	CleaningEventStore(RoomDictionary dictionary, long[] timestamps, int[] rooms, int[] percents, int size) {
+		this.dictionary = dictionary;
+		this.timestamps = timestamps;
+		this.rooms = rooms;
+		this.percents = percents;
+		this.size = size;
+		aggregates = new RoomAggregates(dictionary.size());
+		for (int i = 0; i < size; i++) {
+			aggregates.record(rooms[i], timestamps[i], getCoverage(i));
+		}
+	}
+
+	/**
+	 * Constructs a copy of another store that shares its columns. Events are only ever
+	 * written after the end of the columns, and growing replaces them, so adding to the
+	 * other store never changes the events of the copy.
+	 *
+	 * @param other the store to copy
+	 */
+	private CleaningEventStore(CleaningEventStore other) {
+		dictionary = other.dictionary;
+		timestamps = other.timestamps;
+		rooms = other.rooms;
+		percents = other.percents;
+		size = other.size;
+		aggregates = new RoomAggregates(other.aggregates);
+	}
+
+	/**
+	 * Returns a copy of the store with the events it holds now. The copy shares the
+	 * columns and the chunks of the room totals, so this does not depend on the number of events.
+	 *
+	 * @return the copy of the store
+	 */
+	CleaningEventStore copy() {
+		return new CleaningEventStore(this);
+	}
+
+	/**
+	 * Stops any more events from being added to the store, so that it can be read from
+	 * many threads at once
+	 *
+	 * @return this store
+	 */
+	CleaningEventStore freeze() {
+		readOnly = true;
+		return this;
+	}
+
+	/**
+	 * Adds a cleaning event to the end of the store
+	 *
+	 * @param epochSecond the time of the event in seconds since the epoch (UTC)
+	 * @param roomID the ID of the room that was cleaned
+	 * @param percentCleaned the percent of the room that was cleaned
+	 * @return true if the event was added, or false if the room does not exist
+	 */
+	public boolean add(long epochSecond, String roomID, int percentCleaned) {
+		int ordinal = dictionary.getOrdinal(roomID);
+		if (ordinal < 0) {
+			return false;
+		}
+		add(epochSecond, ordinal, percentCleaned);
+		return true;
+	}
+
+	/**
+	 * Adds a cleaning event for a room that is already known by its ordinal
+	 *
+	 * @param epochSecond the time of the event in seconds since the epoch (UTC)
+	 * @param ordinal the ordinal of the room that was cleaned
+	 * @param percentCleaned the percent of the room that was cleaned
+	 * @throws UnsupportedOperationException if the store belongs to a published CleaningView
+	 */
+	public void add(long epochSecond, int ordinal, int percentCleaned) {
+		if (readOnly) {
+			throw new UnsupportedOperationException("The events of a published view cannot be changed");
+		}
+		if (size == timestamps.length) {
+			grow();
+		}
+		timestamps[size] = epochSecond;
+		rooms[size] = ordinal;
+		percents[size] = percentCleaned;
+		size++;
+		aggregates.record(ordinal, epochSecond, dictionary.getSquareFeet(ordinal) * percentCleaned / 100);
+	}
+
+	/**
+	 * Adds a cleaning log entry to the end of the store
+	 *
+	 * @param log the cleaning log entry
+	 * @return true if the entry was added, or false if its room does not exist
+	 */
+	public boolean add(CleaningLogEntry log) {
+		return add(log.getTimestamp().toEpochSecond(ZoneOffset.UTC), log.getRoomID(), log.getPercentCompleted());
+	}
+
+	/**
+	 * Doubles the capacity of every event column
+	 */
+	private void grow() {
+		int capacity = Math.max(DEFAULT_CAPACITY, timestamps.length * 2);
+		long[] newTimestamps = new long[capacity];
+		int[] newRooms = new int[capacity];
+		int[] newPercents = new int[capacity];
+		System.arraycopy(timestamps, 0, newTimestamps, 0, size);
+		System.arraycopy(rooms, 0, newRooms, 0, size);
+		System.arraycopy(percents, 0, newPercents, 0, size);
+		timestamps = newTimestamps;
+		rooms = newRooms;
+		percents = newPercents;
+	}
+
+	/**
+	 * Returns the number of events in the store
+	 *
+	 * @return the number of events
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the rooms that the events refer to
+	 *
+	 * @return the room dictionary
+	 */
+	public RoomDictionary getRooms() {
+		return dictionary;
+	}
+
+	/**
+	 * Returns the time of an event
+	 *
+	 * @param index the index of the event
+	 * @return the time of the event in epoch seconds
+	 */
+	public long getTimestamp(int index) {
+		return timestamps[index];
+	}
+
+	/**
+	 * Returns the room ordinal of an event
+	 *
+	 * @param index the index of the event
+	 * @return the ordinal of the room that was cleaned
+	 */
+	public int getRoom(int index) {
+		return rooms[index];
+	}
+
+	/**
+	 * Returns the percent cleaned of an event
+	 *
+	 * @param index the index of the event
+	 * @return the percent of the room that was cleaned
+	 */
+	public int getPercentCleaned(int index) {
+		return percents[index];
+	}
+
+	/**
+	 * Returns the square footage cleaned by an event, rounded down to a whole number
+	 *
+	 * @param index the index of the event
+	 * @return the square footage cleaned
+	 */
+	public int getCoverage(int index) {
+		return dictionary.getSquareFeet(rooms[index]) * percents[index] / 100;
+	}
+
+	/**
+	 * Creates a CleaningLogEntry for an event
+	 *
+	 * @param index the index of the event
+	 * @return the cleaning log entry of the event
+	 */
+	public CleaningLogEntry getEntry(int index) {
+		return new CleaningLogEntry(LocalDateTime.ofEpochSecond(timestamps[index], 0, ZoneOffset.UTC),
+				dictionary.getRoomID(rooms[index]), percents[index]);
+	}
+
+	/**
+	 * Returns the totals of every room, which are kept up to date as events are added
+	 *
+	 * @return the per-room totals
+	 */
+	public RoomAggregates getAggregates() {
+		return aggregates;
+	}
+
+	/**
+	 * Returns the indexes of every event sorted by time. Events with the same time keep
+	 * the order they were added in.
+	 *
+	 * @param descending true to sort from the most recent event to the oldest
+	 * @return the sorted event indexes
+	 */
+	public int[] sortByTimestamp(boolean descending) {
+		int[] order = new int[size];
+		for (int i = 0; i < size; i++) {
+			order[i] = i;
+		}
+		int[] buffer = new int[size];
+		//Bottom-up merge sort, doubling the width of the sorted runs each pass
+		for (int width = 1; width < size; width *= 2) {
+			for (int low = 0; low < size - width; low += 2 * width) {
+				merge(order, buffer, low, low + width, Math.min(low + 2 * width, size), descending);
+			}
+		}
+		return order;
+	}
+
+	/**
+	 * Merges two neighboring sorted runs of event indexes
+	 *
+	 * @param order the event indexes
+	 * @param buffer space to merge into
+	 * @param low the start of the first run
+	 * @param middle the start of the second run
+	 * @param high the end of the second run
+	 * @param descending true if the runs are sorted from the most recent event to the oldest
+	 */
+	private void merge(int[] order, int[] buffer, int low, int middle, int high, boolean descending) {
+		int left = low;
+		int right = middle;
+		for (int i = low; i < high; i++) {
+			boolean takeLeft;
+			if (left >= middle) {
+				takeLeft = false;
+			} else if (right >= high) {
+				takeLeft = true;
+			} else if (descending) {
+				takeLeft = timestamps[order[left]] >= timestamps[order[right]];
+			} else {
+				takeLeft = timestamps[order[left]] <= timestamps[order[right]];
+			}
+			buffer[i] = takeLeft ? order[left++] : order[right++];
+		}
+		System.arraycopy(buffer, low, order, low, high - low);
+	}
+
+	/**
+	 * Returns an estimate of the number of bytes of memory used by the event columns,
+	 * counting the capacity of each array rather than only the events stored in it
+	 *
+	 * @return the estimated size of the event columns in bytes
+	 */
+	public long getFootprintBytes() {
+		return (long) timestamps.length * Long.BYTES + (long) rooms.length * Integer.BYTES
+				+ (long) percents.length * Integer.BYTES;
+	}
+}
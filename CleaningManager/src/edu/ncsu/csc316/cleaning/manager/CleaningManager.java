@@ -1,11 +1,21 @@
 package edu.ncsu.csc316.cleaning.manager;
 
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.ForkJoinPool;
+
 import edu.ncsu.csc316.cleaning.data.CleaningLogEntry;
 import edu.ncsu.csc316.cleaning.io.InputReader;
+import edu.ncsu.csc316.cleaning.io.MappedInputReader;
+import edu.ncsu.csc316.cleaning.io.StreamingInputReader;
 import edu.ncsu.csc316.cleaning.data.RoomRecord;
 import edu.ncsu.csc316.cleaning.factory.DSAFactory;
+import edu.ncsu.csc316.cleaning.metrics.CleaningMetrics;
+import edu.ncsu.csc316.cleaning.metrics.CleaningMetrics.Counter;
+import edu.ncsu.csc316.cleaning.metrics.CleaningMetrics.Operation;
 import edu.ncsu.csc316.dsa.list.List;
 import edu.ncsu.csc316.dsa.map.Map;
 
@@ -19,14 +29,71 @@ import edu.ncsu.csc316.dsa.map.Map;
  */
 public class CleaningManager {
 	
+	/**
+	 * The different ways that a CleaningManager can load the room and cleaning log files
+	 * @author Daniel Avisse
+	 *
+	 */
+	public enum LoadMode {
+		/** Read both files into lists and build the map of rooms from the lists when it is requested */
+		LIST,
+		/** Read the files line by line and add each cleaning log entry straight into the map of rooms */
+		STREAMING,
+		/** Like STREAMING, but the files are memory-mapped and parsed directly from their bytes */
+		MAPPED,
+		/** Like MAPPED, but the cleaning log file is split into chunks that are parsed on every core */
+		PARALLEL,
+		/** Like MAPPED, but every cleaning event is stored as primitives in a CleaningEventStore instead of as an object */
+		COLUMNAR
+	}
+	
 	/** A list of RoomRecords */
 	private List<RoomRecord> listOfRooms;
 	
 	/** A list of CleaningLogEntries */
 	private List<CleaningLogEntry> listOfCleaningLogs;
 	
+	/** The ordinal of every room, used to index the per-room structures */
+	private RoomDictionary roomDictionary;
+	
 	/** A map of containing the Room ID as the key and a list of CleaningLogEntires as the value */
-	private Map<String, List<CleaningLogEntry>> mapOfRooms;
+	private volatile Map<String, List<CleaningLogEntry>> mapOfRooms;
+	
+	/** The lists in the map of rooms, indexed by room ordinal */
+	private List<CleaningLogEntry>[] eventLists;
+	
+	/** The path to the room file */
+	private String pathToRoomFile;
+	
+	/** The path to the cleaning log file */
+	private String pathToLogFile;
+	
+	/** The position in the cleaning log file after the last line that was read */
+	private long logFilePosition;
+	
+	/** The cleaning events stored in columns of primitives */
+	private volatile CleaningEventStore eventStore;
+	
+	/** The events of each room sorted from the most recent to the oldest, kept up to date as events are added */
+	private RoomEventIndex roomEventIndex;
+	
+	/** An index of the cleaning logs sorted by time, kept up to date as events are added */
+	private CoverageIndex coverageIndex;
+	
+	/** The copy of the events and indexes that readers use, replaced after every change */
+	private volatile CleaningView view;
+	
+	/** The number of views that have been published */
+	private long viewCount;
+	
+	/** Cleaning events from ingest that have not been added yet */
+	private volatile StripedEventBuffer ingestBuffer;
+	
+	/** The number of events a stripe of the ingest buffer can hold before they are added */
+	private static final int INGEST_FLUSH_SIZE = 1024;
+	
+	/** The vacuum bags that are filled by new events, once one has been requested */
+	private VacuumBagTracker vacuumBagTracker;
 
 
     /**
@@ -41,12 +108,226 @@ public class CleaningManager {
      *                               log file cannot be read
      */
     public CleaningManager(String pathToRoomFile, String pathToLogFile) throws FileNotFoundException {  
-    	
-    	//Read in rooms from the pathToRoomFile parameter
-    	listOfRooms = InputReader.readRoomFile(pathToRoomFile);
+    	this(pathToRoomFile, pathToLogFile, LoadMode.LIST);
+    }
+
+    /**
+     * Constructs a new CleaningManager for processing cleaning history information
+     * from the provided file with room information and the provided file with
+     * cleaning log event information, loading the files with the provided mode.
+     * 
+     * In every mode other than LIST, each cleaning log entry is added to the map of
+     * rooms as soon as it is read so the cleaning log is never held in a separate
+     * list. When loading in parallel, each chunk of the file is first collected per
+     * room and then appended in file order. Cleaning log entries for rooms that are
+     * not in the room file are skipped.
+     * 
+     * In COLUMNAR mode the cleaning log entries are not created at all. Each event
+     * is stored as primitives in a CleaningEventStore, and the map of rooms is only
+     * built if it is requested.
+     * 
+     * @param pathToRoomFile the path to the file that contains room information
+     * @param pathToLogFile  the path to the file that contains cleaning event log
+     *                       information
+     * @param mode           the way the files should be loaded
+     * @throws FileNotFoundException if either the room file or the cleaning event
+     *                               log file cannot be read
+     */
+    public CleaningManager(String pathToRoomFile, String pathToLogFile, LoadMode mode) throws FileNotFoundException {
+    	this.pathToRoomFile = pathToRoomFile;
+    	this.pathToLogFile = pathToLogFile;
+    	long start = CleaningMetrics.start(Operation.LOAD);
+    	try {
+    		if (mode == LoadMode.COLUMNAR) {
+    			loadColumnar();
+    			return;
+    		}
+    		if (mode != LoadMode.LIST) {
+    			streamFiles(pathToRoomFile, pathToLogFile, mode);
+    			return;
+    		}
+    		//Read in rooms from the pathToRoomFile parameter
+    		listOfRooms = InputReader.readRoomFile(pathToRoomFile);
+    		roomDictionary = new RoomDictionary(listOfRooms);
+
+    		//Read in logs from the pathToLogFile parameter
+    		listOfCleaningLogs = InputReader.readLogFile(pathToLogFile);
+    		logFilePosition = new File(pathToLogFile).length();
+    		//The list keeps entries for rooms that do not exist, so none are rejected
+    		CleaningMetrics.count(Counter.ROWS_PARSED, listOfCleaningLogs.size());
+    	} finally {
+    		CleaningMetrics.stop(Operation.LOAD, start);
+    	}
+    }
+
+    /**
+     * Reads the room file and then the cleaning log file one line at a time, adding
+     * every cleaning log entry directly to the list of its room. The lists are kept in
+     * an array indexed by room ordinal and put into the map of rooms once at the end.
+     * 
+     * @param pathToRoomFile the path to the file that contains room information
+     * @param pathToLogFile  the path to the file that contains cleaning event log information
+     * @param mode           STREAMING, MAPPED, or PARALLEL
+     * @throws FileNotFoundException if either file cannot be read
+     */
+    private void streamFiles(String pathToRoomFile, String pathToLogFile, LoadMode mode) throws FileNotFoundException {
+    	List<RoomRecord> rooms = DSAFactory.getIndexedList();
+    	if (mode == LoadMode.STREAMING) {
+    		StreamingInputReader.readRoomFile(pathToRoomFile, room -> rooms.addLast(room));
+    	} else {
+    		MappedInputReader.readRoomFile(pathToRoomFile, room -> rooms.addLast(room));
+    	}
+    	listOfRooms = rooms;
+    	roomDictionary = new RoomDictionary(rooms);
+    	//Create an empty list for every room, indexed by the room's ordinal
+    	List<CleaningLogEntry>[] eventsByRoom = emptyEventLists();
+    	//The number of rows read and the number skipped because their room does not exist
+    	long[] rows = new long[2];
+    	if (mode == LoadMode.PARALLEL) {
+    		logFilePosition = ParallelLogLoader.load(pathToLogFile, roomDictionary, eventsByRoom, ForkJoinPool.commonPool());
+    	} else if (mode == LoadMode.MAPPED) {
+    		logFilePosition = MappedInputReader.readLogTail(pathToLogFile, 0, (epochSecond, roomID, percent) -> {
+    			rows[0]++;
+    			int room = roomDictionary.getOrdinal(roomID);
+    			if (room >= 0) {
+    				//Share the dictionary's copy of the room ID instead of keeping one per entry
+    				eventsByRoom[room].addLast(new CleaningLogEntry(LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC),
+    						roomDictionary.getRoomID(room), percent));
+    			} else {
+    				rows[1]++;
+    			}
+    		});
+    	} else {
+    		StreamingInputReader.readLogFile(pathToLogFile, log -> {
+    			rows[0]++;
+    			int room = roomDictionary.getOrdinal(log.getRoomID());
+    			if (room >= 0) {
+    				eventsByRoom[room].addLast(log);
+    			} else {
+    				rows[1]++;
+    			}
+    		});
+    		logFilePosition = new File(pathToLogFile).length();
+    	}
+    	//ParallelLogLoader counts its own rows
+    	CleaningMetrics.count(Counter.ROWS_PARSED, rows[0]);
+    	CleaningMetrics.count(Counter.ROWS_REJECTED, rows[1]);
+    	mapOfRooms = toMap(eventsByRoom);
+    }
+
+    /**
+     * Constructs a new CleaningManager from a snapshot of a previous load of the same files.
+     * If the snapshot is up to date, its rooms, events and indexes are read straight from it,
+     * and any lines added to the end of the cleaning log since it was written are read as a
+     * tail. Otherwise the files are loaded in COLUMNAR mode and a new snapshot is written so
+     * that the next load can use it.
+     * 
+     * When the manager is loaded from a snapshot there is no list of rooms; everything that
+     * needs the rooms reads them from the room dictionary.
+     * 
+     * @param pathToRoomFile the path to the file that contains room information
+     * @param pathToLogFile  the path to the file that contains cleaning event log
+     *                       information
+     * @param pathToSnapshot the path to the snapshot, which does not need to exist
+     * @throws FileNotFoundException if either the room file or the cleaning event
+     *                               log file cannot be read
+     */
+    public CleaningManager(String pathToRoomFile, String pathToLogFile, String pathToSnapshot) throws FileNotFoundException {
+    	this.pathToRoomFile = pathToRoomFile;
+    	this.pathToLogFile = pathToLogFile;
+    	long start = CleaningMetrics.start(Operation.LOAD);
+    	try {
+    		CleaningSnapshot snapshot = CleaningSnapshot.read(pathToSnapshot, pathToRoomFile, pathToLogFile);
+    		if (snapshot == null) {
+    			loadColumnar();
+    			try {
+    				writeSnapshot(pathToSnapshot);
+    			} catch (IOException e) {
+    				//The snapshot only makes the next load faster, so the files are still usable without it
+    			}
+    			return;
+    		}
+    		roomDictionary = snapshot.getRooms();
+    		eventStore = snapshot.getEventStore();
+    		roomEventIndex = snapshot.getRoomEventIndex();
+    		coverageIndex = snapshot.getCoverageIndex();
+    		logFilePosition = snapshot.getLogPosition();
+    		if (new File(pathToLogFile).length() > logFilePosition) {
+    			appendLogTail();
+    		}
+    	} finally {
+    		CleaningMetrics.stop(Operation.LOAD, start);
+    	}
+    }
+
+    /**
+     * Loads the room file and the cleaning log file into a CleaningEventStore
+     * 
+     * @throws FileNotFoundException if either file cannot be read
+     */
+    private void loadColumnar() throws FileNotFoundException {
+    	List<RoomRecord> rooms = DSAFactory.getIndexedList();
+    	MappedInputReader.readRoomFile(pathToRoomFile, room -> rooms.addLast(room));
+    	listOfRooms = rooms;
+    	roomDictionary = new RoomDictionary(rooms);
+    	CleaningEventStore store = new CleaningEventStore(roomDictionary);
+    	long[] rows = new long[1];
+    	logFilePosition = MappedInputReader.readLogTail(pathToLogFile, 0, (epochSecond, roomID, percent) -> {
+    		rows[0]++;
+    		store.add(epochSecond, roomID, percent);
+    	});
+    	//Rows for rooms that do not exist are not added to the store
+    	CleaningMetrics.count(Counter.ROWS_PARSED, rows[0]);
+    	CleaningMetrics.count(Counter.ROWS_REJECTED, rows[0] - store.size());
+    	eventStore = store;
+    }
+
+    /**
+     * Writes a snapshot of the rooms, the events and the indexes, building any index that
+     * has not been built yet. A manager created with the snapshot and the same files later
+     * is ready without parsing the files.
+     * 
+     * @param pathToSnapshot the path to write the snapshot to
+     * @throws IOException if the snapshot cannot be written
+     */
+    public synchronized void writeSnapshot(String pathToSnapshot) throws IOException {
+    	//No events can be added while the lock is held, so the view matches the log position
+    	CleaningView current = getView();
+    	CleaningSnapshot.write(pathToSnapshot, pathToRoomFile, pathToLogFile, logFilePosition, current.getEventStore(),
+    			current.getRoomEventIndex(), current.getCoverageIndex());
+    }
+
+    /**
+     * Creates an empty list of cleaning log entries for every room
+     * 
+     * @return an array with an empty list for each room, indexed by the room's ordinal
+     */
+    //Java cannot create an array of a generic type, and every element is set to a list of entries below
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<CleaningLogEntry>[] emptyEventLists() {
+    	List<CleaningLogEntry>[] eventsByRoom = new List[roomDictionary.size()];
+    	for (int i = 0; i < eventsByRoom.length; i++) {
+    		eventsByRoom[i] = DSAFactory.getIndexedList();
+    	}
+    	return eventsByRoom;
+    }
 
-    	//Read in logs from the pathToLogFile parameter
-    	listOfCleaningLogs = InputReader.readLogFile(pathToLogFile);
+    /**
+     * Puts the list of cleaning log entries of every room into a map with the room ID as the key.
+     * The map is ordered, so its entries come out in alphabetical order by room ID.
+     * 
+     * @param eventsByRoom the list of each room, indexed by the room's ordinal
+     * @return the map of rooms
+     */
+    private Map<String, List<CleaningLogEntry>> toMap(List<CleaningLogEntry>[] eventsByRoom) {
+    	Map<String, List<CleaningLogEntry>> map = DSAFactory.getMap(eventsByRoom.length, DSAFactory.AccessPattern.ORDERED_ITERATION);
+    	for (int i = 0; i < eventsByRoom.length; i++) {
+    		int room = roomDictionary.getSortedOrdinal(i);
+    		map.put(roomDictionary.getRoomID(room), eventsByRoom[room]);
+    	}
+    	//Keep the lists so new events can be added to them without looking up the room ID
+    	eventLists = eventsByRoom;
+    	return map;
     }
 
     /**
@@ -57,10 +338,45 @@ public class CleaningManager {
      * If there is no room information or there are no cleaning log events, returns
      * null.
      * 
+     * The map is built once and its lists are added to in place by addEvent, so threads
+     * that read while events are being added should read from getView instead.
+     * 
      * @return a map of cleaning event logs for each room
      */
     public Map<String, List<CleaningLogEntry>> getEventsByRoom() {  	
-    								//Old Algorithms 
+    	long start = CleaningMetrics.start(Operation.GET_EVENTS_BY_ROOM);
+    	//The map is only built the first time. Streamed files built it while loading, and
+    	//after that addEvent keeps the lists in it up to date
+    	Map<String, List<CleaningLogEntry>> map = mapOfRooms;
+    	if (map == null) {
+    		synchronized (this) {
+    			map = mapOfRooms;
+    			if (map == null) {
+    				map = buildMapOfRooms();
+    				mapOfRooms = map;
+    			}
+    		}
+    	}
+    	CleaningMetrics.stop(Operation.GET_EVENTS_BY_ROOM, start);
+    	return map;
+    }
+
+    /**
+     * Builds the map of rooms from the cleaning log, or from the columnar store if the
+     * files were loaded in COLUMNAR mode
+     * 
+     * @return the map of rooms
+     */
+    private Map<String, List<CleaningLogEntry>> buildMapOfRooms() {
+    	//Create an empty list for every room, indexed by the room's ordinal
+    	List<CleaningLogEntry>[] eventsByRoom = emptyEventLists();
+    	if (listOfCleaningLogs == null) {
+    		for (int i = 0; i < eventStore.size(); i++) {
+    			eventsByRoom[eventStore.getRoom(i)].addLast(eventStore.getEntry(i));
+    		}
+    		return toMap(eventsByRoom);
+    	}
+								//Old Algorithms 
 //////////////////////////////////////////////////////////////////////////////////////////////////////////
 //    	First Algorithm
 //    	for (int i = 0; i <= listOfRooms.size() - 1; i++) {
@@ -84,24 +400,15 @@ public class CleaningManager {
 //    		mapOfRooms.put(room.getRoomID(), list);
 //    	}
 //////////////////////////////////////////////////////////////////////////////////////////////////////////
-    	//Create a new map
-    	mapOfRooms = DSAFactory.getMap();
-    	
-    	//Add every room into the map first with an empty list
-    	for(RoomRecord room : listOfRooms) {
-    		List<CleaningLogEntry> emptyList = DSAFactory.getIndexedList();
-    		mapOfRooms.put(room.getRoomID(), emptyList);
-    	}
-    	//Add every log into the map
+    	//Add every log to the list of its room. Logs for rooms that do not exist are skipped
     	for (CleaningLogEntry log : listOfCleaningLogs) {
-    		//Use the ID to get the list of logs and then add the new log
-    		List<CleaningLogEntry> listOfLogs = mapOfRooms.get(log.getRoomID());
-    		listOfLogs.addLast(log);
-    		//Update the map with the new list
-    		mapOfRooms.put(log.getRoomID(), listOfLogs);
+    		int room = roomDictionary.getOrdinal(log.getRoomID());
+    		if (room >= 0) {
+    			eventsByRoom[room].addLast(log);
+    		}
     	}
     	//Return the map
-		return mapOfRooms;
+		return toMap(eventsByRoom);
     }
 
     /**
@@ -167,27 +474,299 @@ public class CleaningManager {
 //    	}
 //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////   
     	
-    	//Set coverage to zero
-    	int coverage = 0;
-    	
-    	//Create a map with rooms as the value. Use this to get
-    	//easier access to rooms when iterating for the cleaninglogs
-    	Map<String, RoomRecord> roomMap = DSAFactory.getMap();
-    	for(RoomRecord room : listOfRooms) {
-    		roomMap.put(room.getRoomID(), room);
+    	//Every query is a binary search over the sorted timestamps and a single array lookup
+		return getView().getCoverageSince(time);
+    }
+
+    /**
+     * Returns the square footage (as a whole number) cleaned from one date and time up
+     * to, but not including, another. Partial square feet of each event are rounded down.
+     * 
+     * @param from the first time to include
+     * @param to   the first time not to include
+     * @return the square footage cleaned in [from, to), or 0 if to is not after from
+     */
+    public long getCoverageBetween(LocalDateTime from, LocalDateTime to) {
+    	//Two binary searches over the sorted timestamps, however long the range is
+    	return getView().getCoverageBetween(from, to);
+    }
+
+    /**
+     * Returns the cleaning events stored in columns of primitives. If the files were
+     * not loaded in COLUMNAR mode, the store is built from the cleaning log entries
+     * the first time it is requested.
+     * 
+     * @return the cleaning events of every room
+     */
+    public CleaningEventStore getEventStore() {
+    	CleaningEventStore store = eventStore;
+    	if (store == null) {
+    		synchronized (this) {
+    			store = eventStore;
+    			if (store == null) {
+    				store = new CleaningEventStore(roomDictionary);
+    				if (listOfCleaningLogs != null) {
+    					for (CleaningLogEntry log : listOfCleaningLogs) {
+    						store.add(log);
+    					}
+    				} else {
+    					for (List<CleaningLogEntry> logs : mapOfRooms.values()) {
+    						for (CleaningLogEntry log : logs) {
+    							store.add(log);
+    						}
+    					}
+    				}
+    				eventStore = store;
+    			}
+    		}
+    	}
+    	return store;
+    }
+
+    /**
+     * Returns the number of cleanings, the square footage cleaned, and the first and last
+     * cleaning of every room. The totals are kept as events are loaded, so no events
+     * are read to answer this.
+     * 
+     * @return the totals of every room, indexed by room ordinal
+     */
+    public RoomAggregates getRoomAggregates() {
+    	return getEventStore().getAggregates();
+    }
+
+    /**
+     * Returns the events of every room sorted from the most recent to the oldest, as of
+     * the last change. The index is built the first time it is requested and kept up to
+     * date after that, and every thread that asks before the next change gets the same index.
+     * 
+     * @return the events of every room in descending order by time
+     */
+    public RoomEventIndex getRoomEventIndex() {
+    	return getView().getRoomEventIndex();
+    }
+
+    /**
+     * Returns the events and indexes as they are now, in a view that never changes. Every
+     * change publishes a new view, so many threads can run reports on the view they hold
+     * without locking and without seeing events that are added while they read.
+     * 
+     * @return the current view of the cleaning events
+     */
+    public CleaningView getView() {
+    	CleaningView current = view;
+    	if (current == null) {
+    		synchronized (this) {
+    			current = view;
+    			if (current == null) {
+    				publish();
+    				current = view;
+    			}
+    		}
+    	}
+    	return current;
+    }
+
+    /**
+     * Publishes a new view of the event store and of every index that has been built.
+     * The lock must be held.
+     */
+    private void publish() {
+    	CleaningEventStore store = getEventStore();
+    	view = new CleaningView(store.copy().freeze(),
+    			roomEventIndex == null ? null : roomEventIndex.copy().freeze(),
+    			coverageIndex == null ? null : coverageIndex.copy().freeze(), ++viewCount);
+    }
+
+    /**
+     * Takes over any index that a reader built for the current view, so that it is kept
+     * up to date from now on instead of being built again for the next view. The lock
+     * must be held.
+     */
+    private void adoptViewIndexes() {
+    	CleaningView current = view;
+    	if (current == null) {
+    		return;
+    	}
+    	if (roomEventIndex == null && current.peekRoomEventIndex() != null) {
+    		roomEventIndex = current.peekRoomEventIndex().copy();
+    	}
+    	if (coverageIndex == null && current.peekCoverageIndex() != null) {
+    		coverageIndex = current.peekCoverageIndex().copy();
+    	}
+    }
+
+    /**
+     * Adds a new cleaning log entry to everything that has already been loaded or built:
+     * the cleaning log, the map of rooms, the event store, the per-room totals, and the
+     * coverage and room indexes. Nothing is rebuilt, so the cost does not depend on
+     * how many events were loaded before. Once a view has been requested, a new view with
+     * the entry is published afterwards. The view shares the per-room state in chunks, so
+     * this only copies the chunk of the entry's room.
+     * 
+     * @param log the new cleaning log entry
+     * @return true if the entry was added, or false if its room does not exist
+     */
+    public synchronized boolean addEvent(CleaningLogEntry log) {
+    	int room = roomDictionary.getOrdinal(log.getRoomID());
+    	if (room < 0) {
+    		return false;
+    	}
+    	adoptViewIndexes();
+    	append(log.getTimestamp().toEpochSecond(ZoneOffset.UTC), room, log.getPercentCompleted(), log);
+    	if (view != null) {
+    		publish();
+    	}
+    	return true;
+    }
+
+    /**
+     * Reads the lines that were written to the end of the cleaning log file since it was
+     * last read and adds their cleaning log entries like addEvent. Every new line is
+     * parsed before any entry is added, so a malformed line leaves everything unchanged
+     * and the same lines are read again by the next call. A last line with no line
+     * terminator is still being written, so it is left for the next call as well.
+     * 
+     * When the files were loaded in LIST or STREAMING mode, the position of the end of
+     * the log is its length after loading, so lines written while the file was being
+     * loaded the first time might be read twice.
+     * 
+     * @return the number of cleaning log entries that were added
+     * @throws FileNotFoundException if the cleaning log file cannot be read
+     */
+    public synchronized int appendLogTail() throws FileNotFoundException {
+    	CleaningEventStore newEvents = new CleaningEventStore(roomDictionary);
+    	long[] rows = new long[1];
+    	long position = MappedInputReader.readLogTail(pathToLogFile, logFilePosition, (epochSecond, roomID, percent) -> {
+    		rows[0]++;
+    		newEvents.add(epochSecond, roomID, percent);
+    	});
+    	CleaningMetrics.count(Counter.ROWS_PARSED, rows[0]);
+    	CleaningMetrics.count(Counter.ROWS_REJECTED, rows[0] - newEvents.size());
+    	appendAll(newEvents);
+    	logFilePosition = position;
+    	return newEvents.size();
+    }
+
+    /**
+     * Takes a cleaning log entry from one of many threads reporting at the same time. The
+     * entry is put in the buffer of its room without taking the lock that addEvent takes,
+     * and only threads reporting rooms in the same stripe of the buffer wait for each other.
+     * 
+     * Reports do not include the entry until it is added by flushIngested. That happens
+     * on its own once a stripe holds INGEST_FLUSH_SIZE entries, on the thread that filled it.
+     * 
+     * @param log the new cleaning log entry
+     * @return true if the entry was taken, or false if its room does not exist
+     */
+    public boolean ingest(CleaningLogEntry log) {
+    	int room = roomDictionary.getOrdinal(log.getRoomID());
+    	if (room < 0) {
+    		return false;
+    	}
+    	if (getIngestBuffer().add(log.getTimestamp().toEpochSecond(ZoneOffset.UTC), room, log.getPercentCompleted()) >= INGEST_FLUSH_SIZE) {
+    		flushIngested();
+    	}
+    	return true;
+    }
+
+    /**
+     * Adds every cleaning log entry that was taken by ingest like addEvent, and publishes
+     * them in one new view so that reports see all of them or none of them. The entries
+     * of each room keep the order they were ingested in.
+     * 
+     * @return the number of cleaning log entries that were added
+     */
+    public synchronized int flushIngested() {
+    	CleaningEventStore newEvents = new CleaningEventStore(roomDictionary);
+    	getIngestBuffer().drainTo(newEvents);
+    	appendAll(newEvents);
+    	return newEvents.size();
+    }
+
+    /**
+     * Returns the tracker of vacuum bags, creating it the first time. Every event that is
+     * added afterwards, by addEvent, appendLogTail or flushIngested, fills the bags it
+     * tracks as it is added.
+     * 
+     * @return the vacuum bag tracker
+     */
+    public synchronized VacuumBagTracker getVacuumBagTracker() {
+    	if (vacuumBagTracker == null) {
+    		vacuumBagTracker = new VacuumBagTracker(this, roomDictionary);
+    	}
+    	return vacuumBagTracker;
+    }
+
+    /**
+     * Returns the buffer for ingested cleaning log entries, creating it the first time
+     * 
+     * @return the ingest buffer
+     */
+    private StripedEventBuffer getIngestBuffer() {
+    	StripedEventBuffer buffer = ingestBuffer;
+    	if (buffer == null) {
+    		synchronized (this) {
+    			buffer = ingestBuffer;
+    			if (buffer == null) {
+    				buffer = new StripedEventBuffer(roomDictionary);
+    				ingestBuffer = buffer;
+    			}
+    		}
+    	}
+    	return buffer;
+    }
+
+    /**
+     * Adds every event in a store like addEvent and then publishes one new view. The lock
+     * must be held.
+     * 
+     * @param newEvents the events to add
+     */
+    private void appendAll(CleaningEventStore newEvents) {
+    	adoptViewIndexes();
+    	for (int i = 0; i < newEvents.size(); i++) {
+    		append(newEvents.getTimestamp(i), newEvents.getRoom(i), newEvents.getPercentCleaned(i), null);
+    	}
+    	//Readers see every new entry at once, never only some of them
+    	if (view != null && newEvents.size() > 0) {
+    		publish();
+    	}
+    }
+
+    /**
+     * Adds a cleaning event to every structure that exists
+     * 
+     * @param epochSecond the time of the event in epoch seconds
+     * @param room the ordinal of the room that was cleaned
+     * @param percentCleaned the percent of the room that was cleaned
+     * @param log the cleaning log entry of the event, or null to create it only if it is needed
+     */
+    private void append(long epochSecond, int room, int percentCleaned, CleaningLogEntry log) {
+    	//Callers only pass events the store accepts, so every structure gets the same events
+    	if (eventStore != null) {
+    		eventStore.add(epochSecond, room, percentCleaned);
+    		if (roomEventIndex != null) {
+    			roomEventIndex.add(room, epochSecond, eventStore.size() - 1, eventStore.getCoverage(eventStore.size() - 1));
+    		}
+    	}
+    	if (coverageIndex != null) {
+    		coverageIndex.add(epochSecond, roomDictionary.getSquareFeet(room) * percentCleaned / 100);
+    	}
+    	if (vacuumBagTracker != null) {
+    		vacuumBagTracker.record(epochSecond, room, roomDictionary.getSquareFeet(room) * percentCleaned / 100);
+    	}
+    	if (listOfCleaningLogs != null || eventLists != null) {
+    		CleaningLogEntry entry = log;
+    		if (entry == null) {
+    			entry = new CleaningLogEntry(LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC),
+    					roomDictionary.getRoomID(room), percentCleaned);
+    		}
+    		if (listOfCleaningLogs != null) {
+    			listOfCleaningLogs.addLast(entry);
+    		}
+    		if (eventLists != null) {
+    			eventLists[room].addLast(entry);
+    		}
     	}
-    	//Iterate through all the CleaningLogs
-    	for (CleaningLogEntry log : listOfCleaningLogs) {
-    		//Check if the event of the log happened after the inputed date
-    		if (time.compareTo(log.getTimestamp()) < 0) {
-    			//Get the room from the roommap and use it to calculate the square footage
-    			RoomRecord room = roomMap.get(log.getRoomID());
-    			int squareFoot = room.getLength() * room.getWidth();
-    			//Use the square footage and log percent cleaned and add it to coverage
-    			coverage += squareFoot * log.getPercentCompleted() / 100;
-    		}			
-    	}
-    	//Return coverage
-		return coverage;
     }
 }
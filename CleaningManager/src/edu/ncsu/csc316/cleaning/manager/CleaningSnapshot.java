@@ -0,0 +1,534 @@
+package edu.ncsu.csc316.cleaning.manager;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * CleaningSnapshot saves everything a CleaningManager builds from its files to one binary
+ * file: the room dictionary, the cleaning events in columns, the events of each room in
+ * order, and the coverage prefix sums. A later run memory-maps the snapshot and copies the
+ * arrays straight out of it instead of parsing the CSV files again.
+ *
+ * The snapshot starts with a header:
+ * <pre>
+ *   int  magic number, int version
+ *   long room file length, long room file last modified, long room file sample checksum
+ *   long log position, long log sample checksum at that position
+ *   long body length, long CRC32 of the body
+ * </pre>
+ * Reading the whole of a multi-GB source file to check it would cost as much as parsing
+ * it, so each source file is checked by its length and a CRC32 of its first and last
+ * 64 KB. The room file must not have changed at all. The cleaning log only has lines
+ * added to its end, so the snapshot stays usable as long as the log still starts with
+ * the bytes the snapshot was built from; the lines after that are read as a tail.
+ *
+ * The body is checked against its CRC32 before any of it is used. A snapshot that is
+ * missing, from another version, built from other files, or damaged is never used.
+ *
+ * @author Daniel Avisse
+ *
+ */
+public class CleaningSnapshot {
+
+	/** The first four bytes of every snapshot, "CMSN" */
+	private static final int MAGIC = 0x434D534E;
+
+	/** The version of the snapshot layout, which changes whenever the layout changes */
+	private static final int VERSION = 2;
+
+	/** The number of bytes in the header */
+	private static final int HEADER_LENGTH = 2 * Integer.BYTES + 7 * Long.BYTES;
+
+	/** The number of bytes at each end of a source file that are checked */
+	private static final int SAMPLE_SIZE = 64 * 1024;
+
+	/** The largest part of the snapshot that is mapped at a time */
+	private static final int WINDOW_SIZE = 1 << 30;
+
+	/** The rooms read from the snapshot */
+	private RoomDictionary dictionary;
+
+	/** The cleaning events read from the snapshot */
+	private CleaningEventStore store;
+
+	/** The events of each room read from the snapshot */
+	private RoomEventIndex roomEvents;
+
+	/** The coverage prefix sums read from the snapshot */
+	private CoverageIndex coverage;
+
+	/** The position in the cleaning log after the last line in the snapshot */
+	private long logPosition;
+
+	/**
+	 * Constructs a CleaningSnapshot that holds what was read from a snapshot file
+	 *
+	 * @param dictionary the rooms
+	 * @param store the cleaning events
+	 * @param roomEvents the events of each room
+	 * @param coverage the coverage prefix sums
+	 * @param logPosition the position in the cleaning log after the last line in the snapshot
+	 */
+	private CleaningSnapshot(RoomDictionary dictionary, CleaningEventStore store, RoomEventIndex roomEvents,
+			CoverageIndex coverage, long logPosition) {
+		this.dictionary = dictionary;
+		this.store = store;
+		this.roomEvents = roomEvents;
+		this.coverage = coverage;
+		this.logPosition = logPosition;
+	}
+
+	/**
+	 * Returns the rooms read from the snapshot
+	 *
+	 * @return the room dictionary
+	 */
+	public RoomDictionary getRooms() {
+		return dictionary;
+	}
+
+	/**
+	 * Returns the cleaning events read from the snapshot
+	 *
+	 * @return the event store
+	 */
+	public CleaningEventStore getEventStore() {
+		return store;
+	}
+
+	/**
+	 * Returns the events of each room read from the snapshot
+	 *
+	 * @return the room event index
+	 */
+	public RoomEventIndex getRoomEventIndex() {
+		return roomEvents;
+	}
+
+	/**
+	 * Returns the coverage prefix sums read from the snapshot
+	 *
+	 * @return the coverage index
+	 */
+	public CoverageIndex getCoverageIndex() {
+		return coverage;
+	}
+
+	/**
+	 * Returns the position in the cleaning log after the last line in the snapshot. Any
+	 * lines after it were added to the log after the snapshot was written.
+	 *
+	 * @return the position in the cleaning log
+	 */
+	public long getLogPosition() {
+		return logPosition;
+	}
+
+	/**
+	 * Writes a snapshot. The snapshot is written to a temporary file next to it first and
+	 * then moved into place, so a reader never sees a half written snapshot.
+	 *
+	 * @param pathToSnapshot the path to write the snapshot to
+	 * @param pathToRoomFile the room file the events were loaded from
+	 * @param pathToLogFile the cleaning log file the events were loaded from
+	 * @param logPosition the position in the cleaning log after the last line that was loaded
+	 * @param store the cleaning events
+	 * @param roomEvents the events of each room
+	 * @param coverage the coverage prefix sums
+	 * @throws IOException if the snapshot or either source file cannot be read or written
+	 */
+	public static void write(String pathToSnapshot, String pathToRoomFile, String pathToLogFile, long logPosition,
+			CleaningEventStore store, RoomEventIndex roomEvents, CoverageIndex coverage) throws IOException {
+		Path target = Paths.get(pathToSnapshot).toAbsolutePath();
+		Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+		try {
+			CRC32 checksum = new CRC32();
+			long bodyLength;
+			try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+				channel.position(HEADER_LENGTH);
+				CountingOutputStream counter = new CountingOutputStream(Channels.newOutputStream(channel));
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(counter, checksum), 1 << 16));
+				writeBody(out, store, roomEvents, coverage);
+				out.flush();
+				bodyLength = counter.count;
+
+				File roomFile = new File(pathToRoomFile);
+				ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+				header.putInt(MAGIC).putInt(VERSION);
+				header.putLong(roomFile.length()).putLong(roomFile.lastModified()).putLong(sampleChecksum(pathToRoomFile, roomFile.length()));
+				header.putLong(logPosition).putLong(sampleChecksum(pathToLogFile, logPosition));
+				header.putLong(bodyLength).putLong(checksum.getValue());
+				header.flip();
+				while (header.hasRemaining()) {
+					channel.write(header, header.position());
+				}
+			}
+			try {
+				Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	/**
+	 * Writes the rooms, the events, the events of each room and the prefix sums
+	 *
+	 * @param out the stream to write to
+	 * @param store the cleaning events
+	 * @param roomEvents the events of each room
+	 * @param coverage the coverage prefix sums
+	 * @throws IOException if the stream cannot be written
+	 */
+	private static void writeBody(DataOutputStream out, CleaningEventStore store, RoomEventIndex roomEvents,
+			CoverageIndex coverage) throws IOException {
+		RoomDictionary rooms = store.getRooms();
+		out.writeInt(rooms.size());
+		for (int i = 0; i < rooms.size(); i++) {
+			byte[] roomID = rooms.getRoomID(i).getBytes(StandardCharsets.UTF_8);
+			out.writeInt(rooms.getSquareFeet(i));
+			out.writeInt(roomID.length);
+			out.write(roomID);
+		}
+		for (int i = 0; i < rooms.size(); i++) {
+			out.writeInt(rooms.getSortedOrdinal(i));
+		}
+
+		int size = store.size();
+		out.writeInt(size);
+		for (int i = 0; i < size; i++) {
+			out.writeLong(store.getTimestamp(i));
+		}
+		for (int i = 0; i < size; i++) {
+			out.writeInt(store.getRoom(i));
+		}
+		for (int i = 0; i < size; i++) {
+			out.writeInt(store.getPercentCleaned(i));
+		}
+		//The events of each room are written oldest first, room by room
+		for (int room = 0; room < rooms.size(); room++) {
+			for (int position = roomEvents.getEventCount(room) - 1; position >= 0; position--) {
+				out.writeInt(roomEvents.getEvent(room, position));
+			}
+		}
+
+		out.writeInt(coverage.size());
+		for (int i = 0; i < coverage.size(); i++) {
+			out.writeLong(coverage.getTimestamp(i));
+		}
+		for (int i = 0; i <= coverage.size(); i++) {
+			out.writeLong(coverage.getPrefixCoverage(i));
+		}
+	}
+
+	/**
+	 * Reads a snapshot if it is up to date with the source files
+	 *
+	 * @param pathToSnapshot the path to the snapshot
+	 * @param pathToRoomFile the room file the snapshot must have been built from
+	 * @param pathToLogFile the cleaning log file the snapshot must have been built from
+	 * @return what was read from the snapshot, or null if the snapshot is missing, out of date, or damaged
+	 */
+	public static CleaningSnapshot read(String pathToSnapshot, String pathToRoomFile, String pathToLogFile) {
+		File snapshot = new File(pathToSnapshot);
+		if (!snapshot.isFile() || snapshot.length() < HEADER_LENGTH) {
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(snapshot.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_LENGTH);
+			if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+				return null;
+			}
+			File roomFile = new File(pathToRoomFile);
+			File logFile = new File(pathToLogFile);
+			long roomLength = header.getLong();
+			long roomModified = header.getLong();
+			long roomChecksum = header.getLong();
+			if (roomLength != roomFile.length() || roomModified != roomFile.lastModified()
+					|| roomChecksum != sampleChecksum(pathToRoomFile, roomLength)) {
+				return null;
+			}
+			long logPosition = header.getLong();
+			long logChecksum = header.getLong();
+			if (!logFile.isFile() || logFile.length() < logPosition || logChecksum != sampleChecksum(pathToLogFile, logPosition)) {
+				return null;
+			}
+			long bodyLength = header.getLong();
+			long bodyChecksum = header.getLong();
+			if (HEADER_LENGTH + bodyLength != channel.size()) {
+				return null;
+			}
+			MappedSource body = new MappedSource(channel, HEADER_LENGTH);
+			if (body.checksum() != bodyChecksum) {
+				return null;
+			}
+			return readBody(body, logPosition);
+		} catch (IOException | RuntimeException e) {
+			//A snapshot that cannot be read is treated like a missing one, so the files are parsed instead
+			return null;
+		}
+	}
+
+	/**
+	 * Reads the rooms, the events, the events of each room and the prefix sums
+	 *
+	 * @param in the mapped body of the snapshot
+	 * @param logPosition the position in the cleaning log after the last line in the snapshot
+	 * @return what was read from the snapshot
+	 * @throws IOException if the snapshot cannot be mapped
+	 */
+	private static CleaningSnapshot readBody(MappedSource in, long logPosition) throws IOException {
+		int roomCount = in.readInt();
+		String[] roomIDs = new String[roomCount];
+		int[] squareFeet = new int[roomCount];
+		for (int i = 0; i < roomCount; i++) {
+			squareFeet[i] = in.readInt();
+			byte[] roomID = new byte[in.readInt()];
+			in.readBytes(roomID);
+			roomIDs[i] = new String(roomID, StandardCharsets.UTF_8);
+		}
+		int[] sortedOrdinals = new int[roomCount];
+		in.readInts(sortedOrdinals, roomCount);
+		RoomDictionary dictionary = new RoomDictionary(roomIDs, squareFeet, sortedOrdinals);
+
+		int size = in.readInt();
+		long[] timestamps = new long[Math.max(1, size)];
+		int[] rooms = new int[Math.max(1, size)];
+		int[] percents = new int[Math.max(1, size)];
+		in.readLongs(timestamps, size);
+		in.readInts(rooms, size);
+		in.readInts(percents, size);
+		CleaningEventStore store = new CleaningEventStore(dictionary, timestamps, rooms, percents, size);
+		int[] groupedEvents = new int[size];
+		in.readInts(groupedEvents, size);
+		RoomEventIndex roomEvents = new RoomEventIndex(store, groupedEvents);
+
+		int coverageSize = in.readInt();
+		long[] coverageTimestamps = new long[Math.max(1, coverageSize)];
+		long[] prefixCoverage = new long[coverageTimestamps.length + 1];
+		in.readLongs(coverageTimestamps, coverageSize);
+		in.readLongs(prefixCoverage, coverageSize + 1);
+		CoverageIndex coverage = new CoverageIndex(coverageTimestamps, prefixCoverage, coverageSize);
+		return new CleaningSnapshot(dictionary, store, roomEvents, coverage, logPosition);
+	}
+
+	/**
+	 * Returns a CRC32 of the first and last 64 KB of the first length bytes of a file
+	 *
+	 * @param pathToFile the path to the file
+	 * @param length the number of bytes of the file to check
+	 * @return the checksum
+	 * @throws IOException if the file cannot be read
+	 */
+	private static long sampleChecksum(String pathToFile, long length) throws IOException {
+		CRC32 checksum = new CRC32();
+		try (FileChannel channel = FileChannel.open(Paths.get(pathToFile), StandardOpenOption.READ)) {
+			int headLength = (int) Math.min(SAMPLE_SIZE, length);
+			checksum.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, headLength));
+			long tailStart = Math.max(headLength, length - SAMPLE_SIZE);
+			if (tailStart < length) {
+				checksum.update(channel.map(FileChannel.MapMode.READ_ONLY, tailStart, length - tailStart));
+			}
+		}
+		checksum.update(ByteBuffer.allocate(Long.BYTES).putLong(0, length));
+		return checksum.getValue();
+	}
+
+	/**
+	 * An output stream that counts the bytes written through it
+	 *
+	 * @author Daniel Avisse
+	 *
+	 */
+	private static class CountingOutputStream extends OutputStream {
+
+		/** The stream the bytes are written to */
+		private OutputStream out;
+
+		/** The number of bytes written */
+		private long count;
+
+		/**
+		 * Constructs a CountingOutputStream
+		 *
+		 * @param out the stream the bytes are written to
+		 */
+		CountingOutputStream(OutputStream out) {
+			this.out = out;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+	}
+
+	/**
+	 * Reads values in order from a file that is mapped one window at a time, so that
+	 * snapshots larger than a single mapping can be read
+	 *
+	 * @author Daniel Avisse
+	 *
+	 */
+	private static class MappedSource {
+
+		/** The snapshot file */
+		private FileChannel channel;
+
+		/** The position in the file of the start of the current window */
+		private long windowStart;
+
+		/** The current window */
+		private MappedByteBuffer window;
+
+		/**
+		 * Constructs a MappedSource that starts reading at a position in the file
+		 *
+		 * @param channel the snapshot file
+		 * @param start the position of the first byte to read
+		 * @throws IOException if the file cannot be mapped
+		 */
+		MappedSource(FileChannel channel, long start) throws IOException {
+			this.channel = channel;
+			map(start);
+		}
+
+		/**
+		 * Maps the window that starts at a position in the file
+		 *
+		 * @param start the position of the start of the window
+		 * @throws IOException if the file cannot be mapped
+		 */
+		private void map(long start) throws IOException {
+			windowStart = start;
+			window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, channel.size() - start));
+		}
+
+		/**
+		 * Makes sure the current window has at least some bytes left, mapping the next window if not
+		 *
+		 * @param bytes the number of bytes needed
+		 * @throws IOException if the file cannot be mapped
+		 */
+		private void require(int bytes) throws IOException {
+			if (window.remaining() < bytes) {
+				map(windowStart + window.position());
+			}
+		}
+
+		/**
+		 * Returns the CRC32 of every byte from the current position to the end of the file,
+		 * without moving the position
+		 *
+		 * @return the checksum
+		 * @throws IOException if the file cannot be mapped
+		 */
+		long checksum() throws IOException {
+			CRC32 checksum = new CRC32();
+			long start = windowStart + window.position();
+			for (long position = start; position < channel.size(); position += WINDOW_SIZE) {
+				checksum.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, channel.size() - position)));
+			}
+			return checksum.getValue();
+		}
+
+		/**
+		 * Reads an int
+		 *
+		 * @return the int
+		 * @throws IOException if the file cannot be mapped
+		 */
+		int readInt() throws IOException {
+			require(Integer.BYTES);
+			return window.getInt();
+		}
+
+		/**
+		 * Fills an array with bytes
+		 *
+		 * @param values the array to fill
+		 * @throws IOException if the file cannot be mapped
+		 */
+		void readBytes(byte[] values) throws IOException {
+			readBytes(values, values.length);
+		}
+
+		/**
+		 * Reads bytes into the start of an array
+		 *
+		 * @param values the array to read into
+		 * @param count the number of bytes to read
+		 * @throws IOException if the file cannot be mapped
+		 */
+		void readBytes(byte[] values, int count) throws IOException {
+			int done = 0;
+			while (done < count) {
+				require(1);
+				int part = Math.min(count - done, window.remaining());
+				window.get(values, done, part);
+				done += part;
+			}
+		}
+
+		/**
+		 * Reads ints into the start of an array
+		 *
+		 * @param values the array to read into
+		 * @param count the number of ints to read
+		 * @throws IOException if the file cannot be mapped
+		 */
+		void readInts(int[] values, int count) throws IOException {
+			int done = 0;
+			while (done < count) {
+				require(Integer.BYTES);
+				int part = Math.min(count - done, window.remaining() / Integer.BYTES);
+				window.asIntBuffer().get(values, done, part);
+				window.position(window.position() + part * Integer.BYTES);
+				done += part;
+			}
+		}
+
+		/**
+		 * Reads longs into the start of an array
+		 *
+		 * @param values the array to read into
+		 * @param count the number of longs to read
+		 * @throws IOException if the file cannot be mapped
+		 */
+		void readLongs(long[] values, int count) throws IOException {
+			int done = 0;
+			while (done < count) {
+				require(Long.BYTES);
+				int part = Math.min(count - done, window.remaining() / Long.BYTES);
+				window.asLongBuffer().get(values, done, part);
+				window.position(window.position() + part * Long.BYTES);
+				done += part;
+			}
+		}
+	}
+}
@@ -0,0 +1,235 @@
+package edu.ncsu.csc316.cleaning.manager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import edu.ncsu.csc316.cleaning.metrics.CleaningMetrics;
+import edu.ncsu.csc316.cleaning.metrics.CleaningMetrics.Operation;
+
+/**
+ * CleaningView is an unchanging copy of the cleaning events and indexes of a
+ * CleaningManager at one point in time. The manager publishes a new view after every
+ * change, so a report that reads everything from one view always sees the same events,
+ * even while new events are being added.
+ *
+ * A view is never changed after it is published, so any number of threads can read it
+ * without locking. An index that the view does not have yet is built from the view's
+ * own events the first time it is asked for. If several threads ask at once they may
+ * each build it, but only the first one finished is kept and every thread gets that one.
+ *
+ * A view shares its arrays with the manager instead of copying the events, and the
+ * per-room totals and arrays are shared in chunks of rooms that are only copied when
+ * the manager next writes to them. Publishing a view after one new event takes time
+ * for the number of chunks, plus one chunk of rooms once the event is added.
+ *
+ * @author Daniel Avisse
+ *
+ */
+public class CleaningView {
+
+	/** The number of views the manager published before and including this one */
+	private final long version;
+
+	/** The cleaning events when the view was published */
+	private final CleaningEventStore eventStore;
+
+	/** The events of every room sorted from the most recent to the oldest, once it is built */
+	private final AtomicReference<RoomEventIndex> roomEventIndex;
+
+	/** The index used to answer coverage queries, once it is built */
+	private final AtomicReference<CoverageIndex> coverageIndex;
+
+	/**
+	 * Constructs a new CleaningView. The store and any index that is given must already
+	 * be frozen copies that nothing else will change.
+	 *
+	 * @param eventStore the cleaning events
+	 * @param roomEventIndex the sorted events of every room, or null to build it when it is needed
+	 * @param coverageIndex the coverage index, or null to build it when it is needed
+	 * @param version the number of views the manager published before and including this one
+	 */
+	CleaningView(CleaningEventStore eventStore, RoomEventIndex roomEventIndex, CoverageIndex coverageIndex, long version) {
+		this.version = version;
+		this.eventStore = eventStore;
+		this.roomEventIndex = new AtomicReference<RoomEventIndex>(roomEventIndex);
+		this.coverageIndex = new AtomicReference<CoverageIndex>(coverageIndex);
+	}
+
+	/**
+	 * Returns the version of the view. Every view the manager publishes has a higher
+	 * version than the one before, so two reports with the same version read the same events.
+	 *
+	 * @return the version of the view
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Returns the cleaning events of the view, which cannot be added to
+	 *
+	 * @return the cleaning events
+	 */
+	public CleaningEventStore getEventStore() {
+		return eventStore;
+	}
+
+	/**
+	 * Returns the rooms that the events refer to
+	 *
+	 * @return the room dictionary
+	 */
+	public RoomDictionary getRooms() {
+		return eventStore.getRooms();
+	}
+
+	/**
+	 * Returns the number of cleanings, the square footage cleaned, and the first and last
+	 * cleaning of every room
+	 *
+	 * @return the totals of every room, indexed by room ordinal
+	 */
+	public RoomAggregates getAggregates() {
+		return eventStore.getAggregates();
+	}
+
+	/**
+	 * Returns the events of every room sorted from the most recent to the oldest,
+	 * building the index the first time it is asked for
+	 *
+	 * @return the events of every room in descending order by time
+	 */
+	public RoomEventIndex getRoomEventIndex() {
+		RoomEventIndex index = roomEventIndex.get();
+		if (index == null) {
+			long start = CleaningMetrics.start(Operation.BUILD_ROOM_EVENT_INDEX);
+			roomEventIndex.compareAndSet(null, new RoomEventIndex(eventStore).freeze());
+			CleaningMetrics.stop(Operation.BUILD_ROOM_EVENT_INDEX, start);
+			index = roomEventIndex.get();
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the index used to answer coverage queries, building it the first time it
+	 * is asked for
+	 *
+	 * @return the coverage index
+	 */
+	public CoverageIndex getCoverageIndex() {
+		CoverageIndex index = coverageIndex.get();
+		if (index == null) {
+			long start = CleaningMetrics.start(Operation.BUILD_COVERAGE_INDEX);
+			coverageIndex.compareAndSet(null, new CoverageIndex(eventStore).freeze());
+			CleaningMetrics.stop(Operation.BUILD_COVERAGE_INDEX, start);
+			index = coverageIndex.get();
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the square footage (as a whole number) cleaned since a provided date
+	 * and time
+	 *
+	 * @param time the time since which to calculate square footage cleaned
+	 * @return the square footage cleaned since the provided date and time
+	 */
+	public int getCoverageSince(LocalDateTime time) {
+		CoverageIndex index = getCoverageIndex();
+		long start = CleaningMetrics.start(Operation.GET_COVERAGE_SINCE);
+		int coverage = index.getCoverageSince(time);
+		CleaningMetrics.stop(Operation.GET_COVERAGE_SINCE, start);
+		return coverage;
+	}
+
+	/**
+	 * Returns the square footage cleaned since each of many dates and times, answered
+	 * together in one pass through the coverage index
+	 *
+	 * @param times the times since which to calculate square footage cleaned, in any order
+	 * @return the square footage cleaned since each time, in the order the times were given
+	 */
+	public long[] getCoverageSince(LocalDateTime[] times) {
+		long[] epochSeconds = new long[times.length];
+		for (int i = 0; i < times.length; i++) {
+			epochSeconds[i] = times[i].toEpochSecond(ZoneOffset.UTC);
+		}
+		return getCoverageIndex().getCoverageSince(epochSeconds);
+	}
+
+	/**
+	 * Returns the square footage cleaned from one time up to, but not including, another
+	 *
+	 * @param from the first time to include
+	 * @param to the first time not to include
+	 * @return the square footage cleaned in [from, to)
+	 */
+	public long getCoverageBetween(LocalDateTime from, LocalDateTime to) {
+		return getCoverageIndex().getCoverageBetween(from, to);
+	}
+
+	/**
+	 * Returns the square footage cleaned in a room from one time up to, but not including, another
+	 *
+	 * @param room the ordinal of the room
+	 * @param from the first time to include
+	 * @param to the first time not to include
+	 * @return the square footage cleaned in the room in [from, to)
+	 */
+	public long getCoverageBetween(int room, LocalDateTime from, LocalDateTime to) {
+		return getRoomEventIndex().getCoverageBetween(room, from.toEpochSecond(ZoneOffset.UTC), to.toEpochSecond(ZoneOffset.UTC));
+	}
+
+	/**
+	 * Returns the square footage cleaned in every calendar hour, day or month of a range
+	 *
+	 * @param from the first time to include
+	 * @param to the first time not to include
+	 * @param unit HOURS, DAYS or MONTHS
+	 * @return the square footage cleaned in each period, from the earliest
+	 * @throws IllegalArgumentException if the unit is not HOURS, DAYS or MONTHS
+	 */
+	public long[] getCoverageByPeriod(LocalDateTime from, LocalDateTime to, ChronoUnit unit) {
+		return getCoverageIndex().getCoverageByPeriod(from, to, unit);
+	}
+
+	/**
+	 * Returns the square footage cleaned in a room in every calendar hour, day or month of a range
+	 *
+	 * @param room the ordinal of the room
+	 * @param from the first time to include
+	 * @param to the first time not to include
+	 * @param unit HOURS, DAYS or MONTHS
+	 * @return the square footage cleaned in the room in each period, from the earliest
+	 * @throws IllegalArgumentException if the unit is not HOURS, DAYS or MONTHS
+	 */
+	public long[] getCoverageByPeriod(int room, LocalDateTime from, LocalDateTime to, ChronoUnit unit) {
+		long[] boundaries = CoverageIndex.getPeriodBoundaries(from, to, unit);
+		RoomEventIndex roomEvents = getRoomEventIndex();
+		long[] coverage = new long[boundaries.length - 1];
+		for (int i = 0; i < coverage.length; i++) {
+			coverage[i] = roomEvents.getCoverageBetween(room, boundaries[i], boundaries[i + 1]);
+		}
+		return coverage;
+	}
+
+	/**
+	 * Returns the sorted events of every room if they have been built, without building them
+	 *
+	 * @return the room event index, or null if it has not been built
+	 */
+	RoomEventIndex peekRoomEventIndex() {
+		return roomEventIndex.get();
+	}
+
+	/**
+	 * Returns the coverage index if it has been built, without building it
+	 *
+	 * @return the coverage index, or null if it has not been built
+	 */
+	CoverageIndex peekCoverageIndex() {
+		return coverageIndex.get();
+	}
+}
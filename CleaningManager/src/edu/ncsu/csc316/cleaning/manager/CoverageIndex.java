@@ -0,0 +1,344 @@
+package edu.ncsu.csc316.cleaning.manager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+
+/**
+ * CoverageIndex answers "how many square feet have been cleaned since a date" without
+ * scanning the cleaning log. The index is built once: the cleaning log entries are sorted
+ * by timestamp and a prefix sum of the square footage cleaned by each entry is stored,
+ * so that any query is a binary search followed by a subtraction.
+ *
+ * The same sums answer the coverage between any two times, and roll it up into the
+ * square footage cleaned in every hour, day or month of a range. Each period only takes
+ * one more binary search, however many events it holds.
+ *
+ * New events can be added after the index is built. An event that is newer than every
+ * event in the index is added at the end in constant time. An older event is inserted
+ * in place, which costs time proportional to the number of events newer than it.
+ *
+ * A copy of the index shares its arrays. Adding to the end writes past the entries the
+ * copy can see, and the arrays are only copied before an older event is inserted.
+ *
+ * The square footage of each entry is rounded down on its own (square feet of the room
+ * multiplied by the percent cleaned, divided by 100) before it is added to the sums.
+ *
+ * @author Daniel Avisse
+ *
+ */
+public class CoverageIndex {
+
+	/** The timestamp of every cleaning log entry in epoch seconds, sorted in ascending order */
+	private long[] timestamps;
+
+	/** prefixCoverage[i] holds the square footage cleaned by the first i entries */
+	private long[] prefixCoverage;
+
+	/** The number of entries in the index */
+	private int size;
+
+	/** True if the arrays are also held by a copy of the index */
+	private boolean shared;
+
+	/** True if the index belongs to a published CleaningView and cannot be added to */
+	private boolean readOnly;
+
+	/**
+	 * Constructs a new CoverageIndex from the events in a columnar event store. The events
+	 * are sorted as primitives, so no cleaning log entries are created.
+	 *
+	 * @param store the cleaning events
+	 */
+	public CoverageIndex(CleaningEventStore store) {
+		int[] order = store.sortByTimestamp(false);
+		size = order.length;
+		timestamps = new long[Math.max(1, size)];
+		prefixCoverage = new long[timestamps.length + 1];
+		for (int i = 0; i < size; i++) {
+			timestamps[i] = store.getTimestamp(order[i]);
+			prefixCoverage[i + 1] = prefixCoverage[i] + store.getCoverage(order[i]);
+		}
+	}
+
+	/**
+	 * Constructs a CoverageIndex from timestamps and prefix sums that were already built,
+	 * such as the ones read back from a CleaningSnapshot
+	 *
+	 * @param timestamps the sorted timestamps, with room for at least one entry
+	 * @param prefixCoverage the prefix sums, one longer than timestamps
+	 * @param size the number of entries in the index
+	 */
+	CoverageIndex(long[] timestamps, long[] prefixCoverage, int size) {
+		this.timestamps = timestamps;
+		this.prefixCoverage = prefixCoverage;
+		this.size = size;
+	}
+
+	/**
+	 * Returns the square footage (as a whole number) cleaned after the provided date
+	 * and time. Cleaning events that happened exactly at the provided time are not counted.
+	 *
+	 * @param time the time since which to calculate square footage cleaned
+	 * @return the square footage cleaned since the provided date and time
+	 */
+	public int getCoverageSince(LocalDateTime time) {
+		return (int) (prefixCoverage[size] - prefixCoverage[firstIndexAfter(toEpochSecond(time))]);
+	}
+
+	/**
+	 * Returns the square footage cleaned after each of many times, like getCoverageSince.
+	 * The times are sorted and answered in one pass forward through the index, where
+	 * each search starts where the last one stopped and gallops ahead, so the cost is
+	 * the sort plus at most one step per entry, and far less when there are few times.
+	 *
+	 * @param times the times in epoch seconds, in any order
+	 * @return the square footage cleaned after each time, in the order the times were given
+	 */
+	public long[] getCoverageSince(long[] times) {
+		long[] sorted = Arrays.copyOf(times, times.length);
+		Arrays.sort(sorted);
+		long[] sortedCoverage = new long[sorted.length];
+		int index = 0;
+		for (int i = 0; i < sorted.length; i++) {
+			index = firstIndexAfter(sorted[i], index);
+			sortedCoverage[i] = prefixCoverage[size] - prefixCoverage[index];
+		}
+		long[] coverage = new long[times.length];
+		for (int i = 0; i < times.length; i++) {
+			coverage[i] = sortedCoverage[Arrays.binarySearch(sorted, times[i])];
+		}
+		return coverage;
+	}
+
+	/**
+	 * Returns the square footage (as a whole number) cleaned from one time up to, but not
+	 * including, another
+	 *
+	 * @param from the first time to include
+	 * @param to the first time not to include
+	 * @return the square footage cleaned in [from, to), or 0 if to is not after from
+	 */
+	public long getCoverageBetween(LocalDateTime from, LocalDateTime to) {
+		return getCoverageBetween(toEpochSecond(from), toEpochSecond(to));
+	}
+
+	/**
+	 * Returns the square footage (as a whole number) cleaned from one time up to, but not
+	 * including, another
+	 *
+	 * @param from the first time to include in epoch seconds
+	 * @param to the first time not to include in epoch seconds
+	 * @return the square footage cleaned in [from, to), or 0 if to is not after from
+	 */
+	public long getCoverageBetween(long from, long to) {
+		if (to <= from) {
+			return 0;
+		}
+		return prefixCoverage[firstIndexAfter(to - 1)] - prefixCoverage[firstIndexAfter(from - 1)];
+	}
+
+	/**
+	 * Returns the square footage cleaned in every hour, day or month from one time up to,
+	 * but not including, another. The periods follow the calendar, so the first and last
+	 * periods only cover the part of them that is inside the range.
+	 *
+	 * @param from the first time to include
+	 * @param to the first time not to include
+	 * @param unit HOURS, DAYS or MONTHS
+	 * @return the square footage cleaned in each period, from the earliest
+	 * @throws IllegalArgumentException if the unit is not HOURS, DAYS or MONTHS
+	 */
+	public long[] getCoverageByPeriod(LocalDateTime from, LocalDateTime to, ChronoUnit unit) {
+		long[] boundaries = getPeriodBoundaries(from, to, unit);
+		long[] coverage = new long[boundaries.length - 1];
+		for (int i = 0; i < coverage.length; i++) {
+			coverage[i] = getCoverageBetween(boundaries[i], boundaries[i + 1]);
+		}
+		return coverage;
+	}
+
+	/**
+	 * Splits a range of time into calendar hours, days or months
+	 *
+	 * @param from the start of the range
+	 * @param to the end of the range
+	 * @param unit HOURS, DAYS or MONTHS
+	 * @return the start of every period in epoch seconds followed by the end of the range,
+	 *         or only the start of the range if it is empty
+	 * @throws IllegalArgumentException if the unit is not HOURS, DAYS or MONTHS
+	 */
+	static long[] getPeriodBoundaries(LocalDateTime from, LocalDateTime to, ChronoUnit unit) {
+		if (unit != ChronoUnit.HOURS && unit != ChronoUnit.DAYS && unit != ChronoUnit.MONTHS) {
+			throw new IllegalArgumentException("Coverage can only be rolled up by hours, days or months");
+		}
+		if (!to.isAfter(from)) {
+			return new long[] {toEpochSecond(from)};
+		}
+		LocalDateTime start = unit == ChronoUnit.MONTHS ? from.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1) : from.truncatedTo(unit);
+		long periods = unit.between(start, to);
+		if (start.plus(periods, unit).isBefore(to)) {
+			periods++;
+		}
+		long[] boundaries = new long[Math.toIntExact(periods + 1)];
+		boundaries[0] = toEpochSecond(from);
+		for (int i = 1; i < periods; i++) {
+			boundaries[i] = toEpochSecond(start.plus(i, unit));
+		}
+		boundaries[(int) periods] = toEpochSecond(to);
+		return boundaries;
+	}
+
+	/**
+	 * Returns a copy of the index with the entries it holds now. The copy shares the
+	 * arrays, so this takes constant time.
+	 *
+	 * @return the copy of the index
+	 */
+	CoverageIndex copy() {
+		CoverageIndex copy = new CoverageIndex(timestamps, prefixCoverage, size);
+		shared = true;
+		copy.shared = true;
+		return copy;
+	}
+
+	/**
+	 * Stops any more events from being added to the index, so that it can be read from
+	 * many threads at once
+	 *
+	 * @return this index
+	 */
+	CoverageIndex freeze() {
+		readOnly = true;
+		return this;
+	}
+
+	/**
+	 * Adds a cleaning event to the index
+	 *
+	 * @param epochSecond the time of the event in epoch seconds
+	 * @param coverage the square footage cleaned by the event
+	 * @throws UnsupportedOperationException if the index belongs to a published CleaningView
+	 */
+	public void add(long epochSecond, int coverage) {
+		if (readOnly) {
+			throw new UnsupportedOperationException("The entries of a published view cannot be changed");
+		}
+		//Events at the same time as the new event stay before it
+		int position = firstIndexAfter(epochSecond);
+		//Inserting would change the entries a copy can see, so the index gets its own arrays first
+		if (size == timestamps.length || (position < size && shared)) {
+			int capacity = size == timestamps.length ? size * 2 : timestamps.length;
+			long[] newTimestamps = new long[capacity];
+			long[] newPrefixCoverage = new long[capacity + 1];
+			System.arraycopy(timestamps, 0, newTimestamps, 0, size);
+			System.arraycopy(prefixCoverage, 0, newPrefixCoverage, 0, size + 1);
+			timestamps = newTimestamps;
+			prefixCoverage = newPrefixCoverage;
+			shared = false;
+		}
+		System.arraycopy(timestamps, position, timestamps, position + 1, size - position);
+		System.arraycopy(prefixCoverage, position + 1, prefixCoverage, position + 2, size - position);
+		timestamps[position] = epochSecond;
+		prefixCoverage[position + 1] = prefixCoverage[position] + coverage;
+		//Every entry after the new event now includes its square footage
+		for (int i = position + 2; i <= size + 1; i++) {
+			prefixCoverage[i] += coverage;
+		}
+		size++;
+	}
+
+	/**
+	 * Returns the number of cleaning log entries in the index
+	 *
+	 * @return the number of cleaning log entries
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the time of an entry in the index
+	 *
+	 * @param index the position of the entry, in ascending order by time
+	 * @return the time of the entry in epoch seconds
+	 */
+	long getTimestamp(int index) {
+		return timestamps[index];
+	}
+
+	/**
+	 * Returns the square footage cleaned by the entries before a position
+	 *
+	 * @param index the number of entries to total, from 0 to the size of the index
+	 * @return the square footage cleaned by the first index entries
+	 */
+	long getPrefixCoverage(int index) {
+		return prefixCoverage[index];
+	}
+
+	/**
+	 * Uses a binary search to find the first cleaning log entry that happened after the given time
+	 *
+	 * @param time the time in epoch seconds
+	 * @return the index of the first entry after the given time, or the number of entries if there is none
+	 */
+	private int firstIndexAfter(long time) {
+		return firstIndexAfter(time, 0, size);
+	}
+
+	/**
+	 * Finds the first cleaning log entry that happened after the given time, when every
+	 * entry before a starting index is known to be at or before it. The search gallops
+	 * ahead from the start in steps that double, then searches the last step.
+	 *
+	 * @param time the time in epoch seconds
+	 * @param start an index with no entry after the time before it
+	 * @return the index of the first entry after the given time, or the number of entries if there is none
+	 */
+	private int firstIndexAfter(long time, int start) {
+		int low = start;
+		int high = start;
+		int step = 1;
+		while (high < size && timestamps[high] <= time) {
+			low = high + 1;
+			high += step;
+			step *= 2;
+		}
+		return firstIndexAfter(time, low, Math.min(high, size));
+	}
+
+	/**
+	 * Uses a binary search to find the first cleaning log entry that happened after the
+	 * given time between two indexes
+	 *
+	 * @param time the time in epoch seconds
+	 * @param low an index with no entry after the time before it
+	 * @param high an index with no entry at or before the time from it on
+	 * @return the index of the first entry after the given time
+	 */
+	private int firstIndexAfter(long time, int low, int high) {
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (timestamps[middle] <= time) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Converts a date and time into epoch seconds. Any fraction of a second is dropped, which
+	 * keeps comparisons against the whole-second timestamps of the log the same as comparing
+	 * the original dates.
+	 *
+	 * @param time the date and time to convert
+	 * @return the number of seconds since the epoch
+	 */
+	private static long toEpochSecond(LocalDateTime time) {
+		return time.toEpochSecond(ZoneOffset.UTC);
+	}
+}
@@ -0,0 +1,222 @@
+package edu.ncsu.csc316.cleaning.manager;
+
+import java.io.FileNotFoundException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import edu.ncsu.csc316.cleaning.data.CleaningLogEntry;
+import edu.ncsu.csc316.cleaning.io.MappedInputReader;
+import edu.ncsu.csc316.cleaning.metrics.CleaningMetrics;
+import edu.ncsu.csc316.cleaning.metrics.CleaningMetrics.Counter;
+import edu.ncsu.csc316.dsa.list.List;
+
+/**
+ * ParallelLogLoader loads a cleaning log file using every core. The file is split into
+ * chunks at line boundaries and each chunk is parsed on a fork-join pool into its own
+ * array of cleaning log entries, each tagged with the ordinal of its room. The chunks are
+ * then appended to the list of each room in chunk order, so every room ends up with its
+ * cleaning log entries in the same order as the file, exactly like loading the file on a
+ * single thread.
+ *
+ * @author Daniel Avisse
+ *
+ */
+public class ParallelLogLoader {
+
+	/** The number of chunks to create for each thread, so that threads that finish early can take more work */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	/**
+	 * Private constructor since the loader only provides static behaviors
+	 */
+	private ParallelLogLoader() {
+		//Do nothing
+	}
+
+	/**
+	 * Reads the cleaning log file in parallel and appends every cleaning log entry to the list of its
+	 * room. Cleaning log entries for rooms that are not in the dictionary are skipped.
+	 *
+	 * @param pathToLogFile the path to the file that contains cleaning event log information
+	 * @param dictionary the rooms that can be cleaned
+	 * @param eventsByRoom an empty list for each room, indexed by the room's ordinal
+	 * @param pool the pool that parses the chunks
+	 * @return the position after the last byte that was read
+	 * @throws FileNotFoundException if the file cannot be read
+	 */
+	public static long load(String pathToLogFile, RoomDictionary dictionary, List<CleaningLogEntry>[] eventsByRoom,
+			ForkJoinPool pool) throws FileNotFoundException {
+		long[] boundaries = MappedInputReader.splitLogFile(pathToLogFile, pool.getParallelism() * CHUNKS_PER_THREAD);
+		ChunkEvents[] chunks = new ChunkEvents[Math.max(0, boundaries.length - 1)];
+		invoke(pool, new ChunkTask(pathToLogFile, dictionary, boundaries, chunks, 0, chunks.length));
+
+		//Append the chunks in the same order as they appear in the file
+		long parsed = 0;
+		long rejected = 0;
+		for (ChunkEvents chunk : chunks) {
+			for (int i = 0; i < chunk.size; i++) {
+				eventsByRoom[chunk.rooms[i]].addLast(chunk.entries[i]);
+			}
+			parsed += chunk.size + chunk.rejected;
+			rejected += chunk.rejected;
+		}
+		CleaningMetrics.count(Counter.ROWS_PARSED, parsed);
+		CleaningMetrics.count(Counter.ROWS_REJECTED, rejected);
+		return boundaries[boundaries.length - 1];
+	}
+
+	/**
+	 * Runs a task in a pool and waits for it. A chunk that cannot be read is wrapped in an
+	 * UncheckedIOException to leave its task, and is thrown here as the FileNotFoundException
+	 * that load declares.
+	 *
+	 * @param pool the pool that runs the task
+	 * @param task the task to run
+	 * @throws FileNotFoundException if the task could not read the file
+	 */
+	static void invoke(ForkJoinPool pool, ForkJoinTask<?> task) throws FileNotFoundException {
+		try {
+			pool.invoke(task);
+		} catch (UncheckedIOException e) {
+			//The pool may throw a copy of the exception from the task, with the original as its cause
+			for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+				if (cause instanceof FileNotFoundException) {
+					throw (FileNotFoundException) cause;
+				}
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * The cleaning log entries parsed from a single chunk, in file order, along with the ordinal of each entry's room
+	 * @author Daniel Avisse
+	 *
+	 */
+	private static class ChunkEvents {
+
+		/** The room ordinal of each entry */
+		private int[] rooms = new int[16];
+
+		/** The cleaning log entries */
+		private CleaningLogEntry[] entries = new CleaningLogEntry[16];
+
+		/** The number of entries */
+		private int size;
+
+		/** The number of lines that were skipped because their room does not exist */
+		private int rejected;
+
+		/**
+		 * Adds a cleaning log entry to the end of the chunk
+		 *
+		 * @param room the ordinal of the entry's room
+		 * @param entry the cleaning log entry
+		 */
+		void add(int room, CleaningLogEntry entry) {
+			if (size == rooms.length) {
+				int[] newRooms = new int[size * 2];
+				CleaningLogEntry[] newEntries = new CleaningLogEntry[size * 2];
+				System.arraycopy(rooms, 0, newRooms, 0, size);
+				System.arraycopy(entries, 0, newEntries, 0, size);
+				rooms = newRooms;
+				entries = newEntries;
+			}
+			rooms[size] = room;
+			entries[size] = entry;
+			size++;
+		}
+	}
+
+	/**
+	 * Fork-join task that parses a range of chunks, splitting the range in half until a single chunk is left
+	 * @author Daniel Avisse
+	 *
+	 */
+	private static class ChunkTask extends RecursiveAction {
+
+		/** ID used for serialization */
+		private static final long serialVersionUID = 1L;
+
+		/** The path to the cleaning log file */
+		private final String pathToLogFile;
+
+		/** The rooms that can be cleaned */
+		private final RoomDictionary dictionary;
+
+		/** The boundaries of every chunk in the file */
+		private final long[] boundaries;
+
+		/** The entries parsed from each chunk */
+		private final ChunkEvents[] chunks;
+
+		/** The first chunk in this task's range */
+		private final int first;
+
+		/** The chunk after the last chunk in this task's range */
+		private final int last;
+
+		/**
+		 * Constructs a task that parses chunks first up to (but not including) last
+		 *
+		 * @param pathToLogFile the path to the cleaning log file
+		 * @param dictionary the rooms that can be cleaned
+		 * @param boundaries the boundaries of every chunk in the file
+		 * @param chunks the entries parsed from each chunk
+		 * @param first the first chunk to parse
+		 * @param last the chunk after the last chunk to parse
+		 */
+		ChunkTask(String pathToLogFile, RoomDictionary dictionary, long[] boundaries, ChunkEvents[] chunks, int first, int last) {
+			this.pathToLogFile = pathToLogFile;
+			this.dictionary = dictionary;
+			this.boundaries = boundaries;
+			this.chunks = chunks;
+			this.first = first;
+			this.last = last;
+		}
+
+		/**
+		 * Parses a single chunk, or splits the range of chunks in half and parses both halves in parallel
+		 */
+		@Override
+		protected void compute() {
+			if (last - first > 1) {
+				int middle = (first + last) >>> 1;
+				invokeAll(new ChunkTask(pathToLogFile, dictionary, boundaries, chunks, first, middle),
+						new ChunkTask(pathToLogFile, dictionary, boundaries, chunks, middle, last));
+			} else if (last - first == 1) {
+				chunks[first] = parseChunk(boundaries[first], boundaries[first + 1]);
+			}
+		}
+
+		/**
+		 * Parses a single chunk into cleaning log entries tagged with the ordinal of their room. Each entry
+		 * shares the room ID held by the dictionary.
+		 *
+		 * @param from the position of the first byte of the chunk
+		 * @param to the position after the last byte of the chunk
+		 * @return the entries of the chunk
+		 */
+		private ChunkEvents parseChunk(long from, long to) {
+			ChunkEvents chunk = new ChunkEvents();
+			try {
+				MappedInputReader.readLogChunk(pathToLogFile, from, to, (epochSecond, roomID, percent) -> {
+					int room = dictionary.getOrdinal(roomID);
+					if (room >= 0) {
+						chunk.add(room, new CleaningLogEntry(LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC),
+								dictionary.getRoomID(room), percent));
+					} else {
+						chunk.rejected++;
+					}
+				});
+			} catch (FileNotFoundException e) {
+				throw new UncheckedIOException(e);
+			}
+			return chunk;
+		}
+	}
+}
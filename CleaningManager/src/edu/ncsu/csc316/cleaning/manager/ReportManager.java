@@ -1,23 +1,32 @@
 package edu.ncsu.csc316.cleaning.manager;
 
+import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.util.Comparator;
-import java.util.Iterator;
+import java.util.Arrays;
 
 import edu.ncsu.csc316.cleaning.data.CleaningLogEntry;
-import edu.ncsu.csc316.cleaning.factory.DSAFactory;
-import edu.ncsu.csc316.dsa.list.List;
-import edu.ncsu.csc316.dsa.map.Map;
-import edu.ncsu.csc316.dsa.sorter.Sorter;
+import edu.ncsu.csc316.cleaning.metrics.CleaningMetrics;
+import edu.ncsu.csc316.cleaning.metrics.CleaningMetrics.Operation;
 
 /**
  * ReportManager handles behaviors associated with generating String reports for
  * the user interface, including (1) vacuum bag reports, (2) frequency reports,
  * and (3) room reports.
  * 
+ * Each report reads everything from the one view of the cleaning events that is
+ * current when it starts, and a ReportManager keeps no other state, so any number
+ * of threads can run reports at once while events are being added.
+ * 
  * @author Dr. King
  *
  */
@@ -29,14 +38,11 @@ public class ReportManager {
     /** An instance of the cleaningManager to allow us to have access to maps and coverage */
     private CleaningManager cleaningManager;
     
-    /** A map of containing the Room ID as the key and a list of CleaningLogEntires as the value */
-    private Map<String, List<CleaningLogEntry>> mapOfRooms;
-    
     /** The total amount of square footage a vaccum bag can contain */
     private static final int VACUUMBAGLIFE = 5280;
     
-    /** The comparator that we will use to sort CleaningLogEntries in descending order by date */
-    private CleaningLogComparator logComparator = new CleaningLogComparator();
+    /** The number of characters of the room report that are written at a time */
+    private static final int REPORT_CHUNK_SIZE = 8192;
 
     /**
      * Constructs a new ReportManager for building reports of cleaning history
@@ -50,10 +56,92 @@ public class ReportManager {
      *                               log file cannot be read
      */
     public ReportManager(String pathToRoomFile, String pathToLogFile) throws FileNotFoundException {
-    	//Use the pathToRoomFile and pathToLogFile to create a cleaningManager
-    	cleaningManager = new CleaningManager(pathToRoomFile, pathToLogFile);
-    	//Use the CleaningManager and to create a map of all the rooms
-    	mapOfRooms = cleaningManager.getEventsByRoom();	
+    	//Use the pathToRoomFile and pathToLogFile to create a cleaningManager. Map the files into memory
+    	//and store each cleaning log as primitives instead of creating a CleaningLogEntry for it
+    	this(new CleaningManager(pathToRoomFile, pathToLogFile, CleaningManager.LoadMode.COLUMNAR));
+    }
+
+    /**
+     * Constructs a new ReportManager from a snapshot of a previous load of the same
+     * files. If the snapshot is missing or out of date the files are parsed instead and
+     * the snapshot is written again.
+     * 
+     * @param pathToRoomFile the path to the file that contains room information
+     * @param pathToLogFile  the path to the file that contains cleaning event log
+     *                       information
+     * @param pathToSnapshot the path to the snapshot
+     * @throws FileNotFoundException if either the room file or the cleaning event
+     *                               log file cannot be read
+     */
+    public ReportManager(String pathToRoomFile, String pathToLogFile, String pathToSnapshot) throws FileNotFoundException {
+    	this(new CleaningManager(pathToRoomFile, pathToLogFile, pathToSnapshot));
+    }
+
+    /**
+     * Constructs a new ReportManager that reports on the events of a CleaningManager
+     * 
+     * @param cleaningManager the loaded cleaning history
+     */
+    private ReportManager(CleaningManager cleaningManager) {
+    	this.cleaningManager = cleaningManager;
+    	//Every report reads the cleaning events straight from the columns of a view.
+    	//The coverage index and the sorted events of each room are only built when the first
+    	//report that needs them is asked for, so a single report only pays for its own index
+    	cleaningManager.getView();
+    }
+
+    /**
+     * Adds a new cleaning log entry. Every report after this includes the entry, and
+     * nothing is reloaded or rebuilt to add it.
+     * 
+     * @param log the new cleaning log entry
+     * @return true if the entry was added, or false if its room does not exist
+     */
+    public boolean addEvent(CleaningLogEntry log) {
+    	return cleaningManager.addEvent(log);
+    }
+
+    /**
+     * Reads the lines that were written to the end of the cleaning log file since it was
+     * last read. Every report after this includes the new cleaning log entries.
+     * 
+     * @return the number of cleaning log entries that were added
+     * @throws FileNotFoundException if the cleaning log file cannot be read
+     */
+    public int appendLogTail() throws FileNotFoundException {
+    	return cleaningManager.appendLogTail();
+    }
+
+    /**
+     * Takes a new cleaning log entry from one of many threads reporting at the same time.
+     * Reports include the entry once it is flushed.
+     * 
+     * @param log the new cleaning log entry
+     * @return true if the entry was taken, or false if its room does not exist
+     */
+    public boolean ingest(CleaningLogEntry log) {
+    	return cleaningManager.ingest(log);
+    }
+
+    /**
+     * Adds every cleaning log entry that was ingested but not flushed yet. Every report
+     * after this includes them.
+     * 
+     * @return the number of cleaning log entries that were added
+     */
+    public int flushIngested() {
+    	return cleaningManager.flushIngested();
+    }
+
+    /**
+     * Returns the version of the cleaning events that reports read now. The version is
+     * higher after every change, so a report with the same arguments and the same version
+     * is the same report and does not need to be generated again.
+     *
+     * @return the version of the cleaning events
+     */
+    public long getDataVersion() {
+    	return cleaningManager.getView().getVersion();
     }
 
     /**
@@ -65,29 +153,138 @@ public class ReportManager {
      *         until a vacuum bag change is recommened
      */
     public String getVacuumBagReport(String timestamp) {
-        LocalDateTime dateTime = null;
-        //Try to parse the inputed data
-        try {
-            dateTime = LocalDateTime.parse(timestamp, DATE_TIME_FORMAT);
-            //If the date is invalid then return to the user that the date is not formatted correctly
-        } catch (DateTimeParseException e) {
-            return "Date & time must be in the format: MM/DD/YYYY HH:MM:SS";
-        }
-        //Create a StringBuilder that starts the report of the bag life
-        StringBuilder bagReport = new StringBuilder("Vacuum Bag Report (last replaced " + timestamp + ") [\n");
-        //Get the coverage from the CleaningManager
-        int coverage = cleaningManager.getCoverageSince(dateTime);
-        //If the coverage is greater than the bag's life then report that the bag is due for replacement
-        if (coverage > VACUUMBAGLIFE) {
-        	bagReport.append("   Bag is overdue for replacement!\n]");
-        }
-        //If the coverage is less than the bag life then subtract the coverage from the bag life and report it.
-        else {
-        	int remainingLife = VACUUMBAGLIFE - coverage;
-        	bagReport.append("   Bag is due for replacement in " + remainingLife + " SQ FT\n]");
-        }
-        //Return the report
-		return bagReport.toString();
+    	long start = CleaningMetrics.start(Operation.VACUUM_BAG_REPORT);
+    	try {
+    		LocalDateTime dateTime = null;
+    		//Try to parse the inputed data
+    		try {
+    			dateTime = LocalDateTime.parse(timestamp, DATE_TIME_FORMAT);
+    			//If the date is invalid then return to the user that the date is not formatted correctly
+    		} catch (DateTimeParseException e) {
+    			return "Date & time must be in the format: MM/DD/YYYY HH:MM:SS";
+    		}
+    		//Get the coverage from the CleaningManager
+    		int coverage = cleaningManager.getView().getCoverageSince(dateTime);
+    		//Report the bag life the same way as a batch of bags
+			return new VacuumBagStatus(timestamp, true, coverage, VACUUMBAGLIFE).getReport();
+    	} finally {
+    		CleaningMetrics.stop(Operation.VACUUM_BAG_REPORT, start);
+    	}
+    }
+
+    /**
+     * Answers the vacuum bag report for many bags at once, such as one for every machine
+     * in a fleet. Every timestamp is read once and all of them are answered together in
+     * one pass through the cleaning events sorted by time, instead of one search each.
+     * 
+     * @param timestamps the date and time of the previous change of each vacuum bag
+     * @return the status of each bag, in the order the timestamps were given, which can
+     *         each build the same text as getVacuumBagReport
+     */
+    public VacuumBagStatus[] getVacuumBagStatuses(String... timestamps) {
+    	long start = CleaningMetrics.start(Operation.VACUUM_BAG_STATUSES);
+    	try {
+    		//Read every timestamp, keeping where each one that is formatted correctly came from
+    		LocalDateTime[] times = new LocalDateTime[timestamps.length];
+    		int[] positions = new int[timestamps.length];
+    		int validCount = 0;
+    		for (int i = 0; i < timestamps.length; i++) {
+    			try {
+    				times[validCount] = LocalDateTime.parse(timestamps[i], DATE_TIME_FORMAT);
+    				positions[validCount++] = i;
+    			} catch (DateTimeParseException e) {
+    				//The status of this bag reports that the date is not formatted correctly
+    			}
+    		}
+    		long[] coverage = cleaningManager.getView().getCoverageSince(Arrays.copyOf(times, validCount));
+    		VacuumBagStatus[] statuses = new VacuumBagStatus[timestamps.length];
+    		for (int i = 0; i < validCount; i++) {
+    			statuses[positions[i]] = new VacuumBagStatus(timestamps[positions[i]], true, coverage[i], VACUUMBAGLIFE);
+    		}
+    		for (int i = 0; i < statuses.length; i++) {
+    			if (statuses[i] == null) {
+    				statuses[i] = new VacuumBagStatus(timestamps[i], false, 0, VACUUMBAGLIFE);
+    			}
+    		}
+    		return statuses;
+    	} finally {
+    		CleaningMetrics.stop(Operation.VACUUM_BAG_STATUSES, start);
+    	}
+    }
+
+    /**
+     * Returns a report of how many square feet a vacuum bag collected between the time
+     * it was put in and the time it was replaced. Like the report since a bag change,
+     * cleanings at the exact time the bag was put in are not counted, and cleanings at
+     * the exact time it was replaced are.
+     * 
+     * @param installed the date and time the bag was put in
+     * @param replaced the date and time the bag was replaced
+     * @return a report of how many square feet the bag collected
+     */
+    public String getVacuumBagReport(String installed, String replaced) {
+    	long start = CleaningMetrics.start(Operation.VACUUM_BAG_REPORT);
+    	try {
+    		LocalDateTime from = null;
+    		LocalDateTime to = null;
+    		//Try to parse both of the inputed dates
+    		try {
+    			from = LocalDateTime.parse(installed, DATE_TIME_FORMAT);
+    			to = LocalDateTime.parse(replaced, DATE_TIME_FORMAT);
+    		} catch (DateTimeParseException e) {
+    			return "Date & time must be in the format: MM/DD/YYYY HH:MM:SS";
+    		}
+    		if (!to.isAfter(from)) {
+    			return "The bag must be replaced after it was put in.";
+    		}
+    		StringBuilder bagReport = new StringBuilder("Vacuum Bag Report (" + installed + " to " + replaced + ") [\n");
+    		//Cleanings after the bag was put in, up to and including the second it was replaced
+    		long coverage = cleaningManager.getView().getCoverageBetween(from.plusSeconds(1), to.plusSeconds(1));
+    		bagReport.append("   Bag collected " + coverage + " SQ FT\n");
+    		if (coverage > VACUUMBAGLIFE) {
+    			bagReport.append("   Bag was replaced " + (coverage - VACUUMBAGLIFE) + " SQ FT late\n");
+    		}
+    		bagReport.append("]");
+			return bagReport.toString();
+    	} finally {
+    		CleaningMetrics.stop(Operation.VACUUM_BAG_REPORT, start);
+    	}
+    }
+
+    /**
+     * Returns the tracker of vacuum bags, which keeps the remaining life of each bag up
+     * to date as new cleaning log entries are added
+     * 
+     * @return the vacuum bag tracker
+     */
+    public VacuumBagTracker getVacuumBagTracker() {
+    	return cleaningManager.getVacuumBagTracker();
+    }
+
+    /**
+     * Returns a report of every tracked vacuum bag that has collected more than its
+     * capacity and how far over its capacity it is. Only the overdue bags are looked at.
+     * 
+     * @return a report of the overdue vacuum bags
+     */
+    public String getOverdueBagReport() {
+    	long start = CleaningMetrics.start(Operation.OVERDUE_BAG_REPORT);
+    	try {
+    		VacuumBagTracker tracker = cleaningManager.getVacuumBagTracker();
+    		String[] overdue = tracker.getOverdueBags();
+    		//If no bag is overdue then return that to the user
+    		if (overdue.length == 0) {
+    			return "No vacuum bags are overdue.";
+    		}
+    		StringBuilder bagReport = new StringBuilder("Overdue Vacuum Bags [\n");
+    		for (String bagID : overdue) {
+    			bagReport.append("   " + bagID + " is " + -tracker.getRemainingLife(bagID) + " SQ FT overdue\n");
+    		}
+    		bagReport.append("]");
+    		return bagReport.toString();
+    	} finally {
+    		CleaningMetrics.stop(Operation.OVERDUE_BAG_REPORT, start);
+    	}
     }
 
     /**
@@ -98,67 +295,36 @@ public class ReportManager {
      * @return a report of the top X rooms cleaned
      */
     public String getFrequencyReport(int number) {
-    	//If the number of rooms is less 1 then return that the user needs to input a number greater than 0
-    	if (number <= 0) {
-    		return "Number of rooms must be greater than 0.";
-    	}
-    	//If there are no rooms in the map then return that no rooms were cleaned.
-    	if (mapOfRooms.size() == 0) {
-    		return "No rooms have been cleaned.";
-    	}
-    	int numberOfRooms = number;
-    	int emptyRoomCount = 0;
-    	//If the number is greater than the number of rooms in the map then set it to the size of the map
-    	if (number > mapOfRooms.size()) {
-    		numberOfRooms = mapOfRooms.size();
-    	}
-    	//Create a copy of the current map. Use the copy of the map to then remove rooms that have been already reported.
-    	Map<String, List<CleaningLogEntry>> copyOfMap = DSAFactory.getMap();
-    	Iterator<Map.Entry<String, List<CleaningLogEntry>>> copyIt = mapOfRooms.entrySet().iterator();
-    	while (copyIt.hasNext()) {
-    		Map.Entry<String, List<CleaningLogEntry>> copiedEntry = copyIt.next();
-    		copyOfMap.put(copiedEntry.getKey(), copiedEntry.getValue());
-    		//Check for rooms that haven't been cleaned in the map
-    		if (copiedEntry.getValue().size() == 0) {
-    			emptyRoomCount++;
+    	long start = CleaningMetrics.start(Operation.FREQUENCY_REPORT);
+    	try {
+    		//If the number of rooms is less 1 then return that the user needs to input a number greater than 0
+    		if (number <= 0) {
+    			return "Number of rooms must be greater than 0.";
     		}
-    	}
-    	//If every room in the map has not been cleaned then report that no rooms have been cleaned.
-    	if (emptyRoomCount == copyOfMap.size()) {
-			return "No rooms have been cleaned.";
-		}
-    	//Create a StringBuilder that starts the reporting of the frequency cleaning
-    	StringBuilder frequencyReport = new StringBuilder("Frequency of Cleanings [\n");
+    		//If there are no rooms or every room has not been cleaned then report that no rooms have been cleaned.
+    		//The totals are kept while loading, so the events are never read for this report.
+    		CleaningView view = cleaningManager.getView();
+    		RoomAggregates aggregates = view.getAggregates();
+    		if (aggregates.getCleanedRoomCount() == 0) {
+				return "No rooms have been cleaned.";
+			}
+    		String[] roomIDs = view.getRooms().getRoomIDs();
+    		int[] counts = aggregates.getCounts();
+    		//Create a StringBuilder that starts the reporting of the frequency cleaning
+    		StringBuilder frequencyReport = new StringBuilder("Frequency of Cleanings [\n");
     	
-    	//Repeat iterating through the map for the number of rooms that wanted to be reported.
-    	for (int i = 0; i < numberOfRooms; i++) {
-    		//Set the max to negative one. (Since we may eventually reach entries that are size 0).
-    		int max = -1;	
-    		
-    		//Create an iterator and iterate through the map
-    		Iterator<Map.Entry<String, List<CleaningLogEntry>>> it = copyOfMap.entrySet().iterator();
-    		//Use printEntry to copy entries that we will want to print
-    		Map.Entry<String, List<CleaningLogEntry>> printEntry = null;
-        	while (it.hasNext())  {
-        		Map.Entry<String, List<CleaningLogEntry>> entry = it.next();
-        		//Check for a entry that has a list size greater than the max.
-        		//Since rooms are ordered alphabetically, if every room had the same list size
-        		//it should only get the first room that is greater than the max
-        		if (entry.getValue().size() > max) {
-        			//Copy the entry to printEntry
-        			printEntry = entry;
-        			//Set the max to the size of the entry
-        			max = entry.getValue().size();
-        		}
-        	}
-        	//Delete the room that will be printed so that room is no longer used when iterating again
-        	copyOfMap.remove(printEntry.getKey());
-        	//Add the information of the entry to the report
-        	frequencyReport.append("   " + printEntry.getKey() + " has been cleaned " + max + " times\n");
+    		//Use a bounded heap to find the top rooms. Rooms with the same count are ordered alphabetically
+    		int[] ranking = TopFrequencySelector.select(roomIDs, counts, number);
+    		for (int i = 0; i < ranking.length; i++) {
+    			//Add the information of the room to the report
+    			frequencyReport.append("   " + roomIDs[ranking[i]] + " has been cleaned " + counts[ranking[i]] + " times\n");
+    		}
+    		frequencyReport.append("]");
+    		//Return the report
+			return frequencyReport.toString();
+    	} finally {
+    		CleaningMetrics.stop(Operation.FREQUENCY_REPORT, start);
     	}
-    	frequencyReport.append("]");
-    	//Return the report
-		return frequencyReport.toString();
     }
 
     /**
@@ -170,66 +336,79 @@ public class ReportManager {
      * @return a report of cleaning log events for each room
      */
     public String getRoomReport() {
-    	//If there are no rooms in the map then return that no rooms were cleaned.
-    	if (mapOfRooms.size() == 0) {
-    		return "No rooms have been cleaned.";
+    	StringWriter roomReport = new StringWriter();
+    	try {
+    		writeRoomReport(roomReport);
     	}
-    	//Create a StringBuilder that will start the report for roomReport
-    	StringBuilder roomReport = new StringBuilder("Room Report [\n");
-    	int emptyRoomCount = 0;
-    	//Iterate through the map to get every entry and report them
-    	Iterator<Map.Entry<String, List<CleaningLogEntry>>> it = mapOfRooms.entrySet().iterator();
-    	while (it.hasNext())  {
-    		Map.Entry<String, List<CleaningLogEntry>> entry = it.next();
-    		roomReport.append("   " + entry.getKey() + " was cleaned on [\n");
-    		//Check for rooms that haven't been cleaned in the map
-    		if (entry.getValue().size() == 0) {
-    			emptyRoomCount++;
-    			//Report that this specific room hasn't been cleaned
-    			roomReport.append("      (never cleaned)\n   ]\n");
-    			//If every room in the map has not been cleaned then report that no rooms have been cleaned.
-    			if (emptyRoomCount == mapOfRooms.size()) {
-    				return "No rooms have been cleaned.";
-    			}
-    		}
-    		//If the room has been cleaned before then report all the times it was cleaned
-    		else {
-    			//Put all the CleaningLogs attached to the room and add them to an array
-    			CleaningLogEntry[] logs = new CleaningLogEntry[entry.getValue().size()];
-    			for (int i = 0; i < entry.getValue().size(); i++) {
-    				logs[i] = entry.getValue().get(i);
-    			}
-    			//Create a sorter that will sort the array based on descending date for the logs
-    			Sorter<CleaningLogEntry> sorter = DSAFactory.getComparisonSorter(logComparator);
-    			sorter.sort(logs);
-    			//Report each time the room was cleaned
-    			for (int j = 0; j < logs.length; j++) {
-    				roomReport.append("      " + logs[j].getTimestamp().format(DATE_TIME_FORMAT) + "\n");
-    			}
-    			roomReport.append("   ]\n");
-     		}
+    	catch (IOException e) {
+    		//A StringWriter never throws
+    		throw new UncheckedIOException(e);
     	}
-    	roomReport.append("]");
     	//Return the room report
 		return roomReport.toString();
     }
-    
+
     /**
-     * Private inner class that creates a comparator used when sorting the CleaningLogs.
-     * This should sort the CleaningLogs in descending order for dates
-     * @author Daniel Avisse
-     *
+     * Writes the room report to an output stream as UTF-8. The stream is flushed but not
+     * closed. A WritableByteChannel can be written to through Channels.newOutputStream.
+     * 
+     * @param out the stream to write the report to
+     * @throws IOException if the report cannot be written
      */
-    private class CleaningLogComparator implements Comparator<CleaningLogEntry> {
+    public void writeRoomReport(OutputStream out) throws IOException {
+    	writeRoomReport(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
 
-    	/**
-    	 * Compares two different CleaningLogEntries and then returns that value that would sort them
-    	 * based on descending order for dates
-    	 */
-    	@Override
-    	public int compare(CleaningLogEntry one, CleaningLogEntry two) {
-    		return one.compareTo(two) * -1;
+    /**
+     * Writes the same report as getRoomReport to a writer, a chunk at a time, so the whole
+     * report is never held in memory. The writer is flushed but not closed.
+     * 
+     * @param out the writer to write the report to
+     * @throws IOException if the report cannot be written
+     */
+    public void writeRoomReport(Writer out) throws IOException {
+    	long start = CleaningMetrics.start(Operation.ROOM_REPORT);
+    	try {
+    		//If there are no rooms or every room has not been cleaned then report that no rooms have been cleaned.
+    		CleaningView view = cleaningManager.getView();
+    		if (view.getAggregates().getCleanedRoomCount() == 0) {
+    			out.write("No rooms have been cleaned.");
+    			out.flush();
+    			return;
+    		}
+    		//Everything is written through one buffer of a fixed size, which is passed on each time it fills
+    		BufferedWriter roomReport = new BufferedWriter(out, REPORT_CHUNK_SIZE);
+    		//Sort the events of every room the first time, after that they are only read
+    		RoomEventIndex roomEvents = view.getRoomEventIndex();
+    		//Every timestamp is formatted into the same array, reusing the date while it stays the same
+    		TimestampFormatter formatter = new TimestampFormatter();
+    		char[] timestamp = new char[TimestampFormatter.MAX_LENGTH];
+    		roomReport.write("Room Report [\n");
+    		//The dictionary already has the rooms in alphabetical order
+    		RoomDictionary rooms = view.getRooms();
+    		for (int position = 0; position < rooms.size(); position++) {
+    			int room = rooms.getSortedOrdinal(position);
+    			roomReport.write("   ");
+    			roomReport.write(rooms.getRoomID(room));
+    			roomReport.write(" was cleaned on [\n");
+    			//Report that this specific room hasn't been cleaned
+    			int count = roomEvents.getEventCount(room);
+    			if (count == 0) {
+    				roomReport.write("      (never cleaned)\n");
+    			}
+    			//Report each time the room was cleaned, already in descending order
+    			for (int i = 0; i < count; i++) {
+    				int length = formatter.format(roomEvents.getTimestamp(room, i), timestamp, 0);
+    				roomReport.write("      ");
+    				roomReport.write(timestamp, 0, length);
+    				roomReport.write('\n');
+    			}
+    			roomReport.write("   ]\n");
+    		}
+    		roomReport.write(']');
+    		roomReport.flush();
+    	} finally {
+    		CleaningMetrics.stop(Operation.ROOM_REPORT, start);
     	}
-
     }
 }
@@ -0,0 +1,195 @@
+package edu.ncsu.csc316.cleaning.manager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * RoomAggregates keeps running totals for every room as cleaning events are added: the
+ * number of times the room was cleaned, the square footage cleaned, and the first and
+ * last time it was cleaned. Reports that only need these totals never have to look at
+ * the events themselves.
+ *
+ * Every total is kept in arrays indexed by the room's ordinal in a RoomDictionary. The
+ * arrays are split into chunks of ROOMS_PER_CHUNK rooms, and a copy shares every chunk
+ * until one side records an event in it. Only that chunk is copied then, so copying the
+ * totals for a new view does not take time for every room.
+ *
+ * @author Daniel Avisse
+ *
+ */
+public class RoomAggregates {
+
+	/** The number of bits of a room ordinal that give its place in a chunk */
+	private static final int CHUNK_BITS = 8;
+
+	/** The number of rooms in each chunk of the arrays */
+	private static final int ROOMS_PER_CHUNK = 1 << CHUNK_BITS;
+
+	/** The number of times each room was cleaned, by chunk */
+	private int[][] counts;
+
+	/** The total square footage cleaned in each room, by chunk */
+	private long[][] squareFeetCleaned;
+
+	/** The earliest time each room was cleaned in epoch seconds, by chunk */
+	private long[][] firstCleaned;
+
+	/** The latest time each room was cleaned in epoch seconds, by chunk */
+	private long[][] lastCleaned;
+
+	/** True for every chunk that is also held by a copy of the totals, or null if none are */
+	private boolean[] shared;
+
+	/** The number of rooms */
+	private int roomCount;
+
+	/** The number of rooms that have been cleaned at least once */
+	private int cleanedRoomCount;
+
+	/**
+	 * Constructs a new RoomAggregates where no room has been cleaned
+	 *
+	 * @param roomCount the number of rooms
+	 */
+	public RoomAggregates(int roomCount) {
+		this.roomCount = roomCount;
+		int chunks = (roomCount + ROOMS_PER_CHUNK - 1) >>> CHUNK_BITS;
+		counts = new int[chunks][];
+		squareFeetCleaned = new long[chunks][];
+		firstCleaned = new long[chunks][];
+		lastCleaned = new long[chunks][];
+		for (int chunk = 0; chunk < chunks; chunk++) {
+			int length = Math.min(ROOMS_PER_CHUNK, roomCount - (chunk << CHUNK_BITS));
+			counts[chunk] = new int[length];
+			squareFeetCleaned[chunk] = new long[length];
+			firstCleaned[chunk] = new long[length];
+			lastCleaned[chunk] = new long[length];
+		}
+	}
+
+	/**
+	 * Constructs a copy of the totals of another RoomAggregates. Recording events in
+	 * either one afterwards does not change the other. The two share every chunk until
+	 * it is written, so this only takes time for the number of chunks.
+	 *
+	 * @param other the totals to copy
+	 */
+	RoomAggregates(RoomAggregates other) {
+		counts = other.counts.clone();
+		squareFeetCleaned = other.squareFeetCleaned.clone();
+		firstCleaned = other.firstCleaned.clone();
+		lastCleaned = other.lastCleaned.clone();
+		roomCount = other.roomCount;
+		cleanedRoomCount = other.cleanedRoomCount;
+		other.shared = new boolean[counts.length];
+		Arrays.fill(other.shared, true);
+		shared = other.shared.clone();
+	}
+
+	/**
+	 * Adds a cleaning event to the totals of its room
+	 *
+	 * @param room the ordinal of the room that was cleaned
+	 * @param epochSecond the time of the event in seconds since the epoch (UTC)
+	 * @param coverage the square footage cleaned by the event
+	 */
+	public void record(int room, long epochSecond, int coverage) {
+		int chunk = room >>> CHUNK_BITS;
+		int i = room & (ROOMS_PER_CHUNK - 1);
+		if (shared != null && shared[chunk]) {
+			//The copy keeps the old chunk, so only this one is copied
+			counts[chunk] = counts[chunk].clone();
+			squareFeetCleaned[chunk] = squareFeetCleaned[chunk].clone();
+			firstCleaned[chunk] = firstCleaned[chunk].clone();
+			lastCleaned[chunk] = lastCleaned[chunk].clone();
+			shared[chunk] = false;
+		}
+		int[] roomCounts = counts[chunk];
+		long[] first = firstCleaned[chunk];
+		long[] last = lastCleaned[chunk];
+		if (roomCounts[i] == 0) {
+			first[i] = epochSecond;
+			last[i] = epochSecond;
+			cleanedRoomCount++;
+		} else if (epochSecond < first[i]) {
+			first[i] = epochSecond;
+		} else if (epochSecond > last[i]) {
+			last[i] = epochSecond;
+		}
+		roomCounts[i]++;
+		squareFeetCleaned[chunk][i] += coverage;
+	}
+
+	/**
+	 * Returns the number of rooms
+	 *
+	 * @return the number of rooms
+	 */
+	public int size() {
+		return roomCount;
+	}
+
+	/**
+	 * Returns the number of rooms that have been cleaned at least once
+	 *
+	 * @return the number of cleaned rooms
+	 */
+	public int getCleanedRoomCount() {
+		return cleanedRoomCount;
+	}
+
+	/**
+	 * Returns the number of times a room was cleaned
+	 *
+	 * @param room the ordinal of the room
+	 * @return the number of cleaning events for the room
+	 */
+	public int getCount(int room) {
+		return counts[room >>> CHUNK_BITS][room & (ROOMS_PER_CHUNK - 1)];
+	}
+
+	/**
+	 * Returns the number of times every room was cleaned
+	 *
+	 * @return a new array of the number of cleaning events for each room, indexed by ordinal
+	 */
+	public int[] getCounts() {
+		int[] copy = new int[roomCount];
+		for (int chunk = 0; chunk < counts.length; chunk++) {
+			System.arraycopy(counts[chunk], 0, copy, chunk << CHUNK_BITS, counts[chunk].length);
+		}
+		return copy;
+	}
+
+	/**
+	 * Returns the total square footage cleaned in a room. The square footage of each event
+	 * is rounded down on its own before it is added.
+	 *
+	 * @param room the ordinal of the room
+	 * @return the total square footage cleaned
+	 */
+	public long getSquareFeetCleaned(int room) {
+		return squareFeetCleaned[room >>> CHUNK_BITS][room & (ROOMS_PER_CHUNK - 1)];
+	}
+
+	/**
+	 * Returns the earliest time a room was cleaned
+	 *
+	 * @param room the ordinal of the room
+	 * @return the time of the room's first cleaning, or null if the room has never been cleaned
+	 */
+	public LocalDateTime getFirstCleaned(int room) {
+		return getCount(room) == 0 ? null : LocalDateTime.ofEpochSecond(firstCleaned[room >>> CHUNK_BITS][room & (ROOMS_PER_CHUNK - 1)], 0, ZoneOffset.UTC);
+	}
+
+	/**
+	 * Returns the latest time a room was cleaned
+	 *
+	 * @param room the ordinal of the room
+	 * @return the time of the room's last cleaning, or null if the room has never been cleaned
+	 */
+	public LocalDateTime getLastCleaned(int room) {
+		return getCount(room) == 0 ? null : LocalDateTime.ofEpochSecond(lastCleaned[room >>> CHUNK_BITS][room & (ROOMS_PER_CHUNK - 1)], 0, ZoneOffset.UTC);
+	}
+}
@@ -0,0 +1,179 @@
+package edu.ncsu.csc316.cleaning.manager;
+
+import edu.ncsu.csc316.cleaning.data.RoomRecord;
+import edu.ncsu.csc316.cleaning.factory.DSAFactory;
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.dsa.map.Map;
+
+/**
+ * RoomDictionary gives every room a dense ordinal, starting at 0 in the order the rooms
+ * are listed in the room file. Room IDs are only hashed when an event is first matched
+ * to its room; everything after that (per-room event lists, counts, coverage) is kept in
+ * plain arrays indexed by ordinal.
+ *
+ * The ordinals are also sorted by room ID once when the dictionary is built, so the
+ * rooms can be walked in alphabetical order as often as needed without sorting again.
+ *
+ * The dictionary also holds the one copy of each room ID that every cleaning log entry
+ * for the room can share. It is never changed after it is built, so it can be read
+ * from many threads at once. For that reason the room IDs are always looked up in a
+ * linear probing map, whatever map is configured in DSAFactory, since a self-adjusting
+ * map such as a splay tree changes itself on every lookup.
+ *
+ * @author Daniel Avisse
+ *
+ */
+public class RoomDictionary {
+
+	/** The ID of each room, indexed by ordinal */
+	private String[] roomIDs;
+
+	/** The square footage of each room, indexed by ordinal */
+	private int[] squareFeet;
+
+	/** The number of rooms */
+	private int size;
+
+	/** A map with the room ID as the key and the room's ordinal as the value */
+	private Map<String, Integer> ordinals;
+
+	/** The ordinal of every room, in alphabetical order by room ID */
+	private int[] sortedOrdinals;
+
+	/**
+	 * Constructs a new RoomDictionary from the provided rooms. If a room is listed more
+	 * than once it keeps its first ordinal and the size it was listed with last.
+	 *
+	 * @param listOfRooms the rooms that can be cleaned
+	 */
+	public RoomDictionary(List<RoomRecord> listOfRooms) {
+		roomIDs = new String[listOfRooms.size()];
+		squareFeet = new int[listOfRooms.size()];
+		ordinals = DSAFactory.getMap(DSAFactory.MapType.LINEAR_PROBING, listOfRooms.size());
+		for (RoomRecord room : listOfRooms) {
+			Integer ordinal = ordinals.get(room.getRoomID());
+			if (ordinal == null) {
+				ordinal = size;
+				ordinals.put(room.getRoomID(), ordinal);
+				roomIDs[size] = room.getRoomID();
+				size++;
+			}
+			squareFeet[ordinal] = room.getLength() * room.getWidth();
+		}
+		sortedOrdinals = sortByRoomID();
+	}
+
+	/**
+	 * Constructs a RoomDictionary from rooms that were already numbered and sorted, such as
+	 * the rooms read back from a CleaningSnapshot
+	 *
+	 * @param roomIDs the ID of each room, indexed by ordinal
+	 * @param squareFeet the square footage of each room, indexed by ordinal
+	 * @param sortedOrdinals the ordinal of every room in alphabetical order by room ID
+	 */
+	RoomDictionary(String[] roomIDs, int[] squareFeet, int[] sortedOrdinals) {
+		this.roomIDs = roomIDs;
+		this.squareFeet = squareFeet;
+		this.sortedOrdinals = sortedOrdinals;
+		size = roomIDs.length;
+		ordinals = DSAFactory.getMap(DSAFactory.MapType.LINEAR_PROBING, size);
+		for (int i = 0; i < size; i++) {
+			ordinals.put(roomIDs[i], i);
+		}
+	}
+
+	/**
+	 * Sorts the ordinals of the rooms alphabetically by room ID
+	 *
+	 * @return the ordinals in alphabetical order
+	 */
+	private int[] sortByRoomID() {
+		int[] order = new int[size];
+		for (int i = 0; i < size; i++) {
+			order[i] = i;
+		}
+		int[] buffer = new int[size];
+		//Bottom-up merge sort, doubling the width of the sorted runs each pass
+		for (int width = 1; width < size; width *= 2) {
+			for (int low = 0; low < size - width; low += 2 * width) {
+				int middle = low + width;
+				int high = Math.min(low + 2 * width, size);
+				int left = low;
+				int right = middle;
+				for (int i = low; i < high; i++) {
+					if (right >= high || (left < middle && roomIDs[order[left]].compareTo(roomIDs[order[right]]) <= 0)) {
+						buffer[i] = order[left++];
+					} else {
+						buffer[i] = order[right++];
+					}
+				}
+				System.arraycopy(buffer, low, order, low, high - low);
+			}
+		}
+		return order;
+	}
+
+	/**
+	 * Returns the number of rooms in the dictionary
+	 *
+	 * @return the number of rooms
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the ordinal of a room
+	 *
+	 * @param roomID the ID of the room
+	 * @return the ordinal of the room, or -1 if the room does not exist
+	 */
+	public int getOrdinal(String roomID) {
+		Integer ordinal = ordinals.get(roomID);
+		return ordinal == null ? -1 : ordinal;
+	}
+
+	/**
+	 * Returns the ID of a room. Every call for the same room returns the same String.
+	 *
+	 * @param ordinal the ordinal of the room
+	 * @return the room ID
+	 */
+	public String getRoomID(int ordinal) {
+		return roomIDs[ordinal];
+	}
+
+	/**
+	 * Returns the square footage of a room
+	 *
+	 * @param ordinal the ordinal of the room
+	 * @return the square footage of the room
+	 */
+	public int getSquareFeet(int ordinal) {
+		return squareFeet[ordinal];
+	}
+
+	/**
+	 * Returns the ordinal of the room at a position in alphabetical order by room ID
+	 *
+	 * @param position the position of the room, where 0 is the first room alphabetically
+	 * @return the ordinal of the room
+	 */
+	public int getSortedOrdinal(int position) {
+		if (position < 0 || position >= size) {
+			throw new IndexOutOfBoundsException("There is no room at position " + position);
+		}
+		return sortedOrdinals[position];
+	}
+
+	/**
+	 * Returns the ID of every room, indexed by ordinal
+	 *
+	 * @return a new array of the room IDs
+	 */
+	public String[] getRoomIDs() {
+		String[] copy = new String[size];
+		System.arraycopy(roomIDs, 0, copy, 0, size);
+		return copy;
+	}
+}
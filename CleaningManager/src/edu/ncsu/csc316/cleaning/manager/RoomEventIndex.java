@@ -0,0 +1,343 @@
+package edu.ncsu.csc316.cleaning.manager;
+
+import java.util.Arrays;
+
+/**
+ * RoomEventIndex groups the events of a CleaningEventStore by room, with the events of
+ * each room sorted from the most recent to the oldest. Each room has its own arrays
+ * indexed by room ordinal, so the events of any room can be read by position without
+ * copying or sorting them again.
+ *
+ * Events with the same time keep the order they were added to the store. Each room's
+ * arrays are kept oldest first and read from the back, so a new event that is more
+ * recent than the rest of its room is added in constant time.
+ *
+ * Each room also keeps a running total of the square footage cleaned by its events, so
+ * the coverage of a room between any two times takes two binary searches.
+ *
+ * A copy of the index shares each room's arrays until one of the indexes has to move
+ * events that the other can see, and only then is that room's arrays copied. Adding
+ * to the end of a room's arrays writes past the events the copy can see.
+ *
+ * The rooms themselves are grouped into chunks of ROOMS_PER_CHUNK. A copy also shares
+ * every chunk, and a chunk's list of rooms is only copied the first time one of its
+ * rooms gets an event afterwards, so copying the index does not take time for every room.
+ *
+ * @author Daniel Avisse
+ *
+ */
+public class RoomEventIndex {
+
+	/** The number of bits of a room ordinal that give its place in a chunk */
+	private static final int CHUNK_BITS = 8;
+
+	/** The number of rooms in each chunk */
+	private static final int ROOMS_PER_CHUNK = 1 << CHUNK_BITS;
+
+	/** The number of events of each room, by chunk */
+	private int[][] counts;
+
+	/** The index in the store of every event of each room, from the oldest to the most recent, by chunk */
+	private int[][][] events;
+
+	/** The time of every event of each room in epoch seconds, from the oldest to the most recent, by chunk */
+	private long[][][] timestamps;
+
+	/** prefixCoverage[chunk][i][j] holds the square footage cleaned by the j oldest events of room i of the chunk */
+	private long[][][] prefixCoverage;
+
+	/** True for every room whose arrays are also held by a copy of the index, by chunk, or null if none are */
+	private boolean[][] sharedRooms;
+
+	/** True for every chunk that is also held by a copy of the index, or null if none are */
+	private boolean[] sharedChunks;
+
+	/** True if the index belongs to a published CleaningView and cannot be added to */
+	private boolean readOnly;
+
+	/**
+	 * Constructs a new RoomEventIndex over every event in the provided store
+	 *
+	 * @param store the cleaning events
+	 */
+	public RoomEventIndex(CleaningEventStore store) {
+		int[] roomCounts = store.getAggregates().getCounts();
+		allocate(roomCounts);
+		//Sort every event once in descending order, then fill each room from the back.
+		//The sort is stable, so events at the same time keep the order they were added.
+		int[] sortedEvents = store.sortByTimestamp(true);
+		int[] placed = new int[roomCounts.length];
+		for (int event : sortedEvents) {
+			int room = store.getRoom(event);
+			int position = roomCounts[room] - 1 - placed[room]++;
+			events[room >>> CHUNK_BITS][room & (ROOMS_PER_CHUNK - 1)][position] = event;
+			timestamps[room >>> CHUNK_BITS][room & (ROOMS_PER_CHUNK - 1)][position] = store.getTimestamp(event);
+		}
+		buildPrefixCoverage(store);
+	}
+
+	/**
+	 * Constructs a RoomEventIndex from events that were already grouped and sorted, such
+	 * as the events read back from a CleaningSnapshot
+	 *
+	 * @param store the cleaning events
+	 * @param groupedEvents the index in the store of every event, grouped by room ordinal
+	 *                      and from the oldest to the most recent within each room
+	 */
+	RoomEventIndex(CleaningEventStore store, int[] groupedEvents) {
+		int[] roomCounts = store.getAggregates().getCounts();
+		allocate(roomCounts);
+		int start = 0;
+		for (int room = 0; room < roomCounts.length; room++) {
+			int[] roomEvents = events[room >>> CHUNK_BITS][room & (ROOMS_PER_CHUNK - 1)];
+			long[] roomTimestamps = timestamps[room >>> CHUNK_BITS][room & (ROOMS_PER_CHUNK - 1)];
+			System.arraycopy(groupedEvents, start, roomEvents, 0, roomCounts[room]);
+			for (int j = 0; j < roomCounts[room]; j++) {
+				roomTimestamps[j] = store.getTimestamp(roomEvents[j]);
+			}
+			start += roomCounts[room];
+		}
+		buildPrefixCoverage(store);
+	}
+
+	/**
+	 * Creates the chunks, with arrays for each room that are just big enough for its events
+	 *
+	 * @param roomCounts the number of events of each room
+	 */
+	private void allocate(int[] roomCounts) {
+		int chunks = (roomCounts.length + ROOMS_PER_CHUNK - 1) >>> CHUNK_BITS;
+		counts = new int[chunks][];
+		events = new int[chunks][][];
+		timestamps = new long[chunks][][];
+		for (int chunk = 0; chunk < chunks; chunk++) {
+			int length = Math.min(ROOMS_PER_CHUNK, roomCounts.length - (chunk << CHUNK_BITS));
+			counts[chunk] = new int[length];
+			events[chunk] = new int[length][];
+			timestamps[chunk] = new long[length][];
+			for (int i = 0; i < length; i++) {
+				int count = roomCounts[(chunk << CHUNK_BITS) + i];
+				counts[chunk][i] = count;
+				events[chunk][i] = new int[count];
+				timestamps[chunk][i] = new long[count];
+			}
+		}
+	}
+
+	/**
+	 * Totals up the square footage cleaned by each room's events, from the oldest
+	 *
+	 * @param store the cleaning events
+	 */
+	private void buildPrefixCoverage(CleaningEventStore store) {
+		prefixCoverage = new long[counts.length][][];
+		for (int chunk = 0; chunk < counts.length; chunk++) {
+			prefixCoverage[chunk] = new long[counts[chunk].length][];
+			for (int i = 0; i < counts[chunk].length; i++) {
+				long[] totals = new long[counts[chunk][i] + 1];
+				for (int j = 0; j < counts[chunk][i]; j++) {
+					totals[j + 1] = totals[j] + store.getCoverage(events[chunk][i][j]);
+				}
+				prefixCoverage[chunk][i] = totals;
+			}
+		}
+	}
+
+	/**
+	 * Constructs an index from chunks that are already filled
+	 *
+	 * @param counts the number of events of each room, by chunk
+	 * @param events the index in the store of every event of each room, by chunk
+	 * @param timestamps the time of every event of each room, by chunk
+	 * @param prefixCoverage the running total of the square footage cleaned in each room, by chunk
+	 */
+	private RoomEventIndex(int[][] counts, int[][][] events, long[][][] timestamps, long[][][] prefixCoverage) {
+		this.counts = counts;
+		this.events = events;
+		this.timestamps = timestamps;
+		this.prefixCoverage = prefixCoverage;
+	}
+
+	/**
+	 * Returns a copy of the index with the events it holds now. The copy shares every
+	 * chunk, so this only takes time for the number of chunks.
+	 *
+	 * @return the copy of the index
+	 */
+	RoomEventIndex copy() {
+		RoomEventIndex copy = new RoomEventIndex(counts.clone(), events.clone(), timestamps.clone(), prefixCoverage.clone());
+		sharedChunks = new boolean[counts.length];
+		Arrays.fill(sharedChunks, true);
+		copy.sharedChunks = sharedChunks.clone();
+		//Every room's arrays are held by both now, which is recorded when a chunk is copied
+		sharedRooms = new boolean[counts.length][];
+		copy.sharedRooms = new boolean[counts.length][];
+		return copy;
+	}
+
+	/**
+	 * Stops any more events from being added to the index, so that it can be read from
+	 * many threads at once
+	 *
+	 * @return this index
+	 */
+	RoomEventIndex freeze() {
+		readOnly = true;
+		return this;
+	}
+
+	/**
+	 * Adds an event that was just added to the store
+	 *
+	 * @param room the ordinal of the room that was cleaned
+	 * @param epochSecond the time of the event in epoch seconds
+	 * @param event the index of the event in the store
+	 * @param coverage the square footage cleaned by the event
+	 * @throws UnsupportedOperationException if the index belongs to a published CleaningView
+	 */
+	public void add(int room, long epochSecond, int event, int coverage) {
+		if (readOnly) {
+			throw new UnsupportedOperationException("The events of a published view cannot be changed");
+		}
+		int chunk = room >>> CHUNK_BITS;
+		int i = room & (ROOMS_PER_CHUNK - 1);
+		if (sharedChunks != null && sharedChunks[chunk]) {
+			//The copy keeps the old chunk, and every room in the new one still shares its arrays with it
+			counts[chunk] = counts[chunk].clone();
+			events[chunk] = events[chunk].clone();
+			timestamps[chunk] = timestamps[chunk].clone();
+			prefixCoverage[chunk] = prefixCoverage[chunk].clone();
+			sharedRooms[chunk] = new boolean[counts[chunk].length];
+			Arrays.fill(sharedRooms[chunk], true);
+			sharedChunks[chunk] = false;
+		}
+		int count = counts[chunk][i];
+		long[] roomTimestamps = timestamps[chunk][i];
+		//The new event goes before (so it is read after) every event at the same time or later
+		int position = count;
+		while (position > 0 && roomTimestamps[position - 1] >= epochSecond) {
+			position--;
+		}
+		//Moving events that a copy can see would change the copy, so the room gets its own arrays first
+		boolean shared = sharedRooms != null && sharedRooms[chunk] != null && sharedRooms[chunk][i];
+		int[] roomEvents = events[chunk][i];
+		if (count == roomEvents.length || (position < count && shared)) {
+			int capacity = count == roomEvents.length ? Math.max(4, count * 2) : roomEvents.length;
+			int[] newEvents = new int[capacity];
+			long[] newTimestamps = new long[capacity];
+			long[] newPrefixCoverage = new long[capacity + 1];
+			System.arraycopy(roomEvents, 0, newEvents, 0, count);
+			System.arraycopy(roomTimestamps, 0, newTimestamps, 0, count);
+			System.arraycopy(prefixCoverage[chunk][i], 0, newPrefixCoverage, 0, count + 1);
+			events[chunk][i] = newEvents;
+			timestamps[chunk][i] = newTimestamps;
+			prefixCoverage[chunk][i] = newPrefixCoverage;
+			roomEvents = newEvents;
+			roomTimestamps = newTimestamps;
+			if (shared) {
+				sharedRooms[chunk][i] = false;
+			}
+		}
+		System.arraycopy(roomEvents, position, roomEvents, position + 1, count - position);
+		System.arraycopy(roomTimestamps, position, roomTimestamps, position + 1, count - position);
+		roomEvents[position] = event;
+		roomTimestamps[position] = epochSecond;
+		//Every total from the new event on now includes its square footage
+		long[] totals = prefixCoverage[chunk][i];
+		System.arraycopy(totals, position + 1, totals, position + 2, count - position);
+		totals[position + 1] = totals[position] + coverage;
+		for (int j = position + 2; j <= count + 1; j++) {
+			totals[j] += coverage;
+		}
+		counts[chunk][i]++;
+	}
+
+	/**
+	 * Returns the number of events of a room
+	 *
+	 * @param room the ordinal of the room
+	 * @return the number of events of the room
+	 */
+	public int getEventCount(int room) {
+		return counts[room >>> CHUNK_BITS][room & (ROOMS_PER_CHUNK - 1)];
+	}
+
+	/**
+	 * Returns the time of one of a room's events
+	 *
+	 * @param room the ordinal of the room
+	 * @param position the position of the event, where 0 is the room's most recent event
+	 * @return the time of the event in epoch seconds
+	 * @throws IndexOutOfBoundsException if the position is not between 0 and the number of the room's events
+	 */
+	public long getTimestamp(int room, int position) {
+		return timestamps[room >>> CHUNK_BITS][room & (ROOMS_PER_CHUNK - 1)][checkPosition(room, position)];
+	}
+
+	/**
+	 * Returns the index in the store of one of a room's events
+	 *
+	 * @param room the ordinal of the room
+	 * @param position the position of the event, where 0 is the room's most recent event
+	 * @return the index of the event in the store
+	 * @throws IndexOutOfBoundsException if the position is not between 0 and the number of the room's events
+	 */
+	public int getEvent(int room, int position) {
+		return events[room >>> CHUNK_BITS][room & (ROOMS_PER_CHUNK - 1)][checkPosition(room, position)];
+	}
+
+	/**
+	 * Returns the square footage (as a whole number) cleaned in a room from one time up
+	 * to, but not including, another
+	 *
+	 * @param room the ordinal of the room
+	 * @param from the first time to include in epoch seconds
+	 * @param to the first time not to include in epoch seconds
+	 * @return the square footage cleaned in the room in [from, to), or 0 if to is not after from
+	 */
+	public long getCoverageBetween(int room, long from, long to) {
+		if (to <= from) {
+			return 0;
+		}
+		long[] totals = prefixCoverage[room >>> CHUNK_BITS][room & (ROOMS_PER_CHUNK - 1)];
+		return totals[firstIndexAtOrAfter(room, to)] - totals[firstIndexAtOrAfter(room, from)];
+	}
+
+	/**
+	 * Uses a binary search to find the first of a room's events at or after the given time
+	 *
+	 * @param room the ordinal of the room
+	 * @param time the time in epoch seconds
+	 * @return the index in the room's arrays of the first event at or after the time, or the
+	 *         number of the room's events if there is none
+	 */
+	private int firstIndexAtOrAfter(int room, long time) {
+		long[] roomTimestamps = timestamps[room >>> CHUNK_BITS][room & (ROOMS_PER_CHUNK - 1)];
+		int low = 0;
+		int high = getEventCount(room);
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (roomTimestamps[middle] < time) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Checks that a position is inside a room's events
+	 *
+	 * @param room the ordinal of the room
+	 * @param position the position of the event in the room, where 0 is the most recent event
+	 * @return the position of the event in the room's arrays
+	 */
+	private int checkPosition(int room, int position) {
+		int count = getEventCount(room);
+		if (position < 0 || position >= count) {
+			throw new IndexOutOfBoundsException("Room " + room + " has no event at position " + position);
+		}
+		return count - 1 - position;
+	}
+}
@@ -0,0 +1,176 @@
+package edu.ncsu.csc316.cleaning.manager;
+
+/**
+ * StripedEventBuffer holds cleaning events that many threads report at once until they
+ * are added to a CleaningManager. Like the lists behind CleaningManager.getEventsByRoom,
+ * the events are kept per room and indexed by room ordinal, and the rooms are split into
+ * stripes by ordinal. Each stripe has its own lock and its own arrays, so threads adding
+ * events for rooms in different stripes never wait for each other or write to the same
+ * arrays.
+ *
+ * The events of each room are drained in the order they were added.
+ *
+ * @author Daniel Avisse
+ *
+ */
+public class StripedEventBuffer {
+
+	/** The number of stripes for each available processor */
+	private static final int STRIPES_PER_PROCESSOR = 4;
+
+	/** The number of events a room can buffer before its arrays first need to grow */
+	private static final int INITIAL_ROOM_CAPACITY = 8;
+
+	/** The stripes, where room r is in stripe r & mask */
+	private Stripe[] stripes;
+
+	/** One less than the number of stripes, which is a power of two */
+	private int mask;
+
+	/**
+	 * Constructs a new StripedEventBuffer for the rooms in a dictionary, with a few
+	 * stripes for every processor
+	 *
+	 * @param dictionary the rooms that can be cleaned
+	 */
+	public StripedEventBuffer(RoomDictionary dictionary) {
+		this(dictionary, Runtime.getRuntime().availableProcessors() * STRIPES_PER_PROCESSOR);
+	}
+
+	/**
+	 * Constructs a new StripedEventBuffer for the rooms in a dictionary
+	 *
+	 * @param dictionary the rooms that can be cleaned
+	 * @param stripeCount the least number of stripes, which is rounded up to a power of two
+	 *                    but never to more than the number of rooms
+	 */
+	public StripedEventBuffer(RoomDictionary dictionary, int stripeCount) {
+		int count = 1;
+		while (count < stripeCount && count < dictionary.size()) {
+			count *= 2;
+		}
+		mask = count - 1;
+		stripes = new Stripe[count];
+		for (int i = 0; i < count; i++) {
+			//Stripe i holds rooms i, i + count, i + 2 * count, and so on
+			stripes[i] = new Stripe((dictionary.size() - i + count - 1) / count);
+		}
+	}
+
+	/**
+	 * Adds a cleaning event to the buffer of its room. Only the room's stripe is locked.
+	 *
+	 * @param epochSecond the time of the event in seconds since the epoch (UTC)
+	 * @param room the ordinal of the room that was cleaned
+	 * @param percentCleaned the percent of the room that was cleaned
+	 * @return the number of events now buffered in the room's stripe
+	 */
+	public int add(long epochSecond, int room, int percentCleaned) {
+		Stripe stripe = stripes[room & mask];
+		synchronized (stripe) {
+			return stripe.add(room / stripes.length, epochSecond, percentCleaned);
+		}
+	}
+
+	/**
+	 * Returns the number of events in the buffer. Events that are added while the stripes
+	 * are counted might not be included.
+	 *
+	 * @return the number of buffered events
+	 */
+	public int size() {
+		int size = 0;
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				size += stripe.size;
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Moves every buffered event into a store, one stripe at a time, and empties the buffer.
+	 * Events that are added to a stripe after it was drained stay in the buffer.
+	 *
+	 * @param store the store to add the events to
+	 * @return the number of events that were moved
+	 */
+	public int drainTo(CleaningEventStore store) {
+		int drained = 0;
+		for (int i = 0; i < stripes.length; i++) {
+			Stripe stripe = stripes[i];
+			synchronized (stripe) {
+				for (int slot = 0; slot < stripe.counts.length; slot++) {
+					int room = slot * stripes.length + i;
+					for (int j = 0; j < stripe.counts[slot]; j++) {
+						store.add(stripe.timestamps[slot][j], room, stripe.percents[slot][j]);
+					}
+					drained += stripe.counts[slot];
+					stripe.counts[slot] = 0;
+				}
+				stripe.size = 0;
+			}
+		}
+		return drained;
+	}
+
+	/**
+	 * The events of the rooms in one stripe, indexed by each room's slot in the stripe.
+	 * Every field is only used while holding the stripe's lock.
+	 *
+	 * @author Daniel Avisse
+	 *
+	 */
+	private static class Stripe {
+
+		/** The time of each buffered event of each room */
+		private long[][] timestamps;
+
+		/** The percent cleaned of each buffered event of each room */
+		private int[][] percents;
+
+		/** The number of buffered events of each room */
+		private int[] counts;
+
+		/** The number of buffered events in the stripe */
+		private int size;
+
+		/**
+		 * Constructs an empty stripe
+		 *
+		 * @param roomCount the number of rooms in the stripe
+		 */
+		Stripe(int roomCount) {
+			timestamps = new long[roomCount][];
+			percents = new int[roomCount][];
+			counts = new int[roomCount];
+		}
+
+		/**
+		 * Adds an event to the end of a room's arrays, creating or growing them first if needed
+		 *
+		 * @param slot the room's slot in the stripe
+		 * @param epochSecond the time of the event in epoch seconds
+		 * @param percentCleaned the percent of the room that was cleaned
+		 * @return the number of events in the stripe
+		 */
+		int add(int slot, long epochSecond, int percentCleaned) {
+			int count = counts[slot];
+			if (timestamps[slot] == null || count == timestamps[slot].length) {
+				int capacity = timestamps[slot] == null ? INITIAL_ROOM_CAPACITY : count * 2;
+				long[] newTimestamps = new long[capacity];
+				int[] newPercents = new int[capacity];
+				if (timestamps[slot] != null) {
+					System.arraycopy(timestamps[slot], 0, newTimestamps, 0, count);
+					System.arraycopy(percents[slot], 0, newPercents, 0, count);
+				}
+				timestamps[slot] = newTimestamps;
+				percents[slot] = newPercents;
+			}
+			timestamps[slot][count] = epochSecond;
+			percents[slot][count] = percentCleaned;
+			counts[slot]++;
+			return ++size;
+		}
+	}
+}
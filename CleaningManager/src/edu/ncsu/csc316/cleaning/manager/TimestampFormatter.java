@@ -0,0 +1,125 @@
+package edu.ncsu.csc316.cleaning.manager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * TimestampFormatter writes a time in epoch seconds as MM/dd/yyyy HH:mm:ss straight into a
+ * char array, giving exactly the same text as ReportManager.DATE_TIME_FORMAT. The date is
+ * worked out from the day number with integer arithmetic instead of through LocalDateTime,
+ * and the characters of the last date are kept, so a run of times on the same day only
+ * has to write the time of day.
+ *
+ * A formatter keeps the last date it wrote, so each thread needs its own.
+ *
+ * @author Daniel Avisse
+ *
+ */
+public class TimestampFormatter {
+
+	/** The number of characters in a formatted date and time with a four digit year */
+	public static final int LENGTH = 19;
+
+	/** The most characters a formatted date and time can have, with a signed ten digit year */
+	public static final int MAX_LENGTH = 26;
+
+	/** The number of characters in the date and the space after it */
+	private static final int DATE_LENGTH = 11;
+
+	/** The number of seconds in a day */
+	private static final int SECONDS_PER_DAY = 86400;
+
+	/** The number of days from 0000-03-01 to 1970-01-01 */
+	private static final long DAYS_0000_TO_1970 = 719468;
+
+	/** The number of days in a 400 year cycle of the calendar */
+	private static final long DAYS_PER_CYCLE = 146097;
+
+	/** The day whose date is in date, or Long.MIN_VALUE if no date has been written yet */
+	private long cachedDay = Long.MIN_VALUE;
+
+	/** The characters of the last date written, followed by a space */
+	private char[] date = new char[DATE_LENGTH];
+
+	/**
+	 * Writes a time into a buffer
+	 *
+	 * @param epochSecond the time in epoch seconds
+	 * @param buffer the buffer to write into, with room for MAX_LENGTH characters at offset
+	 * @param offset the index of the first character to write
+	 * @return the index after the last character written
+	 */
+	public int format(long epochSecond, char[] buffer, int offset) {
+		long day = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+		if (day != cachedDay && !cacheDate(day)) {
+			//Years that do not have four digits are left to the formatter
+			String text = LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC).format(ReportManager.DATE_TIME_FORMAT);
+			text.getChars(0, text.length(), buffer, offset);
+			return offset + text.length();
+		}
+		System.arraycopy(date, 0, buffer, offset, DATE_LENGTH);
+		int secondOfDay = Math.floorMod(epochSecond, SECONDS_PER_DAY);
+		int position = offset + DATE_LENGTH;
+		position = writeTwoDigits(secondOfDay / 3600, buffer, position);
+		buffer[position++] = ':';
+		position = writeTwoDigits(secondOfDay / 60 % 60, buffer, position);
+		buffer[position++] = ':';
+		return writeTwoDigits(secondOfDay % 60, buffer, position);
+	}
+
+	/**
+	 * Returns a time as a String, for callers that need one
+	 *
+	 * @param epochSecond the time in epoch seconds
+	 * @return the formatted time
+	 */
+	public String format(long epochSecond) {
+		char[] buffer = new char[MAX_LENGTH];
+		return new String(buffer, 0, format(epochSecond, buffer, 0));
+	}
+
+	/**
+	 * Works out the date of a day and keeps its characters. The calendar is split into
+	 * 400 year cycles that start on March 1st, so the leap day is the last day of a year.
+	 *
+	 * @param day the number of days since 1970-01-01
+	 * @return true if the date was kept, or false if its year does not have four digits
+	 */
+	private boolean cacheDate(long day) {
+		long shifted = day + DAYS_0000_TO_1970;
+		long cycle = Math.floorDiv(shifted, DAYS_PER_CYCLE);
+		long dayOfCycle = shifted - cycle * DAYS_PER_CYCLE;
+		long yearOfCycle = (dayOfCycle - dayOfCycle / 1460 + dayOfCycle / 36524 - dayOfCycle / 146096) / 365;
+		long dayOfYear = dayOfCycle - (365 * yearOfCycle + yearOfCycle / 4 - yearOfCycle / 100);
+		long monthFromMarch = (5 * dayOfYear + 2) / 153;
+		int dayOfMonth = (int) (dayOfYear - (153 * monthFromMarch + 2) / 5 + 1);
+		int month = (int) (monthFromMarch < 10 ? monthFromMarch + 3 : monthFromMarch - 9);
+		long year = yearOfCycle + cycle * 400 + (month <= 2 ? 1 : 0);
+		if (year < 1 || year > 9999) {
+			return false;
+		}
+		writeTwoDigits(month, date, 0);
+		date[2] = '/';
+		writeTwoDigits(dayOfMonth, date, 3);
+		date[5] = '/';
+		writeTwoDigits((int) year / 100, date, 6);
+		writeTwoDigits((int) year % 100, date, 8);
+		date[10] = ' ';
+		cachedDay = day;
+		return true;
+	}
+
+	/**
+	 * Writes a number from 0 to 99 as two digits
+	 *
+	 * @param value the number
+	 * @param buffer the buffer to write into
+	 * @param offset the index of the first digit
+	 * @return the index after the second digit
+	 */
+	private static int writeTwoDigits(int value, char[] buffer, int offset) {
+		buffer[offset] = (char) ('0' + value / 10);
+		buffer[offset + 1] = (char) ('0' + value % 10);
+		return offset + 2;
+	}
+}
@@ -0,0 +1,140 @@
+package edu.ncsu.csc316.cleaning.manager;
+
+/**
+ * TopFrequencySelector picks the K most frequently cleaned rooms out of a set of
+ * rooms without sorting every room. A bounded min-heap holding at most K rooms is
+ * kept while the rooms are scanned once, so building the ranking takes O(n log k)
+ * time instead of one full pass over the rooms for every room that is reported.
+ *
+ * Rooms are ranked by descending cleaning count. Rooms with the same count are
+ * ranked alphabetically (ascending) by their room ID.
+ *
+ * @author Daniel Avisse
+ *
+ */
+public class TopFrequencySelector {
+
+	/**
+	 * Private constructor since the selector only provides static behaviors
+	 */
+	private TopFrequencySelector() {
+		//Do nothing
+	}
+
+	/**
+	 * Returns the positions of the top K rooms, ordered from the most frequently
+	 * cleaned room to the least frequently cleaned room. The returned array holds
+	 * indexes into the provided roomIDs and counts arrays.
+	 *
+	 * @param roomIDs the IDs of every room
+	 * @param counts the number of times each room has been cleaned, where counts[i] belongs to roomIDs[i]
+	 * @param number the number of rooms to select
+	 * @return the indexes of the top rooms in ranked order
+	 */
+	public static int[] select(String[] roomIDs, int[] counts, int number) {
+		//Never keep more rooms in the heap than there are rooms
+		int capacity = Math.min(Math.max(number, 0), roomIDs.length);
+		int[] heap = new int[capacity];
+		int size = 0;
+		if (capacity == 0) {
+			return heap;
+		}
+		//Scan every room once. The root of the heap is always the lowest ranked room that is being kept
+		for (int i = 0; i < roomIDs.length; i++) {
+			if (size < capacity) {
+				heap[size] = i;
+				siftUp(heap, size, roomIDs, counts);
+				size++;
+			}
+			//Only replace the root if the new room outranks it
+			else if (ranksHigher(i, heap[0], roomIDs, counts)) {
+				heap[0] = i;
+				siftDown(heap, size, roomIDs, counts);
+			}
+		}
+		//Remove the lowest ranked room from the heap until it is empty, filling the result from the back
+		int[] ranking = new int[size];
+		for (int i = size - 1; i >= 0; i--) {
+			ranking[i] = heap[0];
+			size--;
+			heap[0] = heap[size];
+			siftDown(heap, size, roomIDs, counts);
+		}
+		return ranking;
+	}
+
+	/**
+	 * Returns true if the room at index one should be reported before the room at index two
+	 *
+	 * @param one the index of the first room
+	 * @param two the index of the second room
+	 * @param roomIDs the IDs of every room
+	 * @param counts the number of times each room has been cleaned
+	 * @return true if room one ranks higher than room two
+	 */
+	private static boolean ranksHigher(int one, int two, String[] roomIDs, int[] counts) {
+		if (counts[one] != counts[two]) {
+			return counts[one] > counts[two];
+		}
+		//If both rooms have been cleaned the same amount of times then order them alphabetically
+		return roomIDs[one].compareTo(roomIDs[two]) < 0;
+	}
+
+	/**
+	 * Moves the room at the given heap position up until its parent ranks lower than it
+	 *
+	 * @param heap the heap of room indexes
+	 * @param position the position in the heap of the room to move
+	 * @param roomIDs the IDs of every room
+	 * @param counts the number of times each room has been cleaned
+	 */
+	private static void siftUp(int[] heap, int position, String[] roomIDs, int[] counts) {
+		int child = position;
+		while (child > 0) {
+			int parent = (child - 1) / 2;
+			//The lowest ranked room must stay on top of the heap
+			if (!ranksHigher(heap[parent], heap[child], roomIDs, counts)) {
+				break;
+			}
+			swap(heap, parent, child);
+			child = parent;
+		}
+	}
+
+	/**
+	 * Moves the room at the root of the heap down until both of its children rank higher than it
+	 *
+	 * @param heap the heap of room indexes
+	 * @param size the number of rooms currently in the heap
+	 * @param roomIDs the IDs of every room
+	 * @param counts the number of times each room has been cleaned
+	 */
+	private static void siftDown(int[] heap, int size, String[] roomIDs, int[] counts) {
+		int parent = 0;
+		while (2 * parent + 1 < size) {
+			//Find the child that ranks the lowest
+			int child = 2 * parent + 1;
+			if (child + 1 < size && ranksHigher(heap[child], heap[child + 1], roomIDs, counts)) {
+				child++;
+			}
+			if (!ranksHigher(heap[parent], heap[child], roomIDs, counts)) {
+				break;
+			}
+			swap(heap, parent, child);
+			parent = child;
+		}
+	}
+
+	/**
+	 * Swaps two positions in the heap
+	 *
+	 * @param heap the heap of room indexes
+	 * @param one the first position
+	 * @param two the second position
+	 */
+	private static void swap(int[] heap, int one, int two) {
+		int temp = heap[one];
+		heap[one] = heap[two];
+		heap[two] = temp;
+	}
+}
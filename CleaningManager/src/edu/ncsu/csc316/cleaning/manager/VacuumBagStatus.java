@@ -0,0 +1,115 @@
+package edu.ncsu.csc316.cleaning.manager;
+
+/**
+ * VacuumBagStatus is the answer for one vacuum bag from a batch of vacuum bag queries:
+ * the time the bag was last replaced, how many square feet were cleaned since then,
+ * and how many more can be cleaned before the bag is overdue. The same text as
+ * ReportManager.getVacuumBagReport is only built when getReport is called.
+ *
+ * @author Daniel Avisse
+ *
+ */
+public class VacuumBagStatus {
+
+	/** The date and time the bag was last replaced, as it was given */
+	private String timestamp;
+
+	/** True if the timestamp was in the format MM/DD/YYYY HH:MM:SS */
+	private boolean valid;
+
+	/** The square footage cleaned since the bag was replaced */
+	private long coverage;
+
+	/** The square footage the bag can collect */
+	private int capacity;
+
+	/**
+	 * Constructs a new VacuumBagStatus
+	 *
+	 * @param timestamp the date and time the bag was last replaced, as it was given
+	 * @param valid true if the timestamp could be read
+	 * @param coverage the square footage cleaned since the bag was replaced
+	 * @param capacity the square footage the bag can collect
+	 */
+	VacuumBagStatus(String timestamp, boolean valid, long coverage, int capacity) {
+		this.timestamp = timestamp;
+		this.valid = valid;
+		this.coverage = coverage;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Returns the date and time the bag was last replaced, as it was given
+	 *
+	 * @return the timestamp of the query
+	 */
+	public String getTimestamp() {
+		return timestamp;
+	}
+
+	/**
+	 * Returns true if the timestamp was in the format MM/DD/YYYY HH:MM:SS. The other
+	 * values are 0 and false when it was not.
+	 *
+	 * @return true if the timestamp could be read
+	 */
+	public boolean isValid() {
+		return valid;
+	}
+
+	/**
+	 * Returns the square footage cleaned since the bag was replaced
+	 *
+	 * @return the square footage collected by the bag
+	 */
+	public long getCoverage() {
+		return coverage;
+	}
+
+	/**
+	 * Returns the square footage that can still be cleaned before the bag is overdue
+	 *
+	 * @return the remaining life of the bag, which is negative if the bag is overdue
+	 */
+	public long getRemainingLife() {
+		return valid ? capacity - coverage : 0;
+	}
+
+	/**
+	 * Returns true if the bag has collected more than it can
+	 *
+	 * @return true if the bag is overdue for replacement
+	 */
+	public boolean isOverdue() {
+		return valid && coverage > capacity;
+	}
+
+	/**
+	 * Returns the same report as ReportManager.getVacuumBagReport for the timestamp
+	 *
+	 * @return the vacuum bag report
+	 */
+	public String getReport() {
+		//If the date is invalid then return to the user that the date is not formatted correctly
+		if (!valid) {
+			return "Date & time must be in the format: MM/DD/YYYY HH:MM:SS";
+		}
+		StringBuilder bagReport = new StringBuilder("Vacuum Bag Report (last replaced " + timestamp + ") [\n");
+		if (isOverdue()) {
+			bagReport.append("   Bag is overdue for replacement!\n]");
+		} else {
+			bagReport.append("   Bag is due for replacement in " + getRemainingLife() + " SQ FT\n]");
+		}
+		return bagReport.toString();
+	}
+
+	/**
+	 * Returns the vacuum bag report
+	 *
+	 * @return the same text as getReport
+	 */
+	@Override
+	public String toString() {
+		return getReport();
+	}
+}
@@ -0,0 +1,543 @@
+package edu.ncsu.csc316.cleaning.manager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import edu.ncsu.csc316.cleaning.factory.DSAFactory;
+import edu.ncsu.csc316.dsa.map.Map;
+
+/**
+ * VacuumBagTracker follows the remaining life of many vacuum bags at once as cleaning
+ * events are added to a CleaningManager. Each bag has its own capacity and the time it
+ * was last replaced, and collects the square footage of every cleaning after that time
+ * in the rooms its vacuum cleans, or in every room.
+ *
+ * Bags whose vacuums clean the same rooms share a route. A route keeps the total square
+ * footage cleaned in its rooms, and a bag only stores what that total must reach for the
+ * bag to be full. Each event adds to the totals of its room's routes, so the life of a
+ * bag never has to be worked out from the events again. Each route keeps its bags in a
+ * min-heap ordered by when they will be full, so the bags that an event makes overdue
+ * are taken off the top of the heap, and the overdue bags are always known without
+ * looking at the bags that are not.
+ *
+ * A bag counts cleanings after its replacement time, like getVacuumBagReport. An event
+ * from before a bag was replaced that arrives late is not counted for that bag.
+ *
+ * Every method locks the CleaningManager, which is also locked while events are added.
+ *
+ * @author Daniel Avisse
+ *
+ */
+public class VacuumBagTracker {
+
+	/** The manager whose events fill the bags */
+	private CleaningManager manager;
+
+	/** The rooms of the manager */
+	private RoomDictionary rooms;
+
+	/** Every bag, with the bag ID as the key */
+	private Map<String, Bag> bags;
+
+	/** Every route, with a key made from its room ordinals as the key */
+	private Map<String, Route> routes;
+
+	/** The routes of each room that are not the route of every room, indexed by room ordinal */
+	private Route[][] routesByRoom;
+
+	/** The route of the bags that collect from every room, or null if there are none yet */
+	private Route everyRoom;
+
+	/** The bags that are overdue, in the order they became overdue except where bags were replaced */
+	private Bag[] overdue;
+
+	/** The number of overdue bags */
+	private int overdueCount;
+
+	/**
+	 * Constructs a new VacuumBagTracker with no bags. It is given new events by the manager.
+	 *
+	 * @param manager the manager whose events fill the bags
+	 * @param rooms the rooms of the manager
+	 */
+	VacuumBagTracker(CleaningManager manager, RoomDictionary rooms) {
+		this.manager = manager;
+		this.rooms = rooms;
+		bags = DSAFactory.getMap();
+		routes = DSAFactory.getMap();
+		routesByRoom = new Route[rooms.size()][0];
+		overdue = new Bag[4];
+	}
+
+	/**
+	 * Starts tracking a bag that collects from every room
+	 *
+	 * @param bagID the ID of the bag
+	 * @param capacity the square footage the bag can collect before it should be replaced
+	 * @param replaced the time the bag was last replaced
+	 * @throws IllegalArgumentException if a bag with the ID is already tracked or the capacity is negative
+	 */
+	public void addBag(String bagID, int capacity, LocalDateTime replaced) {
+		addBag(bagID, capacity, replaced, (String[]) null);
+	}
+
+	/**
+	 * Starts tracking a bag whose vacuum only cleans some of the rooms
+	 *
+	 * @param bagID the ID of the bag
+	 * @param capacity the square footage the bag can collect before it should be replaced
+	 * @param replaced the time the bag was last replaced
+	 * @param roomIDs the rooms the bag collects from, or null for every room
+	 * @throws IllegalArgumentException if a bag with the ID is already tracked, the capacity
+	 *                                  is negative, or a room does not exist
+	 */
+	public void addBag(String bagID, int capacity, LocalDateTime replaced, String... roomIDs) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+		}
+		synchronized (manager) {
+			if (bags.get(bagID) != null) {
+				throw new IllegalArgumentException("Bag " + bagID + " is already tracked");
+			}
+			Route route = getRoute(roomIDs);
+			Bag bag = new Bag(bagID, capacity, route);
+			bags.put(bagID, bag);
+			replace(bag, replaced);
+		}
+	}
+
+	/**
+	 * Records that a bag was replaced. The new bag keeps the capacity and rooms of the old one.
+	 *
+	 * @param bagID the ID of the bag
+	 * @param replaced the time the bag was replaced
+	 * @throws IllegalArgumentException if the bag is not tracked
+	 */
+	public void replaceBag(String bagID, LocalDateTime replaced) {
+		synchronized (manager) {
+			Bag bag = getBag(bagID);
+			removeFromRoute(bag);
+			replace(bag, replaced);
+		}
+	}
+
+	/**
+	 * Stops tracking a bag
+	 *
+	 * @param bagID the ID of the bag
+	 * @throws IllegalArgumentException if the bag is not tracked
+	 */
+	public void removeBag(String bagID) {
+		synchronized (manager) {
+			Bag bag = getBag(bagID);
+			removeFromRoute(bag);
+			bags.remove(bagID);
+		}
+	}
+
+	/**
+	 * Returns the square footage a bag can still collect before it should be replaced
+	 *
+	 * @param bagID the ID of the bag
+	 * @return the remaining life of the bag, which is negative if the bag is overdue
+	 * @throws IllegalArgumentException if the bag is not tracked
+	 */
+	public long getRemainingLife(String bagID) {
+		synchronized (manager) {
+			Bag bag = getBag(bagID);
+			return bag.fullAt - bag.route.collected;
+		}
+	}
+
+	/**
+	 * Returns true if a bag has collected more than its capacity
+	 *
+	 * @param bagID the ID of the bag
+	 * @return true if the bag is overdue for replacement
+	 * @throws IllegalArgumentException if the bag is not tracked
+	 */
+	public boolean isOverdue(String bagID) {
+		synchronized (manager) {
+			return getBag(bagID).overdueIndex >= 0;
+		}
+	}
+
+	/**
+	 * Returns the IDs of the bags that have collected more than their capacity. This only
+	 * takes time for the number of overdue bags.
+	 *
+	 * @return the IDs of the overdue bags
+	 */
+	public String[] getOverdueBags() {
+		synchronized (manager) {
+			String[] bagIDs = new String[overdueCount];
+			for (int i = 0; i < overdueCount; i++) {
+				bagIDs[i] = overdue[i].bagID;
+			}
+			return bagIDs;
+		}
+	}
+
+	/**
+	 * Returns the number of tracked bags
+	 *
+	 * @return the number of bags
+	 */
+	public int size() {
+		synchronized (manager) {
+			return bags.size();
+		}
+	}
+
+	/**
+	 * Adds the square footage of a new cleaning event to every route of its room, and moves
+	 * the bags it fills to the overdue bags. The manager's lock must be held.
+	 *
+	 * @param epochSecond the time of the event in epoch seconds
+	 * @param room the ordinal of the room that was cleaned
+	 * @param coverage the square footage cleaned by the event
+	 */
+	void record(long epochSecond, int room, int coverage) {
+		if (everyRoom != null) {
+			record(everyRoom, epochSecond, coverage);
+		}
+		for (Route route : routesByRoom[room]) {
+			record(route, epochSecond, coverage);
+		}
+	}
+
+	/**
+	 * Adds the square footage of a new cleaning event to a route
+	 *
+	 * @param route the route of the room that was cleaned
+	 * @param epochSecond the time of the event in epoch seconds
+	 * @param coverage the square footage cleaned by the event
+	 */
+	private void record(Route route, long epochSecond, int coverage) {
+		route.collected += coverage;
+		//An event from before a bag was replaced that arrives late must not count for that bag
+		if (epochSecond <= route.latestReplacement) {
+			for (Bag bag : route.getBags()) {
+				if (epochSecond <= bag.replaced) {
+					removeFromRoute(bag);
+					bag.fullAt += coverage;
+					addToRoute(bag);
+				}
+			}
+			for (Bag bag : Arrays.copyOf(overdue, overdueCount)) {
+				if (bag.route == route && epochSecond <= bag.replaced) {
+					removeFromRoute(bag);
+					bag.fullAt += coverage;
+					addToRoute(bag);
+				}
+			}
+		}
+		collectOverdue(route);
+	}
+
+	/**
+	 * Sets the time a bag was replaced and adds it back to its route. The bag counts the
+	 * square footage of its rooms cleaned after that time.
+	 *
+	 * @param bag the bag
+	 * @param replaced the time the bag was replaced
+	 */
+	private void replace(Bag bag, LocalDateTime replaced) {
+		bag.replaced = replaced.toEpochSecond(ZoneOffset.UTC);
+		long collectedSince = 0;
+		//Cleanings after the replacement time. Events exactly at that time are not counted
+		CleaningView view = manager.getView();
+		if (bag.route.roomOrdinals == null) {
+			collectedSince = view.getCoverageIndex().getCoverageBetween(bag.replaced + 1, Long.MAX_VALUE);
+		} else {
+			RoomEventIndex roomEvents = view.getRoomEventIndex();
+			for (int room : bag.route.roomOrdinals) {
+				collectedSince += roomEvents.getCoverageBetween(room, bag.replaced + 1, Long.MAX_VALUE);
+			}
+		}
+		bag.fullAt = bag.route.collected - collectedSince + bag.capacity;
+		bag.route.latestReplacement = Math.max(bag.route.latestReplacement, bag.replaced);
+		addToRoute(bag);
+		collectOverdue(bag.route);
+	}
+
+	/**
+	 * Moves every bag of a route that has collected more than its capacity from the route's
+	 * heap to the overdue bags
+	 *
+	 * @param route the route
+	 */
+	private void collectOverdue(Route route) {
+		while (route.size > 0 && route.heap[0].fullAt < route.collected) {
+			Bag bag = route.heap[0];
+			route.remove(bag);
+			if (overdueCount == overdue.length) {
+				overdue = Arrays.copyOf(overdue, overdueCount * 2);
+			}
+			bag.overdueIndex = overdueCount;
+			overdue[overdueCount++] = bag;
+		}
+	}
+
+	/**
+	 * Adds a bag to the heap of its route
+	 *
+	 * @param bag the bag
+	 */
+	private void addToRoute(Bag bag) {
+		bag.route.add(bag);
+	}
+
+	/**
+	 * Takes a bag out of the heap of its route, or out of the overdue bags
+	 *
+	 * @param bag the bag
+	 */
+	private void removeFromRoute(Bag bag) {
+		if (bag.overdueIndex >= 0) {
+			//Move the last overdue bag into the removed bag's place
+			Bag last = overdue[--overdueCount];
+			overdue[bag.overdueIndex] = last;
+			last.overdueIndex = bag.overdueIndex;
+			overdue[overdueCount] = null;
+			bag.overdueIndex = -1;
+		} else {
+			bag.route.remove(bag);
+		}
+	}
+
+	/**
+	 * Returns a tracked bag
+	 *
+	 * @param bagID the ID of the bag
+	 * @return the bag
+	 * @throws IllegalArgumentException if the bag is not tracked
+	 */
+	private Bag getBag(String bagID) {
+		Bag bag = bags.get(bagID);
+		if (bag == null) {
+			throw new IllegalArgumentException("Bag " + bagID + " is not tracked");
+		}
+		return bag;
+	}
+
+	/**
+	 * Returns the route for a set of rooms, creating it the first time
+	 *
+	 * @param roomIDs the rooms, or null for every room
+	 * @return the route of the rooms
+	 * @throws IllegalArgumentException if a room does not exist
+	 */
+	private Route getRoute(String[] roomIDs) {
+		if (roomIDs == null) {
+			if (everyRoom == null) {
+				everyRoom = new Route(null, manager.getView().getCoverageIndex().getCoverageBetween(Long.MIN_VALUE, Long.MAX_VALUE));
+			}
+			return everyRoom;
+		}
+		int[] ordinals = new int[roomIDs.length];
+		for (int i = 0; i < roomIDs.length; i++) {
+			ordinals[i] = rooms.getOrdinal(roomIDs[i]);
+			if (ordinals[i] < 0) {
+				throw new IllegalArgumentException("Room " + roomIDs[i] + " does not exist");
+			}
+		}
+		//The same rooms listed in any order, or more than once, share a route
+		Arrays.sort(ordinals);
+		int distinct = 0;
+		for (int i = 0; i < ordinals.length; i++) {
+			if (i == 0 || ordinals[i] != ordinals[i - 1]) {
+				ordinals[distinct++] = ordinals[i];
+			}
+		}
+		ordinals = Arrays.copyOf(ordinals, distinct);
+		String key = Arrays.toString(ordinals);
+		Route route = routes.get(key);
+		if (route == null) {
+			RoomAggregates aggregates = manager.getView().getAggregates();
+			long collected = 0;
+			for (int room : ordinals) {
+				collected += aggregates.getSquareFeetCleaned(room);
+			}
+			route = new Route(ordinals, collected);
+			routes.put(key, route);
+			for (int room : ordinals) {
+				routesByRoom[room] = Arrays.copyOf(routesByRoom[room], routesByRoom[room].length + 1);
+				routesByRoom[room][routesByRoom[room].length - 1] = route;
+			}
+		}
+		return route;
+	}
+
+	/**
+	 * A vacuum bag and what the total of its route must reach for it to be full
+	 *
+	 * @author Daniel Avisse
+	 *
+	 */
+	private static class Bag {
+
+		/** The ID of the bag */
+		private String bagID;
+
+		/** The square footage the bag can collect */
+		private int capacity;
+
+		/** The route the bag collects from */
+		private Route route;
+
+		/** The time the bag was last replaced in epoch seconds */
+		private long replaced;
+
+		/** The bag is overdue once the total of its route is more than this */
+		private long fullAt;
+
+		/** The position of the bag in its route's heap, or -1 if it is not in the heap */
+		private int heapIndex = -1;
+
+		/** The position of the bag in the overdue bags, or -1 if it is not overdue */
+		private int overdueIndex = -1;
+
+		/**
+		 * Constructs a new Bag
+		 *
+		 * @param bagID the ID of the bag
+		 * @param capacity the square footage the bag can collect
+		 * @param route the route the bag collects from
+		 */
+		Bag(String bagID, int capacity, Route route) {
+			this.bagID = bagID;
+			this.capacity = capacity;
+			this.route = route;
+		}
+	}
+
+	/**
+	 * The rooms that one or more bags collect from, the square footage cleaned in them, and
+	 * a min-heap of the bags that are not overdue ordered by when they will be full
+	 *
+	 * @author Daniel Avisse
+	 *
+	 */
+	private static class Route {
+
+		/** The ordinals of the rooms in the route, or null for every room */
+		private int[] roomOrdinals;
+
+		/** The square footage cleaned in the rooms of the route */
+		private long collected;
+
+		/** The latest time any bag in the route was replaced in epoch seconds */
+		private long latestReplacement = Long.MIN_VALUE;
+
+		/** The bags of the route that are not overdue, as a min-heap on fullAt */
+		private Bag[] heap = new Bag[4];
+
+		/** The number of bags in the heap */
+		private int size;
+
+		/**
+		 * Constructs a new Route
+		 *
+		 * @param roomOrdinals the ordinals of the rooms, or null for every room
+		 * @param collected the square footage already cleaned in the rooms
+		 */
+		Route(int[] roomOrdinals, long collected) {
+			this.roomOrdinals = roomOrdinals;
+			this.collected = collected;
+		}
+
+		/**
+		 * Returns a copy of the bags in the heap, so they can be changed while they are walked
+		 *
+		 * @return the bags that are not overdue
+		 */
+		Bag[] getBags() {
+			return Arrays.copyOf(heap, size);
+		}
+
+		/**
+		 * Adds a bag to the heap
+		 *
+		 * @param bag the bag
+		 */
+		void add(Bag bag) {
+			if (size == heap.length) {
+				heap = Arrays.copyOf(heap, size * 2);
+			}
+			heap[size] = bag;
+			bag.heapIndex = size;
+			size++;
+			siftUp(bag.heapIndex);
+		}
+
+		/**
+		 * Removes a bag from the heap
+		 *
+		 * @param bag the bag, which must be in the heap
+		 */
+		void remove(Bag bag) {
+			int index = bag.heapIndex;
+			size--;
+			Bag last = heap[size];
+			heap[size] = null;
+			bag.heapIndex = -1;
+			if (index < size) {
+				heap[index] = last;
+				last.heapIndex = index;
+				siftDown(index);
+				siftUp(last.heapIndex);
+			}
+		}
+
+		/**
+		 * Moves a bag up the heap until its parent will be full no later than it
+		 *
+		 * @param index the position of the bag
+		 */
+		private void siftUp(int index) {
+			while (index > 0) {
+				int parent = (index - 1) / 2;
+				if (heap[parent].fullAt <= heap[index].fullAt) {
+					return;
+				}
+				swap(index, parent);
+				index = parent;
+			}
+		}
+
+		/**
+		 * Moves a bag down the heap until both children will be full no earlier than it
+		 *
+		 * @param index the position of the bag
+		 */
+		private void siftDown(int index) {
+			while (2 * index + 1 < size) {
+				int child = 2 * index + 1;
+				if (child + 1 < size && heap[child + 1].fullAt < heap[child].fullAt) {
+					child++;
+				}
+				if (heap[index].fullAt <= heap[child].fullAt) {
+					return;
+				}
+				swap(index, child);
+				index = child;
+			}
+		}
+
+		/**
+		 * Swaps two bags in the heap
+		 *
+		 * @param one the position of the first bag
+		 * @param two the position of the second bag
+		 */
+		private void swap(int one, int two) {
+			Bag bag = heap[one];
+			heap[one] = heap[two];
+			heap[two] = bag;
+			heap[one].heapIndex = one;
+			heap[two].heapIndex = two;
+		}
+	}
+}
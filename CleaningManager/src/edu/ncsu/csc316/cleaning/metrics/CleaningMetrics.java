@@ -0,0 +1,412 @@
+package edu.ncsu.csc316.cleaning.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * CleaningMetrics records how long the operations of the Cleaning Manager take, how many
+ * bytes the thread running each one allocates, and how many cleaning log rows were read
+ * or skipped. Metrics are off unless the program is started with -Dcleaning.metrics=true
+ * or setEnabled is called.
+ *
+ * An operation is timed like this, where start returns a marker that tells stop to do
+ * nothing if metrics were off when the operation started:
+ *
+ * <pre>
+ * long start = CleaningMetrics.start(Operation.FREQUENCY_REPORT);
+ * try {
+ *     ...
+ * } finally {
+ *     CleaningMetrics.stop(Operation.FREQUENCY_REPORT, start);
+ * }
+ * </pre>
+ *
+ * While metrics are off, start and count only read one volatile flag and nothing else
+ * is created. While they are on, timing an operation reads the clock and the thread's
+ * allocated bytes twice and increments a few counters, without allocating or locking.
+ *
+ * The metrics can be read with dump, or through JMX under the name in OBJECT_NAME once
+ * they have been enabled.
+ *
+ * @author Daniel Avisse
+ *
+ */
+public class CleaningMetrics {
+
+	/** The system property that turns metrics on when it is true */
+	public static final String ENABLED_PROPERTY = "cleaning.metrics";
+
+	/** The name the metrics are registered under with the platform MBean server */
+	public static final String OBJECT_NAME = "edu.ncsu.csc316.cleaning:type=CleaningMetrics";
+
+	/** The marker start returns when metrics are off */
+	private static final long DISABLED = Long.MIN_VALUE;
+
+	/** The number of nanoseconds in a microsecond */
+	private static final double NANOS_PER_MICRO = 1000.0;
+
+	/** True if metrics are being recorded */
+	private static volatile boolean enabled;
+
+	/** True once metrics have been enabled at least once, so there is something to report */
+	private static volatile boolean started;
+
+	static {
+		if (Boolean.getBoolean(ENABLED_PROPERTY)) {
+			setEnabled(true);
+		}
+	}
+
+	/**
+	 * The operations that are timed
+	 *
+	 * @author Daniel Avisse
+	 *
+	 */
+	public enum Operation {
+		/** Loading the room and cleaning log files, or a snapshot of them */
+		LOAD,
+		/** CleaningManager.getEventsByRoom */
+		GET_EVENTS_BY_ROOM,
+		/** The square footage cleaned since a time, which every vacuum bag report asks for */
+		GET_COVERAGE_SINCE,
+		/** Building the sorted events of every room for a view */
+		BUILD_ROOM_EVENT_INDEX,
+		/** Building the coverage index for a view */
+		BUILD_COVERAGE_INDEX,
+		/** The vacuum bag reports, for one bag or between two times */
+		VACUUM_BAG_REPORT,
+		/** Vacuum bag reports for many bags at once */
+		VACUUM_BAG_STATUSES,
+		/** The report of overdue tracked vacuum bags */
+		OVERDUE_BAG_REPORT,
+		/** The frequency report */
+		FREQUENCY_REPORT,
+		/** The room report, as a String or written to a stream */
+		ROOM_REPORT
+	}
+
+	/**
+	 * The counts that are kept
+	 *
+	 * @author Daniel Avisse
+	 *
+	 */
+	public enum Counter {
+		/** Cleaning log rows that were read */
+		ROWS_PARSED,
+		/** Cleaning log rows that were skipped because their room does not exist */
+		ROWS_REJECTED
+	}
+
+	/**
+	 * Private constructor to make sure a new CleaningMetrics can't be created.
+	 */
+	private CleaningMetrics() {
+		//Do nothing
+	}
+
+	/**
+	 * Returns true if metrics are being recorded
+	 *
+	 * @return true if metrics are enabled
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Starts or stops recording metrics. The first time they are started the metrics are
+	 * registered with the platform MBean server.
+	 *
+	 * @param enable true to record metrics
+	 */
+	public static synchronized void setEnabled(boolean enable) {
+		if (enable && !started) {
+			//Create every recorder before any operation can see that metrics are on
+			Recorders.init();
+			started = true;
+			registerMBean();
+		}
+		enabled = enable;
+	}
+
+	/**
+	 * Marks the start of an operation
+	 *
+	 * @param operation the operation that is starting
+	 * @return the marker to pass to stop when the operation is done
+	 */
+	public static long start(Operation operation) {
+		if (!enabled) {
+			return DISABLED;
+		}
+		Recorders.ALLOCATED_AT_START.get()[operation.ordinal()] = Recorders.getAllocatedBytes();
+		return System.nanoTime();
+	}
+
+	/**
+	 * Records the time and allocations of an operation that has finished
+	 *
+	 * @param operation the operation that finished
+	 * @param start the marker start returned for it
+	 */
+	public static void stop(Operation operation, long start) {
+		if (start == DISABLED) {
+			return;
+		}
+		long elapsed = System.nanoTime() - start;
+		Recorders.HISTOGRAMS[operation.ordinal()].record(elapsed);
+		long allocated = Recorders.getAllocatedBytes() - Recorders.ALLOCATED_AT_START.get()[operation.ordinal()];
+		Recorders.ALLOCATED[operation.ordinal()].add(Math.max(0, allocated));
+	}
+
+	/**
+	 * Adds to a count
+	 *
+	 * @param counter the count to add to
+	 * @param amount the amount to add
+	 */
+	public static void count(Counter counter, long amount) {
+		if (enabled) {
+			Recorders.COUNTERS[counter.ordinal()].add(amount);
+		}
+	}
+
+	/**
+	 * Returns the times recorded for an operation
+	 *
+	 * @param operation the operation
+	 * @return the histogram of the operation's times in nanoseconds, which is empty if
+	 *         metrics have never been enabled
+	 */
+	public static LatencyHistogram getHistogram(Operation operation) {
+		return started ? Recorders.HISTOGRAMS[operation.ordinal()] : new LatencyHistogram();
+	}
+
+	/**
+	 * Returns the number of bytes allocated by the threads running an operation
+	 *
+	 * @param operation the operation
+	 * @return the bytes allocated, or 0 if the JVM cannot measure them
+	 */
+	public static long getAllocatedBytes(Operation operation) {
+		return started ? Recorders.ALLOCATED[operation.ordinal()].sum() : 0;
+	}
+
+	/**
+	 * Returns a count
+	 *
+	 * @param counter the count
+	 * @return the value of the count
+	 */
+	public static long getCount(Counter counter) {
+		return started ? Recorders.COUNTERS[counter.ordinal()].sum() : 0;
+	}
+
+	/**
+	 * Forgets every metric recorded so far
+	 */
+	public static void reset() {
+		if (!started) {
+			return;
+		}
+		for (int i = 0; i < Recorders.HISTOGRAMS.length; i++) {
+			Recorders.HISTOGRAMS[i].reset();
+			Recorders.ALLOCATED[i].reset();
+		}
+		for (LongAdder counter : Recorders.COUNTERS) {
+			counter.reset();
+		}
+	}
+
+	/**
+	 * Returns every metric as plain text, with times in milliseconds
+	 *
+	 * @return the metrics report
+	 */
+	public static String dump() {
+		if (!started) {
+			return "Metrics are off. Start the program with -D" + ENABLED_PROPERTY + "=true to record them.";
+		}
+		StringBuilder metricsReport = new StringBuilder("Cleaning Manager Metrics" + (enabled ? "" : " (paused)") + " [\n");
+		for (Operation operation : Operation.values()) {
+			LatencyHistogram histogram = getHistogram(operation);
+			metricsReport.append("   " + operation + ": ");
+			if (histogram.getCount() == 0) {
+				metricsReport.append("never run\n");
+				continue;
+			}
+			metricsReport.append(String.format("%d runs, mean %.3f ms, p50 %.3f ms, p99 %.3f ms, max %.3f ms, %d bytes allocated\n",
+					histogram.getCount(), histogram.getMean() / 1e6, histogram.getValueAtPercentile(50) / 1e6,
+					histogram.getValueAtPercentile(99) / 1e6, histogram.getMax() / 1e6, getAllocatedBytes(operation)));
+		}
+		metricsReport.append("   Rows parsed: " + getCount(Counter.ROWS_PARSED) + "\n");
+		metricsReport.append("   Rows rejected: " + getCount(Counter.ROWS_REJECTED) + "\n");
+		metricsReport.append("]");
+		return metricsReport.toString();
+	}
+
+	/**
+	 * Registers the metrics with the platform MBean server. Metrics still work without
+	 * JMX, so a failure to register is ignored.
+	 */
+	private static void registerMBean() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (!server.isRegistered(name)) {
+				server.registerMBean(new StandardMBean(new Management(), CleaningMetricsMBean.class), name);
+			}
+		} catch (JMException | SecurityException e) {
+			//The metrics can still be read with dump
+		}
+	}
+
+	/**
+	 * Everything that is recorded. The recorders are created when this class is first
+	 * used, which is only once metrics are enabled.
+	 *
+	 * @author Daniel Avisse
+	 *
+	 */
+	private static class Recorders {
+
+		/** The times of each operation, indexed by ordinal */
+		private static final LatencyHistogram[] HISTOGRAMS = new LatencyHistogram[Operation.values().length];
+
+		/** The bytes allocated by each operation, indexed by ordinal */
+		private static final LongAdder[] ALLOCATED = new LongAdder[Operation.values().length];
+
+		/** Each count, indexed by ordinal */
+		private static final LongAdder[] COUNTERS = new LongAdder[Counter.values().length];
+
+		/** The bytes each thread had allocated when it started each operation */
+		private static final ThreadLocal<long[]> ALLOCATED_AT_START = ThreadLocal.withInitial(() -> new long[Operation.values().length]);
+
+		/** The bean that measures the bytes each thread allocates, or null if the JVM cannot */
+		private static final com.sun.management.ThreadMXBean THREADS = getThreadBean();
+
+		static {
+			for (int i = 0; i < HISTOGRAMS.length; i++) {
+				HISTOGRAMS[i] = new LatencyHistogram();
+				ALLOCATED[i] = new LongAdder();
+			}
+			for (int i = 0; i < COUNTERS.length; i++) {
+				COUNTERS[i] = new LongAdder();
+			}
+		}
+
+		/**
+		 * Creates the recorders if they have not been created yet
+		 */
+		static void init() {
+			//Reading a field is enough to create everything above
+		}
+
+		/**
+		 * Returns the number of bytes the current thread has allocated so far
+		 *
+		 * @return the bytes allocated, or 0 if the JVM cannot measure them
+		 */
+		static long getAllocatedBytes() {
+			return THREADS == null ? 0 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+
+		/**
+		 * Returns the bean that measures the bytes each thread allocates
+		 *
+		 * @return the bean, or null if the JVM cannot measure allocations
+		 */
+		private static com.sun.management.ThreadMXBean getThreadBean() {
+			java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+			if (bean instanceof com.sun.management.ThreadMXBean) {
+				com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+				if (threads.isThreadAllocatedMemorySupported()) {
+					threads.setThreadAllocatedMemoryEnabled(true);
+					return threads;
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * The metrics as seen through JMX
+	 *
+	 * @author Daniel Avisse
+	 *
+	 */
+	private static class Management implements CleaningMetricsMBean {
+
+		@Override
+		public boolean isEnabled() {
+			return CleaningMetrics.isEnabled();
+		}
+
+		@Override
+		public void setEnabled(boolean enabled) {
+			CleaningMetrics.setEnabled(enabled);
+		}
+
+		@Override
+		public String[] getOperations() {
+			Operation[] operations = Operation.values();
+			String[] names = new String[operations.length];
+			for (int i = 0; i < operations.length; i++) {
+				names[i] = operations[i].name();
+			}
+			return names;
+		}
+
+		@Override
+		public long getCount(String operation) {
+			return getHistogram(Operation.valueOf(operation)).getCount();
+		}
+
+		@Override
+		public double getMeanMicros(String operation) {
+			return getHistogram(Operation.valueOf(operation)).getMean() / NANOS_PER_MICRO;
+		}
+
+		@Override
+		public double getPercentileMicros(String operation, double percentile) {
+			return getHistogram(Operation.valueOf(operation)).getValueAtPercentile(percentile) / NANOS_PER_MICRO;
+		}
+
+		@Override
+		public double getMaxMicros(String operation) {
+			return getHistogram(Operation.valueOf(operation)).getMax() / NANOS_PER_MICRO;
+		}
+
+		@Override
+		public long getAllocatedBytes(String operation) {
+			return CleaningMetrics.getAllocatedBytes(Operation.valueOf(operation));
+		}
+
+		@Override
+		public long getRowsParsed() {
+			return CleaningMetrics.getCount(Counter.ROWS_PARSED);
+		}
+
+		@Override
+		public long getRowsRejected() {
+			return CleaningMetrics.getCount(Counter.ROWS_REJECTED);
+		}
+
+		@Override
+		public String dump() {
+			return CleaningMetrics.dump();
+		}
+
+		@Override
+		public void reset() {
+			CleaningMetrics.reset();
+		}
+	}
+}
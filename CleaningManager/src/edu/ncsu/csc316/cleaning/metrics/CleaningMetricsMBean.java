@@ -0,0 +1,100 @@
+package edu.ncsu.csc316.cleaning.metrics;
+
+/**
+ * The management interface of CleaningMetrics, which JMX clients such as JConsole use to
+ * read the metrics of a running Cleaning Manager. Operations are named the same as the
+ * constants of CleaningMetrics.Operation, and times are in microseconds.
+ *
+ * @author Daniel Avisse
+ *
+ */
+public interface CleaningMetricsMBean {
+
+	/**
+	 * Returns true if metrics are being recorded
+	 *
+	 * @return true if metrics are enabled
+	 */
+	boolean isEnabled();
+
+	/**
+	 * Starts or stops recording metrics
+	 *
+	 * @param enabled true to record metrics
+	 */
+	void setEnabled(boolean enabled);
+
+	/**
+	 * Returns the names of the operations that are timed
+	 *
+	 * @return the operation names
+	 */
+	String[] getOperations();
+
+	/**
+	 * Returns the number of times an operation has finished
+	 *
+	 * @param operation the name of the operation
+	 * @return the number of times it was timed
+	 */
+	long getCount(String operation);
+
+	/**
+	 * Returns the mean time an operation took
+	 *
+	 * @param operation the name of the operation
+	 * @return the mean time in microseconds
+	 */
+	double getMeanMicros(String operation);
+
+	/**
+	 * Returns a time that the given percent of the runs of an operation took no longer than
+	 *
+	 * @param operation the name of the operation
+	 * @param percentile the percent of runs, from 0 to 100
+	 * @return the time at the percentile in microseconds
+	 */
+	double getPercentileMicros(String operation, double percentile);
+
+	/**
+	 * Returns the longest time an operation took
+	 *
+	 * @param operation the name of the operation
+	 * @return the longest time in microseconds
+	 */
+	double getMaxMicros(String operation);
+
+	/**
+	 * Returns the number of bytes allocated by the threads running an operation
+	 *
+	 * @param operation the name of the operation
+	 * @return the bytes allocated, or 0 if the JVM cannot measure them
+	 */
+	long getAllocatedBytes(String operation);
+
+	/**
+	 * Returns the number of cleaning log rows that were read
+	 *
+	 * @return the rows parsed
+	 */
+	long getRowsParsed();
+
+	/**
+	 * Returns the number of cleaning log rows that were skipped because their room does not exist
+	 *
+	 * @return the rows rejected
+	 */
+	long getRowsRejected();
+
+	/**
+	 * Returns every metric as plain text
+	 *
+	 * @return the metrics report
+	 */
+	String dump();
+
+	/**
+	 * Forgets every metric recorded so far
+	 */
+	void reset();
+}
@@ -0,0 +1,180 @@
+package edu.ncsu.csc316.cleaning.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LatencyHistogram counts recorded values, such as latencies in nanoseconds, in buckets
+ * whose width grows with the value in the same way as HdrHistogram. Values below 128
+ * each have their own bucket. Every power of two above that is split into 64 buckets,
+ * so any value can be read back to within about 1.6 percent, and every value a long can
+ * hold fits in a fixed array of 3712 counts.
+ *
+ * Recording a value works out its bucket with a few shifts and increments one count,
+ * without allocating or locking, so many threads can record at once. Values that are
+ * recorded while the histogram is read might only be counted in part of what is read.
+ *
+ * @author Daniel Avisse
+ *
+ */
+public class LatencyHistogram {
+
+	/** The number of bits of a value kept exactly, where values below 2 to this power each have their own bucket */
+	private static final int EXACT_BITS = 7;
+
+	/** The number of buckets each power of two above the exact values is split into */
+	private static final int SUB_BUCKETS = 1 << (EXACT_BITS - 1);
+
+	/** The number of values with their own bucket */
+	private static final int EXACT_BUCKETS = 1 << EXACT_BITS;
+
+	/** The number of buckets, enough for every value up to Long.MAX_VALUE */
+	private static final int BUCKET_COUNT = EXACT_BUCKETS + (Long.SIZE - 1 - EXACT_BITS) * SUB_BUCKETS;
+
+	/** The number of values recorded in each bucket */
+	private AtomicLongArray counts;
+
+	/** The number of values recorded */
+	private AtomicLong count;
+
+	/** The sum of the values recorded */
+	private AtomicLong total;
+
+	/** The largest value recorded */
+	private AtomicLong max;
+
+	/**
+	 * Constructs a new LatencyHistogram with nothing recorded
+	 */
+	public LatencyHistogram() {
+		counts = new AtomicLongArray(BUCKET_COUNT);
+		count = new AtomicLong();
+		total = new AtomicLong();
+		max = new AtomicLong();
+	}
+
+	/**
+	 * Records a value. Negative values are recorded as 0.
+	 *
+	 * @param value the value to record
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		counts.incrementAndGet(getBucket(value));
+		count.incrementAndGet();
+		total.addAndGet(value);
+		long largest = max.get();
+		while (value > largest && !max.compareAndSet(largest, value)) {
+			largest = max.get();
+		}
+	}
+
+	/**
+	 * Returns the number of values recorded
+	 *
+	 * @return the number of values
+	 */
+	public long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * Returns the sum of the values recorded
+	 *
+	 * @return the total of every value
+	 */
+	public long getTotal() {
+		return total.get();
+	}
+
+	/**
+	 * Returns the mean of the values recorded
+	 *
+	 * @return the mean, or 0 if nothing has been recorded
+	 */
+	public double getMean() {
+		long values = count.get();
+		return values == 0 ? 0 : (double) total.get() / values;
+	}
+
+	/**
+	 * Returns the largest value recorded
+	 *
+	 * @return the largest value, or 0 if nothing has been recorded
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Returns a value that the given percent of the recorded values are at or below. The
+	 * value is the largest that falls in the same bucket, but never more than the largest
+	 * value recorded.
+	 *
+	 * @param percentile the percent of values, from 0 to 100
+	 * @return the value at the percentile, or 0 if nothing has been recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long values = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			values += counts.get(i);
+		}
+		if (values == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * values));
+		long seen = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			seen += counts.get(i);
+			if (seen >= target) {
+				return Math.min(getHighestValue(i), max.get());
+			}
+		}
+		return max.get();
+	}
+
+	/**
+	 * Forgets every value recorded
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			counts.set(i, 0);
+		}
+		count.set(0);
+		total.set(0);
+		max.set(0);
+	}
+
+	/**
+	 * Returns the bucket a value is counted in
+	 *
+	 * @param value a value that is not negative
+	 * @return the index of the value's bucket
+	 */
+	static int getBucket(long value) {
+		if (value < EXACT_BUCKETS) {
+			return (int) value;
+		}
+		//Keep the highest EXACT_BITS - 1 bits below the leading bit and drop the rest
+		int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - EXACT_BITS;
+		int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+		return EXACT_BUCKETS + (shift - 1) * SUB_BUCKETS + subBucket;
+	}
+
+	/**
+	 * Returns the largest value that is counted in a bucket
+	 *
+	 * @param bucket the index of the bucket
+	 * @return the largest value of the bucket
+	 */
+	static long getHighestValue(int bucket) {
+		if (bucket < EXACT_BUCKETS) {
+			return bucket;
+		}
+		int shift = (bucket - EXACT_BUCKETS) / SUB_BUCKETS + 1;
+		long subBucket = SUB_BUCKETS + (bucket - EXACT_BUCKETS) % SUB_BUCKETS;
+		return ((subBucket + 1) << shift) - 1;
+	}
+}
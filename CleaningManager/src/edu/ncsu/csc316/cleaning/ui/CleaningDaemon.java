@@ -0,0 +1,125 @@
+package edu.ncsu.csc316.cleaning.ui;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import edu.ncsu.csc316.cleaning.manager.ReportManager;
+
+/**
+ * CleaningDaemon keeps a ReportManager loaded and answers report commands sent to a
+ * socket on this computer, so repeated reports never load the files again. Only
+ * connections from the loopback address are accepted.
+ *
+ * A client sends one command of ReportCommands per line. The result of each command is
+ * followed by a line that only says END. QUIT closes the connection, and SHUTDOWN also
+ * stops the daemon. Each connection is answered on its own thread, and every report
+ * reads the view that is current when it starts, so clients never wait for each other.
+ *
+ * @author Daniel Avisse
+ *
+ */
+public class CleaningDaemon {
+
+	/** The line written after the result of each command */
+	public static final String END_OF_RESULT = "END";
+
+	/** The number of connections that can wait to be accepted */
+	private static final int BACKLOG = 50;
+
+	/** The manager that runs the reports */
+	private ReportManager manager;
+
+	/** The socket that accepts connections */
+	private ServerSocket server;
+
+	/** The threads that answer connections */
+	private ExecutorService connections;
+
+	/**
+	 * Constructs a new CleaningDaemon and starts listening on a port of the loopback address
+	 *
+	 * @param manager the manager that runs the reports
+	 * @param port the port to listen on, or 0 for any free port
+	 * @throws IOException if the port cannot be listened on
+	 */
+	public CleaningDaemon(ReportManager manager, int port) throws IOException {
+		this.manager = manager;
+		server = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+		connections = Executors.newCachedThreadPool();
+	}
+
+	/**
+	 * Returns the port the daemon is listening on
+	 *
+	 * @return the port
+	 */
+	public int getPort() {
+		return server.getLocalPort();
+	}
+
+	/**
+	 * Accepts connections until the daemon is shut down
+	 */
+	public void serve() {
+		try {
+			while (!server.isClosed()) {
+				Socket client = server.accept();
+				connections.execute(() -> answer(client));
+			}
+		} catch (IOException e) {
+			//The socket was closed by shutdown
+		} finally {
+			shutdown();
+		}
+	}
+
+	/**
+	 * Stops accepting connections and closes the socket. Commands that are already
+	 * running are finished.
+	 */
+	public void shutdown() {
+		try {
+			server.close();
+		} catch (IOException e) {
+			//The socket is closed either way
+		}
+		connections.shutdown();
+	}
+
+	/**
+	 * Answers the commands of one connection until it sends QUIT or SHUTDOWN or closes
+	 *
+	 * @param client the connection
+	 */
+	private void answer(Socket client) {
+		try (Socket socket = client;
+				BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+				Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+			String line = in.readLine();
+			while (line != null && !"QUIT".equalsIgnoreCase(line.trim())) {
+				if ("SHUTDOWN".equalsIgnoreCase(line.trim())) {
+					shutdown();
+					return;
+				}
+				if (!line.trim().isEmpty()) {
+					ReportCommands.run(manager, line, out);
+					out.write("\n" + END_OF_RESULT + "\n");
+					out.flush();
+				}
+				line = in.readLine();
+			}
+		} catch (IOException e) {
+			//The client went away, so nothing more can be written to it
+		}
+	}
+}
@@ -0,0 +1,451 @@
+package edu.ncsu.csc316.cleaning.ui;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import edu.ncsu.csc316.cleaning.manager.ReportManager;
+
+/**
+ * CleaningHttpServer keeps a ReportManager loaded and serves its reports over HTTP on
+ * this computer, so dashboards can poll them without loading the files again. Only the
+ * loopback address is listened on. The reports are served as plain text:
+ *
+ * <pre>
+ * /frequency?n=&lt;number&gt;                 the most frequently cleaned rooms
+ * /rooms                               every cleaning of every room
+ * /vacuum?since=&lt;MM/DD/YYYY HH:MM:SS&gt;    the remaining vacuum bag life since a bag change
+ * </pre>
+ *
+ * Every report is only generated once for each set of arguments and each version of the
+ * cleaning events. After that it is answered from a cache until an event is added. The
+ * room report grows with every event, so it is written to the connection in chunks as it
+ * is generated, and only the one for the current version is kept.
+ *
+ * Every report has the version of the cleaning events as its ETag, and a request that
+ * lists it (or *) in If-None-Match is answered with 304 Not Modified and no body while no
+ * event has been added. Only the exact paths above are answered, anything else is 404.
+ *
+ * @author Daniel Avisse
+ *
+ */
+public class CleaningHttpServer {
+
+	/** The number of connections that can wait to be accepted */
+	private static final int BACKLOG = 50;
+
+	/** The number of reports that are cached before the cache is emptied */
+	private static final int MAX_CACHED_REPORTS = 256;
+
+	/** The manager that runs the reports */
+	private ReportManager manager;
+
+	/** The server that answers requests */
+	private HttpServer server;
+
+	/** The threads that answer requests */
+	private ExecutorService requests;
+
+	/** The frequency and vacuum bag reports that have been generated, by path and arguments */
+	private Map<String, CachedReport> cache;
+
+	/** The room report that was last generated, or null if there is none */
+	private volatile CachedReport roomReport;
+
+	/** Counts down once the server is stopped */
+	private CountDownLatch stopped;
+
+	/**
+	 * Constructs a new CleaningHttpServer listening on a port of the loopback address.
+	 * Requests are not answered until the server is started.
+	 *
+	 * @param manager the manager that runs the reports
+	 * @param port the port to listen on, or 0 for any free port
+	 * @throws IOException if the port cannot be listened on
+	 */
+	public CleaningHttpServer(ReportManager manager, int port) throws IOException {
+		this.manager = manager;
+		cache = new ConcurrentHashMap<String, CachedReport>();
+		stopped = new CountDownLatch(1);
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+		server.createContext("/frequency", exactPath(this::answerFrequency));
+		server.createContext("/rooms", exactPath(this::answerRooms));
+		server.createContext("/vacuum", exactPath(this::answerVacuum));
+		//Reports only read the view that is current when they start, so one thread per core never waits on another
+		requests = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		server.setExecutor(requests);
+	}
+
+	/**
+	 * Returns the port the server is listening on
+	 *
+	 * @return the port
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Starts answering requests on other threads
+	 */
+	public void start() {
+		server.start();
+	}
+
+	/**
+	 * Waits until the server is stopped
+	 *
+	 * @throws InterruptedException if the thread is interrupted while it waits
+	 */
+	public void awaitStop() throws InterruptedException {
+		stopped.await();
+	}
+
+	/**
+	 * Stops answering requests. Requests that are already being answered are finished.
+	 */
+	public void stop() {
+		server.stop(0);
+		requests.shutdown();
+		stopped.countDown();
+	}
+
+	/**
+	 * Returns a handler that only answers requests for the path of its context. A context
+	 * also receives every path that starts with its own, such as /roomsXYZ or /rooms/1,
+	 * and those are answered with 404 Not Found instead.
+	 *
+	 * @param handler answers the requests for the exact path
+	 * @return the handler for the context
+	 */
+	private HttpHandler exactPath(HttpHandler handler) {
+		return exchange -> {
+			String path = exchange.getRequestURI().getPath();
+			if (path.equals(exchange.getHttpContext().getPath())) {
+				handler.handle(exchange);
+			} else {
+				send(exchange, 404, "There is no report at " + path + ".");
+			}
+		};
+	}
+
+	/**
+	 * Answers a request for the frequency report
+	 *
+	 * @param exchange the request and its response
+	 * @throws IOException if the response cannot be written
+	 */
+	private void answerFrequency(HttpExchange exchange) throws IOException {
+		String n = getParameters(exchange).get("n");
+		if (n == null) {
+			send(exchange, 400, "The number of rooms must be given as n.");
+			return;
+		}
+		int number;
+		try {
+			number = Integer.parseInt(n.trim());
+		} catch (NumberFormatException e) {
+			send(exchange, 400, "Number of rooms must be a number: " + n);
+			return;
+		}
+		answer(exchange, "frequency " + number, () -> manager.getFrequencyReport(number));
+	}
+
+	/**
+	 * Answers a request for the room report from the cache, or writes it to the response
+	 * as it is generated if the cleaning events have changed since it was cached
+	 *
+	 * @param exchange the request and its response
+	 * @throws IOException if the response cannot be written
+	 */
+	private void answerRooms(HttpExchange exchange) throws IOException {
+		long version = checkRequest(exchange);
+		if (version < 0) {
+			return;
+		}
+		CachedReport cached = roomReport;
+		if (cached != null && cached.version == version) {
+			send(exchange, 200, cached.body);
+			return;
+		}
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+		if ("HEAD".equals(exchange.getRequestMethod())) {
+			exchange.sendResponseHeaders(200, -1);
+			exchange.close();
+			return;
+		}
+		//A length of 0 sends the body in chunks, so the client does not wait for the whole report
+		exchange.sendResponseHeaders(200, 0);
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		try (OutputStream out = new CopyingOutputStream(exchange.getResponseBody(), body)) {
+			manager.writeRoomReport(out);
+		}
+		//Only one room report is ever kept, so the cache is no larger than one report
+		if (manager.getDataVersion() == version) {
+			roomReport = new CachedReport(version, body.toByteArray());
+		}
+	}
+
+	/**
+	 * Answers a request for the vacuum bag report
+	 *
+	 * @param exchange the request and its response
+	 * @throws IOException if the response cannot be written
+	 */
+	private void answerVacuum(HttpExchange exchange) throws IOException {
+		String since = getParameters(exchange).get("since");
+		if (since == null) {
+			send(exchange, 400, "The date & time of the last bag change must be given as since.");
+			return;
+		}
+		String timestamp = since.trim();
+		answer(exchange, "vacuum " + timestamp, () -> manager.getVacuumBagReport(timestamp));
+	}
+
+	/**
+	 * Answers a request for a report from the cache, generating it first if the cleaning
+	 * events have changed since it was cached
+	 *
+	 * @param exchange the request and its response
+	 * @param key the path and arguments of the report
+	 * @param report generates the report
+	 * @throws IOException if the response cannot be written
+	 */
+	private void answer(HttpExchange exchange, String key, Report report) throws IOException {
+		long version = checkRequest(exchange);
+		if (version < 0) {
+			return;
+		}
+		CachedReport cached = cache.get(key);
+		if (cached == null || cached.version != version) {
+			cached = new CachedReport(version, report.generate().getBytes(StandardCharsets.UTF_8));
+			//The report is only kept if no event was added while it was generated,
+			//since it may have read the newer view
+			if (manager.getDataVersion() == version) {
+				if (cache.size() >= MAX_CACHED_REPORTS) {
+					cache.clear();
+				}
+				cache.put(key, cached);
+			}
+		}
+		send(exchange, 200, cached.body);
+	}
+
+	/**
+	 * Checks a request for a report before the report is generated. A request that is not
+	 * GET or HEAD is answered with 405 Method Not Allowed, and a request that already has
+	 * the report for the current version of the cleaning events is answered with 304 Not
+	 * Modified. Otherwise the ETag of the response is set to the current version.
+	 *
+	 * A report may read events that were added after the version was taken. Its ETag is
+	 * then older than the report, so it is sent again the next time instead of being kept.
+	 *
+	 * @param exchange the request and its response
+	 * @return the version of the cleaning events, or -1 if the request has been answered
+	 * @throws IOException if the response cannot be written
+	 */
+	private long checkRequest(HttpExchange exchange) throws IOException {
+		if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+			exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+			send(exchange, 405, "Only GET and HEAD are allowed.");
+			return -1;
+		}
+		long version = manager.getDataVersion();
+		String etag = "\"" + version + "\"";
+		exchange.getResponseHeaders().set("ETag", etag);
+		exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+		if (matchesAny(exchange.getRequestHeaders().get("If-None-Match"), etag)) {
+			exchange.sendResponseHeaders(304, -1);
+			exchange.close();
+			return -1;
+		}
+		return version;
+	}
+
+	/**
+	 * Sends a plain text response
+	 *
+	 * @param exchange the request and its response
+	 * @param status the status code
+	 * @param message the body of the response
+	 * @throws IOException if the response cannot be written
+	 */
+	private void send(HttpExchange exchange, int status, String message) throws IOException {
+		send(exchange, status, message.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Sends a plain text response, without the body if the request was HEAD
+	 *
+	 * @param exchange the request and its response
+	 * @param status the status code
+	 * @param body the body of the response in UTF-8
+	 * @throws IOException if the response cannot be written
+	 */
+	private void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+		if ("HEAD".equals(exchange.getRequestMethod())) {
+			exchange.getResponseHeaders().set("Content-Length", String.valueOf(body.length));
+			exchange.sendResponseHeaders(status, -1);
+			exchange.close();
+			return;
+		}
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	/**
+	 * Returns true if any of the entity tags in If-None-Match headers matches a tag. The
+	 * headers may each list several tags separated by commas, and * matches any tag. The
+	 * tags are compared weakly, so W/"1" matches "1".
+	 *
+	 * @param headers the values of every If-None-Match header, or null if there are none
+	 * @param etag the entity tag of the report, in quotes
+	 * @return true if the tag is listed
+	 */
+	static boolean matchesAny(List<String> headers, String etag) {
+		if (headers == null) {
+			return false;
+		}
+		for (String header : headers) {
+			int i = 0;
+			while (i < header.length()) {
+				char c = header.charAt(i);
+				if (c == ',' || Character.isWhitespace(c)) {
+					i++;
+				} else if (c == '*') {
+					return true;
+				} else {
+					if (header.startsWith("W/", i)) {
+						i += 2;
+						if (i == header.length()) {
+							break;
+						}
+					}
+					//A quoted tag can hold commas, so it ends at the closing quote
+					int end = header.charAt(i) == '"' ? header.indexOf('"', i + 1) + 1 : header.indexOf(',', i);
+					if (end <= 0) {
+						end = header.length();
+					}
+					if (header.substring(i, end).equals(etag)) {
+						return true;
+					}
+					i = end;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the parameters of the query of a request. If a parameter is given more than
+	 * once, the last one is used.
+	 *
+	 * @param exchange the request
+	 * @return the decoded parameters by name
+	 * @throws UnsupportedEncodingException never, since UTF-8 is always supported
+	 */
+	private static Map<String, String> getParameters(HttpExchange exchange) throws UnsupportedEncodingException {
+		Map<String, String> parameters = new HashMap<String, String>();
+		String query = exchange.getRequestURI().getRawQuery();
+		if (query == null) {
+			return parameters;
+		}
+		for (String pair : query.split("&")) {
+			int equals = pair.indexOf('=');
+			if (equals > 0) {
+				parameters.put(URLDecoder.decode(pair.substring(0, equals), "UTF-8"),
+						URLDecoder.decode(pair.substring(equals + 1), "UTF-8"));
+			}
+		}
+		return parameters;
+	}
+
+	/**
+	 * Generates a report as a String
+	 */
+	private interface Report {
+
+		/**
+		 * Generates the report
+		 *
+		 * @return the report
+		 */
+		String generate();
+	}
+
+	/**
+	 * A report as it was generated for one version of the cleaning events
+	 */
+	private static class CachedReport {
+
+		/** The version of the cleaning events the report was generated from */
+		private final long version;
+
+		/** The report in UTF-8 */
+		private final byte[] body;
+
+		/**
+		 * Constructs a new CachedReport
+		 *
+		 * @param version the version of the cleaning events
+		 * @param body the report in UTF-8
+		 */
+		CachedReport(long version, byte[] body) {
+			this.version = version;
+			this.body = body;
+		}
+	}
+
+	/**
+	 * Writes everything to a second stream as well, so a report that is sent as it is
+	 * generated can also be cached
+	 */
+	private static class CopyingOutputStream extends FilterOutputStream {
+
+		/** The stream that gets a copy of everything */
+		private final OutputStream copy;
+
+		/**
+		 * Constructs a new CopyingOutputStream
+		 *
+		 * @param out the stream that is written to
+		 * @param copy the stream that gets a copy of everything
+		 */
+		CopyingOutputStream(OutputStream out, OutputStream copy) {
+			super(out);
+			this.copy = copy;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			copy.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			copy.write(b, off, len);
+		}
+	}
+}
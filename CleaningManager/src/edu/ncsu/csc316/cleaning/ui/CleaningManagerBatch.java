@@ -0,0 +1,176 @@
+package edu.ncsu.csc316.cleaning.ui;
+
+import java.io.BufferedWriter;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.ncsu.csc316.cleaning.manager.ReportManager;
+
+/**
+ * CleaningManagerBatch runs the Cleaning Manager without prompting, for scripts. The
+ * files are loaded once and then every command is run, or the manager stays loaded
+ * as a CleaningDaemon or a CleaningHttpServer. It is started by giving CleaningManagerUI arguments:
+ *
+ * <pre>
+ * CleaningManagerUI &lt;room file&gt; &lt;log file&gt; [options] [command ...]
+ *   -snapshot &lt;file&gt;   load from a snapshot of the files, writing it first if needed
+ *   -script &lt;file&gt;     also run the commands in a file, one per line
+ *   -out &lt;directory&gt;   write the result of each command to its own file
+ *   -daemon &lt;port&gt;     after the commands, answer commands on the port of this computer
+ *   -http &lt;port&gt;       after the commands, serve the reports over HTTP on the port of this computer
+ * </pre>
+ *
+ * Each command is one argument, such as "F 3" or "V 04/20/2022 05:30:59", and uses the
+ * letters of ReportCommands. Empty lines and lines starting with # in a script are
+ * skipped. Without -out, every result is written to standard output followed by a blank
+ * line. With it, the result of the nth command is written to a file named for n and the
+ * command's letter, such as 001-F.txt.
+ *
+ * @author Daniel Avisse
+ *
+ */
+public class CleaningManagerBatch {
+
+	/** The usage message printed when the arguments are wrong */
+	public static final String USAGE = "Usage: CleaningManagerUI <room file> <log file> [-snapshot <file>] [-script <file>]"
+			+ " [-out <directory>] [-daemon <port>] [-http <port>] [command ...]";
+
+	/**
+	 * Private constructor to make sure a new CleaningManagerBatch can't be created.
+	 */
+	private CleaningManagerBatch() {
+		//Do nothing
+	}
+
+	/**
+	 * Loads the files once and runs every command, then serves commands if -daemon or -http was given
+	 *
+	 * @param args the room file, the log file, options, and commands
+	 */
+	public static void main(String[] args) {
+		System.exit(run(args, System.out, System.err));
+	}
+
+	/**
+	 * Loads the files once and runs every command, then serves commands if -daemon or -http was given
+	 *
+	 * @param args the room file, the log file, options, and commands
+	 * @param out where results are written when there is no -out directory
+	 * @param err where mistakes are reported
+	 * @return 0 if every command was run, or 1 if the arguments or files were wrong
+	 */
+	public static int run(String[] args, PrintStream out, PrintStream err) {
+		if (args.length < 2) {
+			err.println(USAGE);
+			return 1;
+		}
+		String snapshot = null;
+		Path outDirectory = null;
+		int port = -1;
+		int httpPort = -1;
+		List<String> commands = new ArrayList<String>();
+		try {
+			for (int i = 2; i < args.length; i++) {
+				if ("-snapshot".equals(args[i]) && i + 1 < args.length) {
+					snapshot = args[++i];
+				} else if ("-out".equals(args[i]) && i + 1 < args.length) {
+					outDirectory = Paths.get(args[++i]);
+				} else if ("-daemon".equals(args[i]) && i + 1 < args.length) {
+					port = Integer.parseInt(args[++i]);
+				} else if ("-http".equals(args[i]) && i + 1 < args.length) {
+					httpPort = Integer.parseInt(args[++i]);
+				} else if ("-script".equals(args[i]) && i + 1 < args.length) {
+					for (String line : Files.readAllLines(Paths.get(args[++i]), StandardCharsets.UTF_8)) {
+						if (!line.trim().isEmpty() && !line.trim().startsWith("#")) {
+							commands.add(line);
+						}
+					}
+				} else if (args[i].startsWith("-")) {
+					err.println(USAGE);
+					return 1;
+				} else {
+					commands.add(args[i]);
+				}
+			}
+		} catch (NumberFormatException e) {
+			err.println("The port must be a number.");
+			return 1;
+		} catch (IOException e) {
+			err.println("ERROR: The script could not be read.");
+			return 1;
+		}
+
+		ReportManager manager;
+		try {
+			manager = snapshot == null ? new ReportManager(args[0], args[1]) : new ReportManager(args[0], args[1], snapshot);
+		} catch (FileNotFoundException e) {
+			err.println("ERROR: The files you have entered either do not exist or are formatted incorrectly.");
+			return 1;
+		}
+
+		try {
+			runCommands(manager, commands, out, outDirectory);
+			CleaningHttpServer http = null;
+			if (httpPort >= 0) {
+				http = new CleaningHttpServer(manager, httpPort);
+				http.start();
+				err.println("Serving reports at http://localhost:" + http.getPort() + "/");
+			}
+			if (port >= 0) {
+				CleaningDaemon daemon = new CleaningDaemon(manager, port);
+				err.println("Answering commands on port " + daemon.getPort());
+				daemon.serve();
+				//Shutting down the daemon stops the whole program
+				if (http != null) {
+					http.stop();
+				}
+			} else if (http != null) {
+				http.awaitStop();
+			}
+		} catch (IOException e) {
+			err.println("ERROR: " + e.getMessage());
+			return 1;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return 0;
+	}
+
+	/**
+	 * Runs each command in order, writing each result to standard output or to its own file
+	 *
+	 * @param manager the manager that runs the reports
+	 * @param commands the commands
+	 * @param out where results are written when there is no directory
+	 * @param outDirectory the directory to write each result to, or null
+	 * @throws IOException if a result cannot be written
+	 */
+	private static void runCommands(ReportManager manager, List<String> commands, PrintStream out, Path outDirectory) throws IOException {
+		if (outDirectory == null) {
+			Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+			for (String command : commands) {
+				ReportCommands.run(manager, command, writer);
+				writer.write("\n\n");
+				writer.flush();
+			}
+			return;
+		}
+		Files.createDirectories(outDirectory);
+		for (int i = 0; i < commands.size(); i++) {
+			String letter = commands.get(i).trim().isEmpty() ? "" : commands.get(i).trim().substring(0, 1).toUpperCase();
+			Path file = outDirectory.resolve(String.format("%03d-%s.txt", i + 1, letter));
+			try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8))) {
+				ReportCommands.run(manager, commands.get(i), writer);
+			}
+		}
+	}
+}
@@ -1,17 +1,20 @@
 package edu.ncsu.csc316.cleaning.ui;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.Scanner;
 
 import edu.ncsu.csc316.cleaning.manager.CleaningManager;
 import edu.ncsu.csc316.cleaning.manager.ReportManager;
+import edu.ncsu.csc316.cleaning.metrics.CleaningMetrics;
 
 /**
  * This is the UI class for CleaningManager. This is the class that the user will use to interact with 
  * the program. The user will be prompted to first enter the file names of the files they want to use
  * to report Rooms and Cleaning Logs. This class interacts with the ReportManager class, allowing for 
  * this class to display the information returned for the ReportManager like frequency report or
- * vaccum bag life.
+ * vaccum bag life. When it is started with arguments it runs them with CleaningManagerBatch
+ * instead of prompting the user.
  * @author Daniel Avisse
  */
 public class CleaningManagerUI {
@@ -24,7 +27,7 @@ public class CleaningManagerUI {
 	 * This is the main method. This method is what creates the actual UI the user will use to interact
 	 * with the ReportManager class to be able to load valid files of rooms and logs and use those to
 	 * see which rooms have been clean.
-	 * @param args command line arguments
+	 * @param args command line arguments, which are run by CleaningManagerBatch if there are any
 	 */
 	public static void main (String args[]) {
 		
@@ -39,6 +42,12 @@ public class CleaningManagerUI {
 		int endTime = (int) System.currentTimeMillis(); 
 		System.out.println("Time it took (MS):" + (endTime - startTime)); */
 		
+		//If files and commands were given then run them without prompting the user
+		if (args.length > 0) {
+			CleaningManagerBatch.main(args);
+			return;
+		}
+		
 		//Start the program by creating a new scanner that will take user input
 		Scanner scnr = new Scanner(System.in);
         String roomFileLocation = "";
@@ -113,7 +122,15 @@ public class CleaningManagerUI {
         	
         	//If the option is R then report all the rooms and cleanings
         	else if ("R".equalsIgnoreCase(userOption)) {
-        		System.out.println("\n" + manager.getRoomReport());
+        		//Stream the report straight to the console instead of building it as one String
+        		System.out.println();
+        		try {
+        			manager.writeRoomReport(System.out);
+        		}
+        		catch (IOException e) {
+        			System.out.print("\nERROR: The room report could not be displayed.");
+        		}
+        		System.out.println();
         	}
         	
         	//If the option is V then report the estimated bag life
@@ -124,6 +141,11 @@ public class CleaningManagerUI {
         		System.out.println("\n" + manager.getVacuumBagReport(date));
         	}
         	
+        	//If the option is M then show how long each operation has taken
+        	else if ("M".equalsIgnoreCase(userOption)) {
+        		System.out.println("\n" + CleaningMetrics.dump());
+        	}
+        	
         	//If the option is not any of the other options or is not Q then prompt the user for a valid option
         	else if (!"Q".equalsIgnoreCase(userOption)) {
         		System.out.println("Please Enter a Valid Option!");
@@ -143,6 +165,7 @@ public class CleaningManagerUI {
 		System.out.println("F - View the Most Frequently Cleaned Rooms");
 		System.out.println("R - View a Report of Cleanings by Room");
 		System.out.println("V - View Estimated Remaining Vacuum Bag Life");
+		System.out.println("M - View Metrics");
 		System.out.println("Q - Quit the Program");
 	}
 
@@ -0,0 +1,102 @@
+package edu.ncsu.csc316.cleaning.ui;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.Writer;
+
+import edu.ncsu.csc316.cleaning.manager.ReportManager;
+import edu.ncsu.csc316.cleaning.metrics.CleaningMetrics;
+
+/**
+ * ReportCommands runs the reports of the Cleaning Manager from one line of text each,
+ * so they can be given on the command line, in a script file, or over a socket instead
+ * of through the menu of CleaningManagerUI. The commands use the same letters as the menu:
+ *
+ * <pre>
+ * F &lt;number&gt;                 the most frequently cleaned rooms
+ * R                          every cleaning of every room
+ * V &lt;MM/DD/YYYY HH:MM:SS&gt;     the remaining vacuum bag life since a bag change
+ * V &lt;installed&gt; &lt;replaced&gt;   what a vacuum bag collected between two times
+ * O                          the overdue tracked vacuum bags
+ * M                          the metrics, if they are enabled
+ * T                          read lines added to the end of the cleaning log file
+ * </pre>
+ *
+ * Mistakes in a command are reported in the output the same way the reports report
+ * them, so one bad command never stops the others.
+ *
+ * @author Daniel Avisse
+ *
+ */
+public class ReportCommands {
+
+	/**
+	 * Private constructor to make sure a new ReportCommands can't be created.
+	 */
+	private ReportCommands() {
+		//Do nothing
+	}
+
+	/**
+	 * Runs a command and writes its result to a writer. The room report is written a chunk
+	 * at a time instead of being built as one String. The writer is flushed but not closed.
+	 *
+	 * @param manager the manager that runs the reports
+	 * @param command the command, such as "F 3"
+	 * @param out the writer to write the result to
+	 * @throws IOException if the result cannot be written
+	 */
+	public static void run(ReportManager manager, String command, Writer out) throws IOException {
+		String[] words = command.trim().split("\\s+");
+		String letter = words[0].toUpperCase();
+		if ("R".equals(letter) && words.length == 1) {
+			manager.writeRoomReport(out);
+			return;
+		}
+		out.write(getResult(manager, letter, words));
+		out.flush();
+	}
+
+	/**
+	 * Returns the result of every command except the room report
+	 *
+	 * @param manager the manager that runs the reports
+	 * @param letter the letter of the command in upper case
+	 * @param words the words of the command, starting with the letter
+	 * @return the result of the command
+	 */
+	private static String getResult(ReportManager manager, String letter, String[] words) {
+		//The frequency report takes the number of rooms
+		if ("F".equals(letter) && words.length == 2) {
+			try {
+				return manager.getFrequencyReport(Integer.parseInt(words[1]));
+			} catch (NumberFormatException e) {
+				return "Number of rooms must be a number: " + words[1];
+			}
+		}
+		//The vacuum bag report takes a date and a time, or two of each for a range
+		if ("V".equals(letter) && words.length == 3) {
+			return manager.getVacuumBagReport(words[1] + " " + words[2]);
+		}
+		if ("V".equals(letter) && words.length == 5) {
+			return manager.getVacuumBagReport(words[1] + " " + words[2], words[3] + " " + words[4]);
+		}
+		if ("V".equals(letter)) {
+			return "Date & time must be in the format: MM/DD/YYYY HH:MM:SS";
+		}
+		if ("O".equals(letter) && words.length == 1) {
+			return manager.getOverdueBagReport();
+		}
+		if ("M".equals(letter) && words.length == 1) {
+			return CleaningMetrics.dump();
+		}
+		if ("T".equals(letter) && words.length == 1) {
+			try {
+				return "Added " + manager.appendLogTail() + " cleaning log entries.";
+			} catch (FileNotFoundException e) {
+				return "The cleaning log file could not be read.";
+			}
+		}
+		return "Unknown command: " + String.join(" ", words);
+	}
+}
@@ -0,0 +1,50 @@
+package edu.ncsu.csc316.cleaning.benchmark;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.cleaning.data.CleaningLogEntry;
+import edu.ncsu.csc316.cleaning.data.RoomRecord;
+import edu.ncsu.csc316.cleaning.io.InputReader;
+import edu.ncsu.csc316.dsa.list.List;
+
+/**
+ * The test class for the ExperimentFileGenerator. Tests to see if the generated files
+ * can be read by InputReader and have the expected number of rooms and entries.
+ * @author Daniel Avisse
+ *
+ */
+public class ExperimentFileGeneratorTest {
+
+	/**
+	 * Tests generating a pair of files and reading them back
+	 * @throws IOException if the files could not be written or read
+	 */
+	@Test
+	public void testGenerate() throws IOException {
+		Path directory = Files.createTempDirectory("generator");
+		Path[] files = ExperimentFileGenerator.generate(directory, 6, 316);
+		try {
+			List<RoomRecord> rooms = InputReader.readRoomFile(files[0].toString());
+			List<CleaningLogEntry> logs = InputReader.readLogFile(files[1].toString());
+			assertEquals(64, rooms.size());
+			assertEquals(64, logs.size());
+			assertEquals("Attic 1", rooms.get(0).getRoomID());
+
+			//The same seed generates the same files
+			byte[] first = Files.readAllBytes(files[1]);
+			ExperimentFileGenerator.generate(directory, 6, 316);
+			assertTrue(Arrays.equals(first, Files.readAllBytes(files[1])));
+		} finally {
+			Files.delete(files[0]);
+			Files.delete(files[1]);
+			Files.delete(directory);
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package edu.ncsu.csc316.cleaning.factory;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Test;
+
+import edu.ncsu.csc316.cleaning.factory.DSAFactory.AccessPattern;
+import edu.ncsu.csc316.cleaning.factory.DSAFactory.ListType;
+import edu.ncsu.csc316.cleaning.factory.DSAFactory.MapType;
+import edu.ncsu.csc316.dsa.list.ArrayBasedList;
+import edu.ncsu.csc316.dsa.list.SinglyLinkedList;
+import edu.ncsu.csc316.dsa.map.Map;
+import edu.ncsu.csc316.dsa.map.hashing.LinearProbingHashMap;
+import edu.ncsu.csc316.dsa.map.search_tree.AVLTreeMap;
+import edu.ncsu.csc316.dsa.map.search_tree.SplayTreeMap;
+
+/**
+ * The test class for the DSAFactory. Tests to see if the factory creates the configured
+ * implementations, or picks one from the access pattern when none is configured.
+ * @author Daniel Avisse
+ *
+ */
+public class DSAFactoryTest {
+
+	/**
+	 * Goes back to picking implementations automatically after each test
+	 */
+	@After
+	public void tearDown() {
+		DSAFactory.setMapType(null);
+		DSAFactory.setListType(null);
+	}
+
+	/**
+	 * Tests picking a map implementation when none is configured
+	 */
+	@Test
+	public void testAutomaticSelection() {
+		assertEquals(MapType.LINEAR_PROBING, DSAFactory.selectMapType(1 << 20, AccessPattern.POINT_LOOKUP));
+		assertEquals(MapType.AVL_TREE, DSAFactory.selectMapType(10, AccessPattern.ORDERED_ITERATION));
+		//A hash map is only given out when it can be made large enough up front
+		assertEquals(MapType.AVL_TREE, DSAFactory.selectMapType(0, AccessPattern.POINT_LOOKUP));
+		assertTrue(DSAFactory.getMap() instanceof AVLTreeMap);
+		assertTrue(DSAFactory.getMap(100, AccessPattern.POINT_LOOKUP) instanceof LinearProbingHashMap);
+		assertTrue(DSAFactory.getMap(100, AccessPattern.ORDERED_ITERATION) instanceof AVLTreeMap);
+		assertTrue(DSAFactory.getIndexedList() instanceof SinglyLinkedList);
+	}
+
+	/**
+	 * Tests that the configured implementations are used
+	 */
+	@Test
+	public void testConfiguredSelection() {
+		DSAFactory.setMapType(MapType.SPLAY_TREE);
+		DSAFactory.setListType(ListType.ARRAY_BASED);
+		assertTrue(DSAFactory.getMap() instanceof SplayTreeMap);
+		assertTrue(DSAFactory.getMap(100, AccessPattern.ORDERED_ITERATION) instanceof SplayTreeMap);
+		assertTrue(DSAFactory.getIndexedList() instanceof ArrayBasedList);
+
+		//A hash map is never given out when the keys have to be iterated in order
+		DSAFactory.setMapType(MapType.LINEAR_PROBING);
+		assertTrue(DSAFactory.getMap(100, AccessPattern.ORDERED_ITERATION) instanceof AVLTreeMap);
+	}
+
+	/**
+	 * Tests reading implementations from system properties, and that a typo falls back to
+	 * picking one automatically instead of failing
+	 */
+	@Test
+	public void testParseType() {
+		assertEquals(MapType.SPLAY_TREE, DSAFactory.parseType(MapType.class, " splay_tree "));
+		assertEquals(ListType.ARRAY_BASED, DSAFactory.parseType(ListType.class, "ARRAY_BASED"));
+		assertNull(DSAFactory.parseType(MapType.class, null));
+		assertNull(DSAFactory.parseType(MapType.class, "auto"));
+		assertNull(DSAFactory.parseType(MapType.class, "SPLAY"));
+	}
+
+	/**
+	 * Tests that every implementation works as a map, and that the ordered ones iterate in key order
+	 */
+	@Test
+	public void testEveryMapType() {
+		String[] keys = {"Office", "Attic", "Gym", "Kitchen", "Bathroom"};
+		for (MapType type : MapType.values()) {
+			for (int expectedSize : new int[] {0, keys.length}) {
+				Map<String, Integer> map = DSAFactory.getMap(type, expectedSize);
+				for (int i = 0; i < keys.length; i++) {
+					map.put(keys[i], i);
+				}
+				assertEquals(keys.length, map.size());
+				assertEquals(Integer.valueOf(2), map.get("Gym"));
+				assertNull(map.get("Basement"));
+				if (type.isOrdered()) {
+					String previous = "";
+					for (Map.Entry<String, Integer> entry : map.entrySet()) {
+						assertTrue(type + " is not in order", previous.compareTo(entry.getKey()) < 0);
+						previous = entry.getKey();
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,263 @@
+package edu.ncsu.csc316.cleaning.io;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.InputMismatchException;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.cleaning.data.CleaningLogEntry;
+import edu.ncsu.csc316.cleaning.data.RoomRecord;
+import edu.ncsu.csc316.cleaning.manager.CleaningManager;
+import edu.ncsu.csc316.cleaning.manager.ReportManager;
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.dsa.list.SinglyLinkedList;
+
+/**
+ * The test class for the MappedInputReader. Tests to see if the memory-mapped reader
+ * produces the same rooms and cleaning log entries as InputReader and rejects the
+ * same malformed lines.
+ * @author Daniel Avisse
+ *
+ */
+public class MappedInputReaderTest {
+
+	/**
+	 * Tests reading room files. Every room should match the rooms read by InputReader.
+	 * @throws FileNotFoundException if the file could not be loaded
+	 */
+	@Test
+	public void testReadRoomFile() throws FileNotFoundException {
+		for (String file : new String[] {"input/Input-rooms-1.txt", "input/experimentFiles/rooms_12.csv"}) {
+			List<RoomRecord> expected = InputReader.readRoomFile(file);
+			List<RoomRecord> actual = new SinglyLinkedList<RoomRecord>();
+			MappedInputReader.readRoomFile(file, room -> actual.addLast(room));
+			assertEquals(expected.size(), actual.size());
+			int i = 0;
+			for (RoomRecord room : actual) {
+				RoomRecord expectedRoom = expected.get(i);
+				assertEquals(expectedRoom.getRoomID(), room.getRoomID());
+				assertEquals(expectedRoom.getLength(), room.getLength());
+				assertEquals(expectedRoom.getWidth(), room.getWidth());
+				i++;
+			}
+		}
+	}
+
+	/**
+	 * Tests reading cleaning log files. Every entry should match the entries read by InputReader.
+	 * @throws FileNotFoundException if the file could not be loaded
+	 */
+	@Test
+	public void testReadLogFile() throws FileNotFoundException {
+		for (String file : new String[] {"input/Input-cleaned-rooms-1.txt", "input/experimentFiles/cleaningEvents_12.csv"}) {
+			List<CleaningLogEntry> expected = InputReader.readLogFile(file);
+			List<CleaningLogEntry> actual = new SinglyLinkedList<CleaningLogEntry>();
+			MappedInputReader.readLogFile(file, (epochSecond, roomID, percent) -> actual.addLast(
+					new CleaningLogEntry(LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC), roomID, percent)));
+			assertEquals(expected.size(), actual.size());
+			int i = 0;
+			for (CleaningLogEntry log : actual) {
+				assertEquals(expected.get(i), log);
+				i++;
+			}
+		}
+	}
+
+	/**
+	 * Tests Windows line endings, a missing final line terminator, and lines that need the slow path
+	 * @throws IOException if the temporary file could not be written
+	 */
+	@Test
+	public void testUnusualLines() throws IOException {
+		File file = File.createTempFile("mapped-logs", ".csv");
+		file.deleteOnExit();
+		Files.write(file.toPath(), ("TIMESTAMP,ROOM_ID,PERCENT_CLEANED\r\n"
+				+ "02/29/2024 23:59:59,Office,50\r\n"
+				+ "12/31/1969 00:00:00,Office,-5\r\n"
+				+ "01/01/2022 00:00:00,Gym,50,extra").getBytes(StandardCharsets.UTF_8));
+		List<CleaningLogEntry> actual = new SinglyLinkedList<CleaningLogEntry>();
+		MappedInputReader.readLogFile(file.getPath(), (epochSecond, roomID, percent) -> actual.addLast(
+				new CleaningLogEntry(LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC), roomID, percent)));
+		assertEquals(3, actual.size());
+		assertEquals(new CleaningLogEntry(LocalDateTime.of(2024, 2, 29, 23, 59, 59), "Office", 50), actual.get(0));
+		assertEquals(new CleaningLogEntry(LocalDateTime.of(1969, 12, 31, 0, 0, 0), "Office", -5), actual.get(1));
+		assertEquals(new CleaningLogEntry(LocalDateTime.of(2022, 1, 1, 0, 0, 0), "Gym", 50), actual.get(2));
+	}
+
+	/**
+	 * Tests converting dates into the number of days since the epoch
+	 */
+	@Test
+	public void testToEpochDay() {
+		assertEquals(0, MappedInputReader.toEpochDay(1970, 1, 1));
+		assertEquals(LocalDate.of(2000, 2, 29).toEpochDay(), MappedInputReader.toEpochDay(2000, 2, 29));
+		assertEquals(LocalDate.of(1900, 3, 1).toEpochDay(), MappedInputReader.toEpochDay(1900, 3, 1));
+		assertEquals(LocalDate.of(9999, 12, 31).toEpochDay(), MappedInputReader.toEpochDay(9999, 12, 31));
+		assertEquals(LocalDate.of(1, 1, 1).toEpochDay(), MappedInputReader.toEpochDay(1, 1, 1));
+	}
+
+	/**
+	 * Tests that missing files are reported
+	 * @throws FileNotFoundException if the file could not be loaded
+	 */
+	@Test(expected = FileNotFoundException.class)
+	public void testMissingFile() throws FileNotFoundException {
+		MappedInputReader.readLogFile("input/missing-file.csv", (epochSecond, roomID, percent) -> fail());
+	}
+
+	/**
+	 * Tests that a directory is reported the same way as a missing file by every read, and
+	 * by the managers that read with the mapped reader
+	 */
+	@Test
+	public void testDirectory() {
+		try {
+			MappedInputReader.readRoomFile("input", room -> fail());
+			fail();
+		} catch (FileNotFoundException e) {
+			assertEquals("input (Is a directory)", e.getMessage());
+		}
+		try {
+			MappedInputReader.readLogTail("input", 0, (epochSecond, roomID, percent) -> fail());
+			fail();
+		} catch (FileNotFoundException e) {
+			assertEquals("input (Is a directory)", e.getMessage());
+		}
+		try {
+			MappedInputReader.splitLogFile("input", 4);
+			fail();
+		} catch (FileNotFoundException e) {
+			assertEquals("input (Is a directory)", e.getMessage());
+		}
+		for (CleaningManager.LoadMode mode : CleaningManager.LoadMode.values()) {
+			try {
+				new CleaningManager("input/Input-rooms-1.txt", "input", mode);
+				fail(mode.toString());
+			} catch (FileNotFoundException e) {
+				assertTrue(mode.toString(), e.getMessage().startsWith("input"));
+			}
+		}
+		try {
+			new ReportManager("input", "input/Input-cleaned-rooms-1.txt");
+			fail();
+		} catch (FileNotFoundException e) {
+			assertEquals("input (Is a directory)", e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that malformed rooms are rejected
+	 * @throws FileNotFoundException if the file could not be loaded
+	 */
+	@Test(expected = InputMismatchException.class)
+	public void testInvalidRoomFile() throws FileNotFoundException {
+		MappedInputReader.readRoomFile("input/Invalid-rooms.txt.txt", room -> fail());
+	}
+
+	/**
+	 * Tests that malformed cleaning log entries are rejected
+	 * @throws FileNotFoundException if the file could not be loaded
+	 */
+	@Test(expected = DateTimeParseException.class)
+	public void testInvalidLogFile() throws FileNotFoundException {
+		MappedInputReader.readLogFile("input/Invalid-cleaned-rooms.txt.txt", (epochSecond, roomID, percent) -> fail());
+	}
+
+	/**
+	 * Tests splitting a log file into chunks and reading each chunk. Reading every chunk in
+	 * order should produce the same entries as reading the whole file.
+	 * @throws FileNotFoundException if the file could not be loaded
+	 */
+	@Test
+	public void testReadLogChunks() throws FileNotFoundException {
+		String file = "input/Input-cleaned-rooms-1.txt";
+		List<CleaningLogEntry> expected = InputReader.readLogFile(file);
+		for (int parts = 1; parts <= 20; parts++) {
+			long[] boundaries = MappedInputReader.splitLogFile(file, parts);
+			assertTrue(boundaries.length - 1 <= parts);
+			List<CleaningLogEntry> actual = new SinglyLinkedList<CleaningLogEntry>();
+			for (int i = 0; i + 1 < boundaries.length; i++) {
+				assertTrue(boundaries[i] < boundaries[i + 1]);
+				MappedInputReader.readLogChunk(file, boundaries[i], boundaries[i + 1], (epochSecond, roomID, percent) -> actual.addLast(
+						new CleaningLogEntry(LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC), roomID, percent)));
+			}
+			assertEquals(expected.size(), actual.size());
+			for (int i = 0; i < expected.size(); i++) {
+				assertEquals(expected.get(i), actual.get(i));
+			}
+		}
+		//A file with only a header has no chunks
+		assertEquals(1, MappedInputReader.splitLogFile("input/empty-logs.txt", 4).length);
+	}
+
+	/**
+	 * Tests reading only the lines written to a log file since it was last read
+	 * @throws IOException if the temporary file could not be written
+	 */
+	@Test
+	public void testReadLogTail() throws IOException {
+		File file = File.createTempFile("tail-logs", ".csv");
+		file.deleteOnExit();
+		Files.write(file.toPath(), ("TIMESTAMP,ROOM_ID,PERCENT_CLEANED\n"
+				+ "01/01/2022 00:00:00,Office,50\n"
+				+ "01/02/2022 00:00:00,Gym,60").getBytes(StandardCharsets.UTF_8));
+		List<CleaningLogEntry> actual = new SinglyLinkedList<CleaningLogEntry>();
+		MappedInputReader.CleaningEventHandler handler = (epochSecond, roomID, percent) -> actual.addLast(
+				new CleaningLogEntry(LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC), roomID, percent));
+		long position = MappedInputReader.readLogTail(file.getPath(), 0, handler);
+		assertEquals(file.length(), position);
+		assertEquals(2, actual.size());
+
+		//Nothing new was written
+		assertEquals(position, MappedInputReader.readLogTail(file.getPath(), position, handler));
+		assertEquals(2, actual.size());
+
+		//The last line had no line terminator, so the new lines start after the one that was added
+		Files.write(file.toPath(), "\n01/03/2022 00:00:00,Gym,70\n01/04/2022 00:00:00,Office,80\n".getBytes(StandardCharsets.UTF_8),
+				StandardOpenOption.APPEND);
+		position = MappedInputReader.readLogTail(file.getPath(), position, handler);
+		assertEquals(4, actual.size());
+		assertEquals(new CleaningLogEntry(LocalDateTime.of(2022, 1, 3, 0, 0, 0), "Gym", 70), actual.get(2));
+		assertEquals(new CleaningLogEntry(LocalDateTime.of(2022, 1, 4, 0, 0, 0), "Office", 80), actual.get(3));
+
+		Files.write(file.toPath(), "01/05/2022 00:00:00,Gym,90\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		assertEquals(file.length(), MappedInputReader.readLogTail(file.getPath(), position, handler));
+		assertEquals(5, actual.size());
+		assertEquals(new CleaningLogEntry(LocalDateTime.of(2022, 1, 5, 0, 0, 0), "Gym", 90), actual.get(4));
+
+		//A line that is still being written is left until it is finished
+		long finished = file.length();
+		Files.write(file.toPath(), "01/06/2022 00:00:00,Office,5".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		position = MappedInputReader.readLogTail(file.getPath(), finished, handler);
+		assertEquals(finished, position);
+		assertEquals(5, actual.size());
+		Files.write(file.toPath(), "0\n01/07/2022 00:0".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		position = MappedInputReader.readLogTail(file.getPath(), position, handler);
+		assertEquals(6, actual.size());
+		assertEquals(new CleaningLogEntry(LocalDateTime.of(2022, 1, 6, 0, 0, 0), "Office", 50), actual.get(5));
+		Files.write(file.toPath(), "0:00,Gym,100\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		position = MappedInputReader.readLogTail(file.getPath(), position, handler);
+		assertEquals(file.length(), position);
+		assertEquals(7, actual.size());
+		assertEquals(new CleaningLogEntry(LocalDateTime.of(2022, 1, 7, 0, 0, 0), "Gym", 100), actual.get(6));
+
+		//A file that was cut short cannot be read from the old position
+		try {
+			MappedInputReader.readLogTail(file.getPath(), file.length() + 1, handler);
+			fail();
+		} catch (IllegalStateException e) {
+			assertEquals(7, actual.size());
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package edu.ncsu.csc316.cleaning.io;
+
+import static org.junit.Assert.*;
+
+import java.io.FileNotFoundException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.InputMismatchException;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.cleaning.data.CleaningLogEntry;
+import edu.ncsu.csc316.cleaning.data.RoomRecord;
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.dsa.list.SinglyLinkedList;
+
+/**
+ * The test class for the StreamingInputReader. Tests to see if the reader hands every
+ * record to the handler in file order and rejects the same malformed lines as InputReader.
+ * @author Daniel Avisse
+ *
+ */
+public class StreamingInputReaderTest {
+
+	/**
+	 * Tests reading a room file. Every room should match the rooms read by InputReader.
+	 * @throws FileNotFoundException if the file could not be loaded
+	 */
+	@Test
+	public void testReadRoomFile() throws FileNotFoundException {
+		List<RoomRecord> expected = InputReader.readRoomFile("input/Input-rooms-1.txt");
+		List<RoomRecord> actual = new SinglyLinkedList<RoomRecord>();
+		StreamingInputReader.readRoomFile("input/Input-rooms-1.txt", room -> actual.addLast(room));
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getRoomID(), actual.get(i).getRoomID());
+			assertEquals(expected.get(i).getLength(), actual.get(i).getLength());
+			assertEquals(expected.get(i).getWidth(), actual.get(i).getWidth());
+		}
+	}
+
+	/**
+	 * Tests reading a cleaning log file. Every entry should match the entries read by InputReader.
+	 * @throws FileNotFoundException if the file could not be loaded
+	 */
+	@Test
+	public void testReadLogFile() throws FileNotFoundException {
+		List<CleaningLogEntry> expected = InputReader.readLogFile("input/Input-cleaned-rooms-1.txt");
+		List<CleaningLogEntry> actual = new SinglyLinkedList<CleaningLogEntry>();
+		StreamingInputReader.readLogFile("input/Input-cleaned-rooms-1.txt", log -> actual.addLast(log));
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i), actual.get(i));
+		}
+		CleaningLogEntry first = actual.get(0);
+		assertEquals(LocalDateTime.of(2022, 4, 20, 5, 30, 59), first.getTimestamp());
+		assertEquals("Office", first.getRoomID());
+		assertEquals(58, first.getPercentCompleted());
+	}
+
+	/**
+	 * Tests reading empty files and files that do not exist
+	 * @throws FileNotFoundException if the file could not be loaded
+	 */
+	@Test
+	public void testEmptyAndMissingFiles() throws FileNotFoundException {
+		StreamingInputReader.readLogFile("input/empty-logs.txt", log -> fail());
+		StreamingInputReader.readRoomFile("input/empty-rooms.txt", room -> fail());
+		try {
+			StreamingInputReader.readLogFile("input/missing-file.csv", log -> fail());
+			fail();
+		} catch (FileNotFoundException e) {
+			assertNotNull(e);
+		}
+	}
+
+	/**
+	 * Tests that malformed rooms are rejected
+	 * @throws FileNotFoundException if the file could not be loaded
+	 */
+	@Test(expected = InputMismatchException.class)
+	public void testInvalidRoomFile() throws FileNotFoundException {
+		StreamingInputReader.readRoomFile("input/Invalid-rooms.txt.txt", room -> fail());
+	}
+
+	/**
+	 * Tests that malformed cleaning log entries are rejected
+	 * @throws FileNotFoundException if the file could not be loaded
+	 */
+	@Test(expected = DateTimeParseException.class)
+	public void testInvalidLogFile() throws FileNotFoundException {
+		StreamingInputReader.readLogFile("input/Invalid-cleaned-rooms.txt.txt", log -> fail());
+	}
+}
@@ -0,0 +1,162 @@
+package edu.ncsu.csc316.cleaning.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc316.cleaning.data.CleaningLogEntry;
+import edu.ncsu.csc316.cleaning.io.InputReader;
+import edu.ncsu.csc316.dsa.list.List;
+
+/**
+ * The test class for the CleaningEventStore. Tests to see if the store keeps every
+ * cleaning event as primitives and gives back the same cleaning log entries.
+ * @author Daniel Avisse
+ *
+ */
+public class CleaningEventStoreTest {
+
+	/** The CleaningEventStore we will use to test */
+	private CleaningEventStore store;
+
+	/** The cleaning log entries that were added to the store */
+	private List<CleaningLogEntry> logs;
+
+	/**
+	 * Sets up the store by loading in the files before each test
+	 * @throws FileNotFoundException if the files could not be loaded
+	 */
+	@Before
+	public void setup() throws FileNotFoundException {
+		store = new CleaningEventStore(InputReader.readRoomFile("input/Input-rooms-1.txt"));
+		logs = InputReader.readLogFile("input/Input-cleaned-rooms-1.txt");
+		for (CleaningLogEntry log : logs) {
+			assertTrue(store.add(log));
+		}
+	}
+
+	/**
+	 * Tests adding events and reading their columns back
+	 */
+	@Test
+	public void testAdd() {
+		assertEquals(16, store.size());
+		assertEquals(10, store.getRooms().size());
+		for (int i = 0; i < logs.size(); i++) {
+			assertEquals(logs.get(i), store.getEntry(i));
+		}
+		assertEquals("Office", store.getRooms().getRoomID(store.getRoom(0)));
+		assertEquals(58, store.getPercentCleaned(0));
+		assertEquals(232, store.getCoverage(0));
+		assertEquals(LocalDateTime.of(2022, 4, 20, 5, 30, 59).toEpochSecond(ZoneOffset.UTC), store.getTimestamp(0));
+
+		//Events for rooms that do not exist are not stored
+		assertFalse(store.add(0, "Basement", 50));
+		assertEquals(16, store.size());
+		//Any percent cleaned is kept, the same as in a CleaningLogEntry
+		assertTrue(store.add(0, "Office", 200));
+		assertEquals(17, store.size());
+		assertEquals(200, store.getPercentCleaned(16));
+	}
+
+	/**
+	 * Tests sorting the events by time in both directions
+	 * @throws FileNotFoundException if the files could not be loaded
+	 */
+	@Test
+	public void testSortByTimestamp() throws FileNotFoundException {
+		int[] ascending = store.sortByTimestamp(false);
+		int[] descending = store.sortByTimestamp(true);
+		assertEquals(store.size(), ascending.length);
+		for (int i = 1; i < ascending.length; i++) {
+			assertTrue(store.getTimestamp(ascending[i - 1]) <= store.getTimestamp(ascending[i]));
+			assertTrue(store.getTimestamp(descending[i - 1]) >= store.getTimestamp(descending[i]));
+		}
+		assertEquals(0, new CleaningEventStore(InputReader.readRoomFile("input/empty-rooms.txt")).sortByTimestamp(true).length);
+	}
+
+	/**
+	 * Tests counting the cleanings of each room
+	 */
+	@Test
+	public void testCounts() {
+		int[] counts = store.getAggregates().getCounts();
+		assertEquals(10, counts.length);
+		int total = 0;
+		for (int i = 0; i < store.size(); i++) {
+			assertEquals(logs.get(i).getRoomID(), store.getRooms().getRoomID(store.getRoom(i)));
+		}
+		for (int i = 0; i < counts.length; i++) {
+			total += counts[i];
+		}
+		assertEquals(16, total);
+		assertEquals(0, counts[store.getRooms().getOrdinal("Attic")]);
+	}
+
+	/**
+	 * Tests that the store grows past its starting capacity and estimates its size
+	 */
+	@Test
+	public void testFootprint() {
+		for (int i = 0; i < 1000; i++) {
+			store.add(i, "Gym", i % 100);
+		}
+		assertEquals(1016, store.size());
+		assertEquals(999, store.getTimestamp(1015));
+		assertEquals(99, store.getPercentCleaned(1015));
+		assertEquals(1024 * (8 + 4 + 4), store.getFootprintBytes());
+	}
+
+	/**
+	 * Tests that a percent cleaned above 100 or below 0 is kept in every load mode,
+	 * the same as the list of CleaningLogEntry objects keeps it
+	 * @throws IOException if the log file could not be written or loaded
+	 */
+	@Test
+	public void testPercentOutOfRange() throws IOException {
+		store.add(0, 0, 300);
+		store.add(0, 0, -200);
+		assertEquals(300, store.getPercentCleaned(logs.size()));
+		assertEquals(-200, store.getPercentCleaned(logs.size() + 1));
+
+		Path log = Files.createTempFile("cleaned-rooms", ".txt");
+		Files.write(log, Arrays.asList("TIMESTAMP,ROOM_ID,PERCENT_CLEANED", "04/20/2022 05:30:59,Office,58",
+				"04/21/2022 05:30:59,Office,300", "04/22/2022 05:30:59,Gym,-200"), StandardCharsets.UTF_8);
+		String[] expected = entries(new CleaningManager("input/Input-rooms-1.txt", log.toString(),
+				CleaningManager.LoadMode.LIST).getEventStore());
+		assertEquals(3, expected.length);
+		for (CleaningManager.LoadMode mode : CleaningManager.LoadMode.values()) {
+			CleaningManager manager = new CleaningManager("input/Input-rooms-1.txt", log.toString(), mode);
+			assertEquals(mode.toString(), Arrays.toString(expected), Arrays.toString(entries(manager.getEventStore())));
+			assertTrue(manager.addEvent(new CleaningLogEntry(LocalDateTime.of(2023, 1, 1, 0, 0), "Office", 200)));
+			assertTrue(manager.ingest(new CleaningLogEntry(LocalDateTime.of(2023, 1, 1, 0, 0), "Office", 200)));
+			assertEquals(1, manager.flushIngested());
+			assertEquals(mode.toString(), 5, manager.getEventStore().size());
+		}
+	}
+
+	/**
+	 * Returns every event in the given store as text, in sorted order, since the load
+	 * modes do not all keep the order of the log file
+	 * @param events the events to list
+	 * @return the sorted text of each event
+	 */
+	private static String[] entries(CleaningEventStore events) {
+		String[] entries = new String[events.size()];
+		for (int i = 0; i < entries.length; i++) {
+			entries[i] = events.getEntry(i).toString();
+		}
+		Arrays.sort(entries);
+		return entries;
+	}
+}
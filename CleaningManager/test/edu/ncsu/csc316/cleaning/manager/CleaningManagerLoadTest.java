@@ -0,0 +1,339 @@
+package edu.ncsu.csc316.cleaning.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc316.cleaning.data.CleaningLogEntry;
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.dsa.map.Map;
+
+/**
+ * The test class for the ways the CleaningManager loads files and adds cleaning log
+ * entries afterwards. Only the input files in the repository are used, and every load
+ * is compared against loading the same files into lists.
+ * @author Daniel Avisse
+ *
+ */
+public class CleaningManagerLoadTest {
+
+	/** A CleaningManager that loads the files into lists, to compare the other loads against */
+	private CleaningManager manager;
+
+	/** The location of a list of RoomRecords */
+	private String rooms = "input/Input-rooms-1.txt";
+
+	/** The location of a list of CleaningLogEntries */
+	private String logs = "input/Input-cleaned-rooms-1.txt";
+
+	/** The location of a list of RoomRecords with a single room */
+	private String boundaryRooms = "input/Input-boundary-rooms-1.txt";
+
+	/** The location of a list of CleaningLogEntries for the single room */
+	private String boundaryLogs = "input/Input-boundary-cleaned-rooms-1.txt";
+
+	/**
+	 * Sets up the manager by loading in the files before each test
+	 * @throws FileNotFoundException if the files could not be loaded
+	 */
+	@Before
+	public void setup() throws FileNotFoundException {
+		manager = new CleaningManager(rooms, logs);
+	}
+
+	/**
+	 * Tests loading the files in streaming mode. The map of rooms and the coverage should be
+	 * the same as loading the files into lists first.
+	 * @throws FileNotFoundException if the files could not be loaded
+	 */
+	@Test
+	public void testStreamingLoad() throws FileNotFoundException {
+		CleaningManager streamed = new CleaningManager(rooms, logs, CleaningManager.LoadMode.STREAMING);
+		Map<String, List<CleaningLogEntry>> expected = manager.getEventsByRoom();
+		Map<String, List<CleaningLogEntry>> actual = streamed.getEventsByRoom();
+		assertEquals(expected.size(), actual.size());
+		for (Map.Entry<String, List<CleaningLogEntry>> entry : expected.entrySet()) {
+			List<CleaningLogEntry> streamedLogs = actual.get(entry.getKey());
+			assertEquals(entry.getValue().size(), streamedLogs.size());
+			for (int i = 0; i < streamedLogs.size(); i++) {
+				assertEquals(entry.getValue().get(i), streamedLogs.get(i));
+			}
+		}
+		
+		assertEquals(5186, streamed.getCoverageSince(LocalDateTime.of(2021, 07, 12, 05, 29)));
+		assertEquals(4265, streamed.getCoverageSince(LocalDateTime.of(2022, 10, 25, 10, 00)));
+		assertEquals(0, streamed.getCoverageSince(LocalDateTime.of(2024, 02, 21, 11, 21)));
+	}
+
+	/**
+	 * Tests loading the files in parallel. Every room should have the same cleaning log entries,
+	 * in the same order, as loading the files on a single thread.
+	 * @throws FileNotFoundException if the files could not be loaded
+	 */
+	@Test
+	public void testParallelLoad() throws FileNotFoundException {
+		String[][] files = {{rooms, logs}, {boundaryRooms, boundaryLogs},
+				{"input/experimentFiles/rooms_12.csv", "input/experimentFiles/cleaningEvents_12.csv"}};
+		for (String[] pair : files) {
+			Map<String, List<CleaningLogEntry>> expected = new CleaningManager(pair[0], pair[1]).getEventsByRoom();
+			Map<String, List<CleaningLogEntry>> actual =
+					new CleaningManager(pair[0], pair[1], CleaningManager.LoadMode.PARALLEL).getEventsByRoom();
+			assertEquals(expected.size(), actual.size());
+			for (Map.Entry<String, List<CleaningLogEntry>> entry : expected.entrySet()) {
+				List<CleaningLogEntry> parallelLogs = actual.get(entry.getKey());
+				assertEquals(entry.getValue().size(), parallelLogs.size());
+				Iterator<CleaningLogEntry> it = parallelLogs.iterator();
+				for (CleaningLogEntry log : entry.getValue()) {
+					assertEquals(log, it.next());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Tests that a chunk that cannot be read while the file is loaded in parallel is thrown
+	 * as a FileNotFoundException, like every other load mode, instead of leaving the pool
+	 * as an UncheckedIOException
+	 */
+	@Test
+	public void testParallelLoadUnreadable() {
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			ParallelLogLoader.invoke(pool, new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					throw new UncheckedIOException(new FileNotFoundException("missing.txt"));
+				}
+			});
+			fail();
+		} catch (FileNotFoundException e) {
+			assertEquals("missing.txt", e.getMessage());
+		} finally {
+			pool.shutdown();
+		}
+		try {
+			new CleaningManager(rooms, "input/missing-logs.txt", CleaningManager.LoadMode.PARALLEL);
+			fail();
+		} catch (FileNotFoundException e) {
+			//The file is checked before any chunk is read
+		}
+	}
+
+	/**
+	 * Tests loading the files into a columnar event store. The map of rooms and the coverage
+	 * should match loading the files into lists.
+	 * @throws FileNotFoundException if the files could not be loaded
+	 */
+	@Test
+	public void testColumnarLoad() throws FileNotFoundException {
+		CleaningManager columnar = new CleaningManager(rooms, logs, CleaningManager.LoadMode.COLUMNAR);
+		assertEquals(16, columnar.getEventStore().size());
+		Map<String, List<CleaningLogEntry>> expected = manager.getEventsByRoom();
+		Map<String, List<CleaningLogEntry>> actual = columnar.getEventsByRoom();
+		assertEquals(expected.size(), actual.size());
+		for (Map.Entry<String, List<CleaningLogEntry>> entry : expected.entrySet()) {
+			List<CleaningLogEntry> columnarLogs = actual.get(entry.getKey());
+			assertEquals(entry.getValue().size(), columnarLogs.size());
+			for (int i = 0; i < columnarLogs.size(); i++) {
+				assertEquals(entry.getValue().get(i), columnarLogs.get(i));
+			}
+		}
+		assertEquals(5186, columnar.getCoverageSince(LocalDateTime.of(2021, 07, 12, 05, 29)));
+		assertEquals(4265, columnar.getCoverageSince(LocalDateTime.of(2022, 10, 25, 10, 00)));
+		//A store built from the lists holds the same events
+		assertEquals(16, manager.getEventStore().size());
+	}
+
+	/**
+	 * Tests that a line which is only part way written when the log is read is added once,
+	 * with its full value, after it is finished
+	 * @throws IOException if the temporary file could not be written
+	 */
+	@Test
+	public void testAppendPartialLine() throws IOException {
+		for (CleaningManager.LoadMode mode : CleaningManager.LoadMode.values()) {
+			File file = File.createTempFile("partial-logs", ".csv");
+			file.deleteOnExit();
+			Files.copy(new File(logs).toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			Files.write(file.toPath(), "\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+			CleaningManager appended = new CleaningManager(rooms, file.getPath(), mode);
+			int loaded = appended.getEventStore().size();
+
+			//The percent is cut off, and then the timestamp of the next line
+			Files.write(file.toPath(), "05/01/2023 08:00:00,Office,5".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+			assertEquals(0, appended.appendLogTail());
+			Files.write(file.toPath(), "0\n05/02/20".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+			assertEquals(1, appended.appendLogTail());
+			assertEquals(0, appended.appendLogTail());
+			Files.write(file.toPath(), "23 08:00:00,Gym,100\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+			assertEquals(1, appended.appendLogTail());
+
+			CleaningEventStore store = appended.getEventStore();
+			assertEquals(loaded + 2, store.size());
+			assertEquals(50, store.getPercentCleaned(loaded));
+			assertEquals(LocalDateTime.of(2023, 5, 2, 8, 0).toEpochSecond(ZoneOffset.UTC), store.getTimestamp(loaded + 1));
+			assertEquals(new CleaningManager(rooms, file.getPath()).getCoverageSince(LocalDateTime.of(2020, 1, 1, 0, 0)),
+					appended.getCoverageSince(LocalDateTime.of(2020, 1, 1, 0, 0)));
+		}
+	}
+
+	/**
+	 * Tests adding new cleaning log entries after loading, in every load mode. Every structure
+	 * that was already built should match loading the longer log file from scratch.
+	 * @throws IOException if the temporary file could not be written
+	 */
+	@Test
+	public void testAppend() throws IOException {
+		for (CleaningManager.LoadMode mode : CleaningManager.LoadMode.values()) {
+			File file = File.createTempFile("append-logs", ".csv");
+			file.deleteOnExit();
+			Files.copy(new File(logs).toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			CleaningManager appended = new CleaningManager(rooms, file.getPath(), mode);
+			//Build every index before the new entries arrive
+			appended.getEventsByRoom();
+			appended.getRoomEventIndex();
+			assertEquals(5186, appended.getCoverageSince(LocalDateTime.of(2021, 07, 12, 05, 29)));
+
+			//The original file has no final line terminator
+			Files.write(file.toPath(), ("\n05/01/2023 08:00:00,Gym,10\n01/01/2021 08:00:00,Office,50\n"
+					+ "05/01/2023 09:00:00,Basement,10\n").getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+			assertEquals(2, appended.appendLogTail());
+			assertEquals(0, appended.appendLogTail());
+			assertTrue(appended.addEvent(new CleaningLogEntry(LocalDateTime.of(2024, 1, 1, 0, 0), "Attic", 20)));
+			assertFalse(appended.addEvent(new CleaningLogEntry(LocalDateTime.of(2024, 1, 1, 0, 0), "Basement", 20)));
+			Files.write(file.toPath(), "01/01/2024 00:00:00,Attic,20\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+			CleaningManager reloaded = new CleaningManager(rooms, file.getPath());
+			assertEquals(reloaded.getCoverageSince(LocalDateTime.of(2020, 1, 1, 0, 0)), appended.getCoverageSince(LocalDateTime.of(2020, 1, 1, 0, 0)));
+			assertEquals(reloaded.getCoverageSince(LocalDateTime.of(2023, 1, 1, 0, 0)), appended.getCoverageSince(LocalDateTime.of(2023, 1, 1, 0, 0)));
+			assertEquals(5186 + 250 + 200 + 102, appended.getCoverageSince(LocalDateTime.of(2020, 1, 1, 0, 0)));
+			Map<String, List<CleaningLogEntry>> expected = reloaded.getEventsByRoom();
+			Map<String, List<CleaningLogEntry>> actual = appended.getEventsByRoom();
+			for (Map.Entry<String, List<CleaningLogEntry>> entry : expected.entrySet()) {
+				List<CleaningLogEntry> appendedLogs = actual.get(entry.getKey());
+				assertEquals(entry.getValue().size(), appendedLogs.size());
+				for (int i = 0; i < appendedLogs.size(); i++) {
+					assertEquals(entry.getValue().get(i), appendedLogs.get(i));
+				}
+			}
+			RoomEventIndex roomEvents = appended.getRoomEventIndex();
+			RoomEventIndex reloadedEvents = reloaded.getRoomEventIndex();
+			RoomDictionary dictionary = appended.getEventStore().getRooms();
+			for (int room = 0; room < dictionary.size(); room++) {
+				assertEquals(reloadedEvents.getEventCount(room), roomEvents.getEventCount(room));
+				for (int i = 0; i < roomEvents.getEventCount(room); i++) {
+					assertEquals(reloadedEvents.getTimestamp(room, i), roomEvents.getTimestamp(room, i));
+				}
+			}
+			assertEquals(3, appended.getRoomAggregates().getCount(dictionary.getOrdinal("Gym")));
+		}
+	}
+
+	/**
+	 * Tests that the indexes are only built when they are first needed, and that every
+	 * thread that asks for one at the same time gets the same index
+	 * @throws Exception if the files could not be loaded or a thread failed
+	 */
+	@Test
+	public void testLazyIndexes() throws Exception {
+		CleaningManager columnar = new CleaningManager("input/experimentFiles/rooms_12.csv",
+				"input/experimentFiles/cleaningEvents_12.csv", CleaningManager.LoadMode.COLUMNAR);
+		LocalDateTime since = LocalDateTime.of(2015, 1, 1, 0, 0);
+		int expectedCoverage = new CleaningManager("input/experimentFiles/rooms_12.csv",
+				"input/experimentFiles/cleaningEvents_12.csv").getCoverageSince(since);
+
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			java.util.List<Future<RoomEventIndex>> indexes = new ArrayList<Future<RoomEventIndex>>();
+			java.util.List<Future<Integer>> coverages = new ArrayList<Future<Integer>>();
+			for (int i = 0; i < 8; i++) {
+				indexes.add(pool.submit(() -> {
+					start.await();
+					return columnar.getRoomEventIndex();
+				}));
+				coverages.add(pool.submit(() -> {
+					start.await();
+					return columnar.getCoverageSince(since);
+				}));
+			}
+			start.countDown();
+			RoomEventIndex first = indexes.get(0).get();
+			for (Future<RoomEventIndex> index : indexes) {
+				assertSame(first, index.get());
+			}
+			for (Future<Integer> coverage : coverages) {
+				assertEquals(expectedCoverage, (int) coverage.get());
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Tests ingesting cleaning log entries from many threads at once. Every entry should be
+	 * added once it is flushed, and every report in between should see a whole view.
+	 * @throws Exception if the files could not be loaded or a thread failed
+	 */
+	@Test
+	public void testIngest() throws Exception {
+		CleaningManager ingested = new CleaningManager(rooms, logs, CleaningManager.LoadMode.COLUMNAR);
+		String[] roomIDs = ingested.getView().getRooms().getRoomIDs();
+		int before = ingested.getCoverageSince(LocalDateTime.of(2000, 1, 1, 0, 0));
+		assertFalse(ingested.ingest(new CleaningLogEntry(LocalDateTime.of(2024, 1, 1, 0, 0), "Basement", 20)));
+
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			java.util.List<Future<?>> producers = new ArrayList<Future<?>>();
+			for (int i = 0; i < 8; i++) {
+				int producer = i;
+				producers.add(pool.submit(() -> {
+					start.await();
+					for (int j = 0; j < 2000; j++) {
+						String roomID = roomIDs[(producer + j) % roomIDs.length];
+						assertTrue(ingested.ingest(new CleaningLogEntry(LocalDateTime.of(2024, 1, 1, 0, 0).plusSeconds(j), roomID, 0)));
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> producer : producers) {
+				producer.get();
+			}
+		} finally {
+			pool.shutdown();
+		}
+		ingested.flushIngested();
+		assertEquals(0, ingested.flushIngested());
+		CleaningView view = ingested.getView();
+		assertEquals(16 + 16000, view.getEventStore().size());
+		assertEquals(16 + 16000, view.getCoverageIndex().size());
+		//Every entry cleaned none of its room, so the coverage is the same
+		assertEquals(before, view.getCoverageSince(LocalDateTime.of(2000, 1, 1, 0, 0)));
+		assertEquals(view.getAggregates().getCount(view.getRooms().getOrdinal("Gym")),
+				ingested.getEventsByRoom().get("Gym").size());
+	}
+}
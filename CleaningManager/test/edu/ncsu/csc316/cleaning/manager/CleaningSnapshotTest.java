@@ -0,0 +1,162 @@
+package edu.ncsu.csc316.cleaning.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The test class for the CleaningSnapshot. Tests to see if a snapshot gives the same
+ * reports as parsing the files, and that a snapshot that is out of date or damaged
+ * is never used.
+ * @author Daniel Avisse
+ *
+ */
+public class CleaningSnapshotTest {
+
+	/** The directory that holds copies of the files for each test */
+	private Path directory;
+
+	/** The copy of the room file */
+	private String rooms;
+
+	/** The copy of the cleaning log file */
+	private String logs;
+
+	/** The path of the snapshot */
+	private String snapshot;
+
+	/**
+	 * Copies the experiment files into a temporary directory before each test
+	 * @throws IOException if the files could not be copied
+	 */
+	@Before
+	public void setup() throws IOException {
+		directory = Files.createTempDirectory("snapshot");
+		rooms = directory.resolve("rooms.csv").toString();
+		logs = directory.resolve("logs.csv").toString();
+		snapshot = directory.resolve("cleaning.snapshot").toString();
+		Files.copy(Paths.get("input/experimentFiles/rooms_12.csv"), Paths.get(rooms));
+		Files.copy(Paths.get("input/experimentFiles/cleaningEvents_12.csv"), Paths.get(logs));
+	}
+
+	/**
+	 * Deletes the temporary directory after each test
+	 * @throws IOException if the files could not be deleted
+	 */
+	@After
+	public void tearDown() throws IOException {
+		for (Path file : Files.newDirectoryStream(directory)) {
+			Files.delete(file);
+		}
+		Files.delete(directory);
+	}
+
+	/**
+	 * Asserts that a ReportManager loaded from the snapshot gives the same reports as one loaded from the files
+	 * @throws IOException if the files could not be loaded
+	 */
+	private void assertSameReports() throws IOException {
+		ReportManager expected = new ReportManager(rooms, logs);
+		ReportManager actual = new ReportManager(rooms, logs, snapshot);
+		assertEquals(expected.getRoomReport(), actual.getRoomReport());
+		assertEquals(expected.getFrequencyReport(25), actual.getFrequencyReport(25));
+		for (String date : new String[] {"01/01/2000 00:00:00", "06/15/2015 12:00:00", "01/01/2030 00:00:00"}) {
+			assertEquals(expected.getVacuumBagReport(date), actual.getVacuumBagReport(date));
+		}
+	}
+
+	/**
+	 * Tests that the first load writes a snapshot and the next load reads it
+	 * @throws IOException if the files could not be loaded
+	 */
+	@Test
+	public void testRoundTrip() throws IOException {
+		assertNull(CleaningSnapshot.read(snapshot, rooms, logs));
+		new CleaningManager(rooms, logs, snapshot);
+		CleaningSnapshot read = CleaningSnapshot.read(snapshot, rooms, logs);
+		assertNotNull(read);
+		assertEquals(new CleaningManager(rooms, logs, CleaningManager.LoadMode.COLUMNAR).getEventStore().size(),
+				read.getEventStore().size());
+		assertEquals(Files.size(Paths.get(logs)), read.getLogPosition());
+		assertSameReports();
+	}
+
+	/**
+	 * Tests that lines added to the end of the cleaning log are read on top of the snapshot
+	 * @throws IOException if the files could not be loaded or written
+	 */
+	@Test
+	public void testAppendedLog() throws IOException {
+		new CleaningManager(rooms, logs, snapshot);
+		String roomID = new RoomDictionary(edu.ncsu.csc316.cleaning.io.InputReader.readRoomFile(rooms)).getRoomID(0);
+		Files.write(Paths.get(logs), ("01/02/2023 10:00:00," + roomID + ",50\n").getBytes(StandardCharsets.UTF_8),
+				StandardOpenOption.APPEND);
+		assertNotNull(CleaningSnapshot.read(snapshot, rooms, logs));
+		assertSameReports();
+	}
+
+	/**
+	 * Tests that a snapshot of a room file that has changed is not used, and is written again
+	 * @throws IOException if the files could not be loaded or written
+	 */
+	@Test
+	public void testStaleRoomFile() throws IOException {
+		new CleaningManager(rooms, logs, snapshot);
+		Files.write(Paths.get(rooms), "Brand New Room,10,10\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		assertNull(CleaningSnapshot.read(snapshot, rooms, logs));
+		assertSameReports();
+		assertNotNull(CleaningSnapshot.read(snapshot, rooms, logs));
+	}
+
+	/**
+	 * Tests that a snapshot is not used once the start of the cleaning log has changed
+	 * @throws IOException if the files could not be loaded or written
+	 */
+	@Test
+	public void testRewrittenLog() throws IOException {
+		new CleaningManager(rooms, logs, snapshot);
+		try (RandomAccessFile file = new RandomAccessFile(logs, "rw")) {
+			file.seek(file.length() - 3);
+			file.write('9');
+		}
+		assertNull(CleaningSnapshot.read(snapshot, rooms, logs));
+	}
+
+	/**
+	 * Tests that a damaged snapshot is not used
+	 * @throws IOException if the files could not be loaded or written
+	 */
+	@Test
+	public void testDamagedSnapshot() throws IOException {
+		new CleaningManager(rooms, logs, snapshot);
+		try (RandomAccessFile file = new RandomAccessFile(snapshot, "rw")) {
+			file.seek(file.length() / 2);
+			int b = file.read();
+			file.seek(file.length() / 2);
+			file.write(b ^ 0xFF);
+		}
+		assertNull(CleaningSnapshot.read(snapshot, rooms, logs));
+
+		//A snapshot from another version is not used either
+		new CleaningManager(rooms, logs, snapshot);
+		try (RandomAccessFile file = new RandomAccessFile(snapshot, "rw")) {
+			file.seek(4);
+			file.writeInt(99);
+		}
+		assertNull(CleaningSnapshot.read(snapshot, rooms, logs));
+
+		Files.write(Paths.get(snapshot), new byte[] {1, 2, 3});
+		assertNull(CleaningSnapshot.read(snapshot, rooms, logs));
+		assertSameReports();
+	}
+}
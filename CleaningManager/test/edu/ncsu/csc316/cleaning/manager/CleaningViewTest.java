@@ -0,0 +1,139 @@
+package edu.ncsu.csc316.cleaning.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.FileNotFoundException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc316.cleaning.data.CleaningLogEntry;
+
+/**
+ * The test class for the CleaningView. Tests to see if a view never changes after it is
+ * published, and that reports can run on many threads while events are being added.
+ * @author Daniel Avisse
+ *
+ */
+public class CleaningViewTest {
+
+	/** The CleaningManager we will use to test */
+	private CleaningManager manager;
+
+	/** A time before every event in the files */
+	private static final LocalDateTime BEGINNING = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+	/**
+	 * Sets up the manager by loading in the files before each test
+	 * @throws FileNotFoundException if the files could not be loaded
+	 */
+	@Before
+	public void setup() throws FileNotFoundException {
+		manager = new CleaningManager("input/Input-rooms-1.txt", "input/Input-cleaned-rooms-1.txt",
+				CleaningManager.LoadMode.COLUMNAR);
+	}
+
+	/**
+	 * Tests that adding events publishes a new view and leaves the old one as it was
+	 */
+	@Test
+	public void testViewDoesNotChange() {
+		CleaningView before = manager.getView();
+		assertSame(before, manager.getView());
+		int gym = before.getRooms().getOrdinal("Gym");
+		int size = before.getEventStore().size();
+		int coverage = before.getCoverageSince(BEGINNING);
+		int gymEvents = before.getRoomEventIndex().getEventCount(gym);
+		long latestGym = before.getRoomEventIndex().getTimestamp(gym, 0);
+		long oldestGym = before.getRoomEventIndex().getTimestamp(gym, gymEvents - 1);
+
+		//One event after every other and one before every other, which has to move the rest
+		assertTrue(manager.addEvent(new CleaningLogEntry(LocalDateTime.of(2030, 1, 1, 0, 0), "Gym", 10)));
+		assertTrue(manager.addEvent(new CleaningLogEntry(LocalDateTime.of(2001, 1, 1, 0, 0), "Gym", 20)));
+
+		assertEquals(size, before.getEventStore().size());
+		assertEquals(coverage, before.getCoverageSince(BEGINNING));
+		assertEquals(gymEvents, before.getRoomEventIndex().getEventCount(gym));
+		assertEquals(gymEvents, before.getAggregates().getCount(gym));
+		assertEquals(latestGym, before.getRoomEventIndex().getTimestamp(gym, 0));
+		assertEquals(oldestGym, before.getRoomEventIndex().getTimestamp(gym, gymEvents - 1));
+
+		CleaningView after = manager.getView();
+		assertNotSame(before, after);
+		assertTrue(after.getVersion() > before.getVersion());
+		assertEquals(size + 2, after.getEventStore().size());
+		assertEquals(coverage + 250 + 500, after.getCoverageSince(BEGINNING));
+		assertEquals(gymEvents + 2, after.getRoomEventIndex().getEventCount(gym));
+		assertEquals(LocalDateTime.of(2001, 1, 1, 0, 0), after.getAggregates().getFirstCleaned(gym));
+		//The indexes the first view built are kept up to date instead of being built again
+		assertSame(after.getRoomEventIndex(), manager.getRoomEventIndex());
+
+		try {
+			after.getEventStore().add(0, gym, 10);
+			fail("A published view cannot be changed");
+		} catch (UnsupportedOperationException e) {
+			assertEquals(size + 2, after.getEventStore().size());
+		}
+	}
+
+	/**
+	 * Tests running reports on many threads while events are added. Every view that a
+	 * reader gets should hold the same events in its store and in both of its indexes.
+	 * @throws Exception if a thread failed
+	 */
+	@Test
+	public void testConcurrentReads() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(5);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			java.util.List<Future<Integer>> readers = new ArrayList<Future<Integer>>();
+			for (int i = 0; i < 4; i++) {
+				readers.add(pool.submit(() -> {
+					start.await();
+					int reads = 0;
+					while (reads < 200 || manager.getView().getEventStore().size() < 516) {
+						CleaningView view = manager.getView();
+						RoomAggregates aggregates = view.getAggregates();
+						long squareFeet = 0;
+						int events = 0;
+						for (int room = 0; room < aggregates.size(); room++) {
+							squareFeet += aggregates.getSquareFeetCleaned(room);
+							events += view.getRoomEventIndex().getEventCount(room);
+						}
+						assertEquals(view.getEventStore().size(), events);
+						assertEquals(view.getEventStore().size(), view.getCoverageIndex().size());
+						assertEquals(squareFeet, view.getCoverageSince(BEGINNING));
+						reads++;
+					}
+					return reads;
+				}));
+			}
+			Future<?> writer = pool.submit(() -> {
+				start.await();
+				for (int i = 0; i < 500; i++) {
+					//Every other event is older than the rest so the indexes have to insert it
+					int year = i % 2 == 0 ? 2030 : 2001;
+					manager.addEvent(new CleaningLogEntry(LocalDateTime.of(year, 1, 1, 0, 0).plusMinutes(i), "Office", 50));
+				}
+				return null;
+			});
+			start.countDown();
+			writer.get();
+			for (Future<Integer> reader : readers) {
+				assertTrue(reader.get() >= 200);
+			}
+		} finally {
+			pool.shutdown();
+		}
+		CleaningView last = manager.getView();
+		int office = last.getRooms().getOrdinal("Office");
+		assertEquals(516, last.getEventStore().size());
+		assertEquals(last.getAggregates().getCount(office), last.getRoomEventIndex().getEventCount(office));
+	}
+}
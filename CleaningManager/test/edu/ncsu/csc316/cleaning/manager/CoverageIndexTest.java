@@ -0,0 +1,201 @@
+package edu.ncsu.csc316.cleaning.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.FileNotFoundException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc316.cleaning.data.CleaningLogEntry;
+import edu.ncsu.csc316.cleaning.io.InputReader;
+
+/**
+ * The test class for the CoverageIndex. Tests to see if the index returns the same
+ * square footage as scanning every cleaning log entry.
+ * @author Daniel Avisse
+ *
+ */
+public class CoverageIndexTest {
+
+	/** The CoverageIndex we will use to test */
+	private CoverageIndex index;
+
+	/** Another CoverageIndex where both entries clean the same room */
+	private CoverageIndex index2;
+
+	/**
+	 * Sets up the indexes by loading in the files before each test
+	 * @throws FileNotFoundException if the files could not be loaded
+	 */
+	@Before
+	public void setup() throws FileNotFoundException {
+		index = load("input/Input-rooms-1.txt", "input/Input-cleaned-rooms-1.txt");
+		index2 = load("input/Input-boundary-rooms-1.txt", "input/Input-boundary-cleaned-rooms-1.txt");
+	}
+
+	/**
+	 * Tests the getCoverageSince method. The results should match scanning the whole log.
+	 */
+	@Test
+	public void testGetCoverageSince() {
+		assertEquals(16, index.size());
+		//A date that occurred before all the CleaningLogs
+		assertEquals(5186, index.getCoverageSince(LocalDateTime.of(2021, 07, 12, 05, 29)));
+		//A date that occurred after all the CleaningLogs
+		assertEquals(0, index.getCoverageSince(LocalDateTime.of(2024, 02, 21, 11, 21)));
+		assertEquals(4265, index.getCoverageSince(LocalDateTime.of(2022, 10, 25, 10, 00)));
+		assertEquals(4853, index.getCoverageSince(LocalDateTime.of(2022, 06, 18, 19, 59)));
+		assertEquals(815, index.getCoverageSince(LocalDateTime.of(2022, 10, 30, 8, 29)));
+	}
+
+	/**
+	 * Tests that cleaning events happening exactly at the provided time are not counted
+	 */
+	@Test
+	public void testGetCoverageSinceBoundary() {
+		assertEquals(5280, index2.getCoverageSince(LocalDateTime.of(2021, 12, 31, 23, 59, 59)));
+		assertEquals(2640, index2.getCoverageSince(LocalDateTime.of(2022, 1, 1, 0, 0, 0)));
+		assertEquals(2640, index2.getCoverageSince(LocalDateTime.of(2022, 12, 31, 23, 59, 58)));
+		assertEquals(0, index2.getCoverageSince(LocalDateTime.of(2022, 12, 31, 23, 59, 59)));
+		//A time part way through the second that the last event happened in
+		assertEquals(0, index2.getCoverageSince(LocalDateTime.of(2022, 12, 31, 23, 59, 59, 500)));
+		assertEquals(2640, index2.getCoverageSince(LocalDateTime.of(2022, 12, 31, 23, 59, 58, 500)));
+	}
+
+	/**
+	 * Tests adding events after the index is built, both newer and older than the events already in it
+	 * @throws FileNotFoundException if the files could not be loaded
+	 */
+	@Test
+	public void testAdd() throws FileNotFoundException {
+		//The Gym is 50 by 50 feet, so cleaning 10 percent of it covers 250 square feet
+		index.add(LocalDateTime.of(2025, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC), 250);
+		index.add(LocalDateTime.of(2022, 10, 25, 10, 0).toEpochSecond(ZoneOffset.UTC), 100);
+		index.add(LocalDateTime.of(2020, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC), 50);
+		assertEquals(19, index.size());
+		assertEquals(5186 + 250 + 100 + 50, index.getCoverageSince(LocalDateTime.of(2019, 1, 1, 0, 0)));
+		assertEquals(5186 + 250 + 100, index.getCoverageSince(LocalDateTime.of(2021, 07, 12, 05, 29)));
+		//The event exactly at the provided time is not counted
+		assertEquals(4265 + 250, index.getCoverageSince(LocalDateTime.of(2022, 10, 25, 10, 00)));
+		assertEquals(250, index.getCoverageSince(LocalDateTime.of(2024, 02, 21, 11, 21)));
+		assertEquals(0, index.getCoverageSince(LocalDateTime.of(2025, 1, 1, 0, 0)));
+
+		//An empty index can grow
+		CoverageIndex empty = load("input/empty-rooms.txt", "input/empty-logs.txt");
+		for (int i = 0; i < 100; i++) {
+			empty.add(100 - i, 1);
+		}
+		assertEquals(100, empty.size());
+		assertEquals(50, empty.getCoverageSince(LocalDateTime.ofEpochSecond(50, 0, ZoneOffset.UTC)));
+	}
+
+	/**
+	 * Tests answering many times at once. Each answer should match getCoverageSince for
+	 * that time, whatever order the times are given in and even if some repeat.
+	 */
+	@Test
+	public void testGetCoverageSinceBatch() {
+		LocalDateTime[] times = {LocalDateTime.of(2022, 10, 30, 8, 29), LocalDateTime.of(2021, 07, 12, 05, 29),
+				LocalDateTime.of(2024, 02, 21, 11, 21), LocalDateTime.of(2022, 10, 25, 10, 00),
+				LocalDateTime.of(2022, 06, 18, 19, 59), LocalDateTime.of(2022, 10, 25, 10, 00)};
+		long[] epochSeconds = new long[times.length];
+		for (int i = 0; i < times.length; i++) {
+			epochSeconds[i] = times[i].toEpochSecond(ZoneOffset.UTC);
+		}
+		long[] coverage = index.getCoverageSince(epochSeconds);
+		assertEquals(times.length, coverage.length);
+		for (int i = 0; i < times.length; i++) {
+			assertEquals(index.getCoverageSince(times[i]), coverage[i]);
+		}
+		assertEquals(815, coverage[0]);
+		assertEquals(5186, coverage[1]);
+		assertEquals(0, coverage[2]);
+		assertEquals(4265, coverage[5]);
+
+		//Every second around the events at the edges of a second
+		long[] seconds = new long[10];
+		for (int i = 0; i < seconds.length; i++) {
+			seconds[i] = LocalDateTime.of(2022, 12, 31, 23, 59, 50).toEpochSecond(ZoneOffset.UTC) + seconds.length - i;
+		}
+		long[] boundary = index2.getCoverageSince(seconds);
+		for (int i = 0; i < seconds.length; i++) {
+			assertEquals(index2.getCoverageSince(LocalDateTime.ofEpochSecond(seconds[i], 0, ZoneOffset.UTC)), boundary[i]);
+		}
+		assertEquals(0, index.getCoverageSince(new long[0]).length);
+	}
+
+	/**
+	 * Tests the coverage between two times, which includes events at the first time but not at the second
+	 */
+	@Test
+	public void testGetCoverageBetween() {
+		LocalDateTime first = LocalDateTime.of(2022, 1, 1, 0, 0, 0);
+		LocalDateTime last = LocalDateTime.of(2022, 12, 31, 23, 59, 59);
+		assertEquals(2640, index2.getCoverageBetween(first, last));
+		assertEquals(5280, index2.getCoverageBetween(first, last.plusSeconds(1)));
+		assertEquals(0, index2.getCoverageBetween(first.plusSeconds(1), last));
+		assertEquals(0, index2.getCoverageBetween(last, first));
+		//Matches the difference of two queries since a time
+		LocalDateTime from = LocalDateTime.of(2021, 07, 12, 05, 29);
+		LocalDateTime to = LocalDateTime.of(2022, 10, 25, 10, 00);
+		assertEquals(5186 - 4265, index.getCoverageBetween(from.plusSeconds(1), to.plusSeconds(1)));
+	}
+
+	/**
+	 * Tests rolling the coverage up into calendar hours, days and months
+	 */
+	@Test
+	public void testGetCoverageByPeriod() {
+		long[] months = index2.getCoverageByPeriod(LocalDateTime.of(2022, 1, 1, 0, 0), LocalDateTime.of(2023, 1, 1, 0, 0), ChronoUnit.MONTHS);
+		assertEquals(12, months.length);
+		assertEquals(2640, months[0]);
+		assertEquals(0, months[6]);
+		assertEquals(2640, months[11]);
+
+		//The first and last periods are cut off at the ends of the range
+		long[] days = index2.getCoverageByPeriod(LocalDateTime.of(2021, 12, 31, 12, 0), LocalDateTime.of(2022, 1, 1, 0, 30), ChronoUnit.DAYS);
+		assertEquals(2, days.length);
+		assertEquals(0, days[0]);
+		assertEquals(2640, days[1]);
+		long[] hours = index2.getCoverageByPeriod(LocalDateTime.of(2022, 12, 31, 22, 30), LocalDateTime.of(2023, 1, 1, 1, 0), ChronoUnit.HOURS);
+		assertEquals(3, hours.length);
+		assertEquals(2640, hours[1]);
+
+		//Every period adds up to the whole range
+		LocalDateTime from = LocalDateTime.of(2021, 5, 17, 13, 45);
+		LocalDateTime to = LocalDateTime.of(2024, 3, 2, 8, 0);
+		for (ChronoUnit unit : new ChronoUnit[] {ChronoUnit.HOURS, ChronoUnit.DAYS, ChronoUnit.MONTHS}) {
+			long total = 0;
+			for (long coverage : index.getCoverageByPeriod(from, to, unit)) {
+				total += coverage;
+			}
+			assertEquals(index.getCoverageBetween(from, to), total);
+		}
+		assertEquals(0, index.getCoverageByPeriod(to, from, ChronoUnit.DAYS).length);
+		try {
+			index.getCoverageByPeriod(from, to, ChronoUnit.WEEKS);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Coverage can only be rolled up by hours, days or months", e.getMessage());
+		}
+	}
+
+	/**
+	 * Builds a CoverageIndex from the events of a room file and a cleaning log file
+	 * @param roomFile the path of the room file
+	 * @param logFile the path of the cleaning log file
+	 * @return the index of the cleaning log entries
+	 * @throws FileNotFoundException if the files could not be loaded
+	 */
+	private static CoverageIndex load(String roomFile, String logFile) throws FileNotFoundException {
+		CleaningEventStore store = new CleaningEventStore(InputReader.readRoomFile(roomFile));
+		for (CleaningLogEntry log : InputReader.readLogFile(logFile)) {
+			store.add(log);
+		}
+		return new CoverageIndex(store);
+	}
+}
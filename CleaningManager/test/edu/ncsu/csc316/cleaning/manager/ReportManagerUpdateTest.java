@@ -0,0 +1,194 @@
+package edu.ncsu.csc316.cleaning.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc316.cleaning.data.CleaningLogEntry;
+
+/**
+ * The test class for the ReportManager reports that were added after the first three, and
+ * for reports on cleaning log entries that are added after loading. Only the input files in
+ * the repository are used.
+ * @author Daniel Avisse
+ *
+ */
+public class ReportManagerUpdateTest {
+
+	/** The ReportManager we will use to test the different methods */
+	private ReportManager manager;
+
+	/** A ReportManager with a single room */
+	private ReportManager boundaryManager;
+
+	/** A ReportManager with rooms but no cleaning log entries */
+	private ReportManager emptyLogManager;
+
+	/** The location of a list of RoomRecords */
+	private String rooms = "input/Input-rooms-1.txt";
+
+	/** The location of a list of CleaningLogEntries */
+	private String logs = "input/Input-cleaned-rooms-1.txt";
+
+	/** The location of a list of RoomRecords with a single room */
+	private String boundaryRooms = "input/Input-boundary-rooms-1.txt";
+
+	/** The location of a list of CleaningLogEntries for the single room */
+	private String boundaryLogs = "input/Input-boundary-cleaned-rooms-1.txt";
+
+	/** The location of a cleaning log with no entries */
+	private String emptyLogs = "input/empty-logs.txt";
+
+	/**
+	 * Sets up the manager by loading in the files before each test
+	 * @throws FileNotFoundException if the files could not be loaded
+	 */
+	@Before
+	public void setup() throws FileNotFoundException {
+		manager = new ReportManager(rooms, logs);
+		boundaryManager = new ReportManager(boundaryRooms, boundaryLogs);
+		emptyLogManager = new ReportManager(rooms, emptyLogs);
+	}
+
+	/**
+	 * Tests that new cleaning log entries show up in every report without reloading
+	 * @throws IOException if the temporary file could not be written
+	 */
+	@Test
+	public void testAppend() throws IOException {
+		File file = File.createTempFile("append-logs", ".csv");
+		file.deleteOnExit();
+		Files.copy(new File(emptyLogs).toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		ReportManager appended = new ReportManager(rooms, file.getPath());
+		assertEquals("No rooms have been cleaned.", appended.getRoomReport());
+
+		//The header of the empty log has no line terminator
+		Files.write(file.toPath(), ("\n05/01/2023 08:00:00,Gym,10\n05/02/2023 08:00:00,Gym,10\n"
+				+ "05/01/2023 09:00:00,Office,10\n").getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		assertEquals(3, appended.appendLogTail());
+		assertTrue(appended.addEvent(new CleaningLogEntry(LocalDateTime.of(2023, 5, 3, 8, 0), "Gym", 10)));
+
+		assertEquals("Frequency of Cleanings [\n"
+				+ "   Gym has been cleaned 3 times\n"
+				+ "   Office has been cleaned 1 times\n]", appended.getFrequencyReport(2));
+		assertEquals("Vacuum Bag Report (last replaced 01/01/2023 00:00:00) [\n"
+				+ "   Bag is due for replacement in 4490 SQ FT\n]", appended.getVacuumBagReport("01/01/2023 00:00:00"));
+		String roomReport = appended.getRoomReport();
+		assertTrue(roomReport.contains("   Gym was cleaned on [\n"
+				+ "      05/03/2023 08:00:00\n"
+				+ "      05/02/2023 08:00:00\n"
+				+ "      05/01/2023 08:00:00\n   ]\n"));
+	}
+
+	/**
+	 * Tests that writing the room report gives the same text as getRoomReport, including
+	 * a report that is written in many chunks
+	 * @throws IOException if the report could not be written
+	 */
+	@Test
+	public void testWriteRoomReport() throws IOException {
+		ReportManager large = new ReportManager("input/experimentFiles/rooms_12.csv", "input/experimentFiles/cleaningEvents_12.csv");
+		for (ReportManager reportManager : new ReportManager[] {manager, boundaryManager, emptyLogManager, large}) {
+			StringWriter writer = new StringWriter();
+			reportManager.writeRoomReport(writer);
+			assertEquals(reportManager.getRoomReport(), writer.toString());
+
+			ByteArrayOutputStream stream = new ByteArrayOutputStream();
+			reportManager.writeRoomReport(stream);
+			assertEquals(reportManager.getRoomReport(), new String(stream.toByteArray(), StandardCharsets.UTF_8));
+		}
+	}
+
+	/**
+	 * Tests the vacuum bag report between two bag changes. It should match the difference of
+	 * the reports since each change.
+	 * @throws FileNotFoundException if the files could not be loaded
+	 */
+	@Test
+	public void testGetVacuumBagReportBetween() throws FileNotFoundException {
+		assertEquals("Vacuum Bag Report (07/12/2021 05:29:02 to 10/25/2022 10:00:15) [\n"
+				+ "   Bag collected " + (5186 - 4265) + " SQ FT\n]", manager.getVacuumBagReport("07/12/2021 05:29:02", "10/25/2022 10:00:15"));
+		assertEquals("Vacuum Bag Report (07/12/2018 05:29:02 to 09/06/2022 07:26:59) [\n"
+				+ "   Bag collected 2640 SQ FT\n]", boundaryManager.getVacuumBagReport("07/12/2018 05:29:02", "09/06/2022 07:26:59"));
+		assertEquals("Vacuum Bag Report (07/12/2018 05:29:02 to 01/01/2030 00:00:00) [\n"
+				+ "   Bag collected 5280 SQ FT\n]", boundaryManager.getVacuumBagReport("07/12/2018 05:29:02", "01/01/2030 00:00:00"));
+		assertEquals("Vacuum Bag Report (01/01/2000 00:00:00 to 01/01/2030 00:00:00) [\n"
+				+ "   Bag collected 5186 SQ FT\n]", manager.getVacuumBagReport("01/01/2000 00:00:00", "01/01/2030 00:00:00"));
+		//A bag that collected more than it can hold
+		ReportManager large = new ReportManager("input/experimentFiles/rooms_12.csv", "input/experimentFiles/cleaningEvents_12.csv");
+		int coverage = new CleaningManager("input/experimentFiles/rooms_12.csv", "input/experimentFiles/cleaningEvents_12.csv")
+				.getCoverageSince(LocalDateTime.of(2000, 1, 1, 0, 0));
+		assertTrue(coverage > 5280);
+		assertEquals("Vacuum Bag Report (01/01/2000 00:00:00 to 01/01/2030 00:00:00) [\n"
+				+ "   Bag collected " + coverage + " SQ FT\n   Bag was replaced " + (coverage - 5280) + " SQ FT late\n]",
+				large.getVacuumBagReport("01/01/2000 00:00:00", "01/01/2030 00:00:00"));
+		assertEquals("The bag must be replaced after it was put in.", manager.getVacuumBagReport("10/25/2022 10:00:15", "10/25/2022 10:00:15"));
+		assertEquals("Date & time must be in the format: MM/DD/YYYY HH:MM:SS", manager.getVacuumBagReport("10/25/2022 10:00:15", "2021/06/09 11:59:59"));
+	}
+
+	/**
+	 * Tests the report of the tracked vacuum bags that are overdue
+	 */
+	@Test
+	public void testGetOverdueBagReport() {
+		assertEquals("No vacuum bags are overdue.", manager.getOverdueBagReport());
+		LocalDateTime replaced = LocalDateTime.of(2030, 1, 1, 0, 0);
+		manager.getVacuumBagTracker().addBag("Gym vacuum", 1000, replaced, "Gym");
+		manager.getVacuumBagTracker().addBag("Hall vacuum", 5280, replaced);
+		//Each event cleans 1250 SQ FT of the Gym
+		manager.addEvent(new CleaningLogEntry(replaced.plusDays(1), "Gym", 50));
+		assertEquals("Overdue Vacuum Bags [\n"
+				+ "   Gym vacuum is 250 SQ FT overdue\n"
+				+ "]", manager.getOverdueBagReport());
+		for (int i = 2; i <= 5; i++) {
+			manager.addEvent(new CleaningLogEntry(replaced.plusDays(i), "Gym", 50));
+		}
+		assertEquals("Overdue Vacuum Bags [\n"
+				+ "   Gym vacuum is 5250 SQ FT overdue\n"
+				+ "   Hall vacuum is 970 SQ FT overdue\n"
+				+ "]", manager.getOverdueBagReport());
+	}
+
+	/**
+	 * Tests answering the vacuum bag report for many bags at once. Each status should give
+	 * the same report as asking for the bags one at a time.
+	 */
+	@Test
+	public void testGetVacuumBagStatuses() {
+		String[] timestamps = {"10/30/2022 08:29:00", "07/12/2021 05:29:02", "not a date",
+				"02/21/2024 11:21:00", "06/18/2022 19:59:00"};
+		VacuumBagStatus[] statuses = manager.getVacuumBagStatuses(timestamps);
+		assertEquals(timestamps.length, statuses.length);
+		for (int i = 0; i < timestamps.length; i++) {
+			assertEquals(timestamps[i], statuses[i].getTimestamp());
+			assertEquals(manager.getVacuumBagReport(timestamps[i]), statuses[i].getReport());
+			assertEquals(statuses[i].getReport(), statuses[i].toString());
+		}
+		assertEquals(815, statuses[0].getCoverage());
+		assertEquals(5280 - 815, statuses[0].getRemainingLife());
+		assertFalse(statuses[0].isOverdue());
+		assertFalse(statuses[2].isValid());
+		assertEquals("Date & time must be in the format: MM/DD/YYYY HH:MM:SS", statuses[2].getReport());
+		assertEquals(0, manager.getVacuumBagStatuses().length);
+
+		//A bag that has collected more than 5280 SQ FT
+		manager.addEvent(new CleaningLogEntry(LocalDateTime.of(2025, 1, 1, 0, 0), "Gym", 100));
+		VacuumBagStatus overdue = manager.getVacuumBagStatuses("07/12/2021 05:29:02")[0];
+		assertTrue(overdue.isOverdue());
+		assertEquals(5280 - 5186 - 2500, overdue.getRemainingLife());
+		assertEquals("Vacuum Bag Report (last replaced 07/12/2021 05:29:02) [\n"
+				+ "   Bag is overdue for replacement!\n]", overdue.getReport());
+	}
+}
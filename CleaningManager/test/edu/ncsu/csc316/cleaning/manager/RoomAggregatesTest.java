@@ -0,0 +1,98 @@
+package edu.ncsu.csc316.cleaning.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.FileNotFoundException;
+import java.time.LocalDateTime;
+
+import org.junit.Test;
+
+/**
+ * The test class for the RoomAggregates. Tests to see if the totals of each room are
+ * kept up to date as cleaning events are loaded.
+ * @author Daniel Avisse
+ *
+ */
+public class RoomAggregatesTest {
+
+	/**
+	 * Tests recording events out of order
+	 */
+	@Test
+	public void testRecord() {
+		RoomAggregates aggregates = new RoomAggregates(3);
+		assertEquals(3, aggregates.size());
+		assertEquals(0, aggregates.getCleanedRoomCount());
+		assertNull(aggregates.getFirstCleaned(0));
+		assertNull(aggregates.getLastCleaned(0));
+
+		aggregates.record(1, 100, 50);
+		aggregates.record(1, 50, 25);
+		aggregates.record(1, 200, 10);
+		aggregates.record(2, -100, 5);
+		assertEquals(2, aggregates.getCleanedRoomCount());
+		assertEquals(3, aggregates.getCount(1));
+		assertEquals(85, aggregates.getSquareFeetCleaned(1));
+		assertEquals(LocalDateTime.of(1970, 1, 1, 0, 0, 50), aggregates.getFirstCleaned(1));
+		assertEquals(LocalDateTime.of(1970, 1, 1, 0, 3, 20), aggregates.getLastCleaned(1));
+		assertEquals(LocalDateTime.of(1969, 12, 31, 23, 58, 20), aggregates.getLastCleaned(2));
+		assertArrayEquals(new int[] {0, 3, 1}, aggregates.getCounts());
+	}
+
+	/**
+	 * Tests that a copy and the totals it was copied from can record events in any room
+	 * without changing each other
+	 */
+	@Test
+	public void testCopy() {
+		//Enough rooms that they are split into several chunks
+		RoomAggregates aggregates = new RoomAggregates(600);
+		aggregates.record(0, 10, 1);
+		aggregates.record(300, 20, 2);
+		RoomAggregates copy = new RoomAggregates(aggregates);
+		aggregates.record(300, 5, 4);
+		aggregates.record(599, 30, 8);
+		copy.record(0, 40, 16);
+
+		assertEquals(1, aggregates.getCount(0));
+		assertEquals(2, aggregates.getCount(300));
+		assertEquals(6, aggregates.getSquareFeetCleaned(300));
+		assertEquals(LocalDateTime.of(1970, 1, 1, 0, 0, 5), aggregates.getFirstCleaned(300));
+		assertEquals(3, aggregates.getCleanedRoomCount());
+
+		assertEquals(2, copy.getCount(0));
+		assertEquals(1, copy.getCount(300));
+		assertEquals(LocalDateTime.of(1970, 1, 1, 0, 0, 20), copy.getFirstCleaned(300));
+		assertNull(copy.getLastCleaned(599));
+		assertEquals(2, copy.getCleanedRoomCount());
+
+		int[] counts = aggregates.getCounts();
+		assertEquals(600, counts.length);
+		assertEquals(1, counts[599]);
+		assertEquals(600, copy.size());
+	}
+
+	/**
+	 * Tests the totals kept while loading a cleaning log file
+	 * @throws FileNotFoundException if the files could not be loaded
+	 */
+	@Test
+	public void testLoadedTotals() throws FileNotFoundException {
+		CleaningManager manager = new CleaningManager("input/Input-rooms-1.txt", "input/Input-cleaned-rooms-1.txt",
+				CleaningManager.LoadMode.COLUMNAR);
+		RoomAggregates aggregates = manager.getRoomAggregates();
+		RoomDictionary rooms = manager.getEventStore().getRooms();
+		int gym = rooms.getOrdinal("Gym");
+		assertEquals(2, aggregates.getCount(gym));
+		assertEquals(3450, aggregates.getSquareFeetCleaned(gym));
+		assertEquals(LocalDateTime.of(2022, 10, 26, 4, 17, 22), aggregates.getFirstCleaned(gym));
+		assertEquals(LocalDateTime.of(2022, 10, 26, 23, 59, 59), aggregates.getLastCleaned(gym));
+		assertEquals(232, aggregates.getSquareFeetCleaned(rooms.getOrdinal("Office")));
+		assertEquals(0, aggregates.getCount(rooms.getOrdinal("Attic")));
+
+		//The totals match whether the files were loaded into columns or into lists
+		RoomAggregates fromLists = new CleaningManager("input/Input-rooms-1.txt", "input/Input-cleaned-rooms-1.txt").getRoomAggregates();
+		assertArrayEquals(aggregates.getCounts(), fromLists.getCounts());
+		assertEquals(aggregates.getCleanedRoomCount(), fromLists.getCleanedRoomCount());
+	}
+}
@@ -0,0 +1,122 @@
+package edu.ncsu.csc316.cleaning.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.cleaning.data.RoomRecord;
+import edu.ncsu.csc316.cleaning.factory.DSAFactory;
+import edu.ncsu.csc316.cleaning.io.InputReader;
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.dsa.list.SinglyLinkedList;
+
+/**
+ * The test class for the RoomDictionary. Tests to see if every room gets a dense
+ * ordinal in the order of the room file.
+ * @author Daniel Avisse
+ *
+ */
+public class RoomDictionaryTest {
+
+	/**
+	 * Tests numbering the rooms of a room file
+	 * @throws FileNotFoundException if the file could not be loaded
+	 */
+	@Test
+	public void testOrdinals() throws FileNotFoundException {
+		List<RoomRecord> rooms = InputReader.readRoomFile("input/Input-rooms-1.txt");
+		RoomDictionary dictionary = new RoomDictionary(rooms);
+		assertEquals(10, dictionary.size());
+		for (int i = 0; i < rooms.size(); i++) {
+			RoomRecord room = rooms.get(i);
+			assertEquals(i, dictionary.getOrdinal(room.getRoomID()));
+			assertSame(room.getRoomID(), dictionary.getRoomID(i));
+			assertEquals(room.getLength() * room.getWidth(), dictionary.getSquareFeet(i));
+		}
+		assertEquals(-1, dictionary.getOrdinal("Basement"));
+		String[] roomIDs = dictionary.getRoomIDs();
+		assertEquals("Office", roomIDs[0]);
+		assertEquals("Bathroom", roomIDs[9]);
+
+		assertEquals(0, new RoomDictionary(InputReader.readRoomFile("input/empty-rooms.txt")).size());
+	}
+
+	/**
+	 * Tests that a room listed twice keeps its first ordinal and its last size
+	 */
+	@Test
+	public void testDuplicateRooms() {
+		List<RoomRecord> rooms = new SinglyLinkedList<RoomRecord>();
+		rooms.addLast(new RoomRecord("Gym", 10, 10));
+		rooms.addLast(new RoomRecord("Office", 5, 5));
+		rooms.addLast(new RoomRecord("Gym", 20, 10));
+		RoomDictionary dictionary = new RoomDictionary(rooms);
+		assertEquals(2, dictionary.size());
+		assertEquals(0, dictionary.getOrdinal("Gym"));
+		assertEquals(1, dictionary.getOrdinal("Office"));
+		assertEquals(200, dictionary.getSquareFeet(0));
+		assertEquals(2, dictionary.getRoomIDs().length);
+	}
+
+	/**
+	 * Tests walking the rooms in alphabetical order
+	 * @throws FileNotFoundException if the file could not be loaded
+	 */
+	@Test
+	public void testSortedOrdinals() throws FileNotFoundException {
+		RoomDictionary dictionary = new RoomDictionary(InputReader.readRoomFile("input/Input-rooms-1.txt"));
+		String[] expected = {"Attic", "Bathroom", "Bedroom", "Closet", "Game Room", "Gym", "Hallway", "Living Room",
+			"Lunch Room", "Office"};
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], dictionary.getRoomID(dictionary.getSortedOrdinal(i)));
+		}
+		try {
+			dictionary.getSortedOrdinal(10);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			assertEquals("There is no room at position 10", e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that many threads can look up rooms at once even when a splay tree is configured
+	 * @throws Exception if the file could not be loaded or a thread failed
+	 */
+	@Test(timeout = 60000)
+	public void testConcurrentLookups() throws Exception {
+		DSAFactory.setMapType(DSAFactory.MapType.SPLAY_TREE);
+		RoomDictionary dictionary;
+		try {
+			dictionary = new RoomDictionary(InputReader.readRoomFile("input/Input-rooms-1.txt"));
+		} finally {
+			DSAFactory.setMapType(null);
+		}
+		String[] roomIDs = dictionary.getRoomIDs();
+		ExecutorService threads = Executors.newFixedThreadPool(4);
+		try {
+			java.util.List<Future<Integer>> lookups = new ArrayList<Future<Integer>>();
+			for (int t = 0; t < 4; t++) {
+				lookups.add(threads.submit(() -> {
+					int wrong = 0;
+					for (int i = 0; i < 200000; i++) {
+						if (dictionary.getOrdinal(roomIDs[i % roomIDs.length]) != i % roomIDs.length) {
+							wrong++;
+						}
+					}
+					return wrong;
+				}));
+			}
+			for (Future<Integer> lookup : lookups) {
+				assertEquals(0, lookup.get().intValue());
+			}
+		} finally {
+			threads.shutdown();
+		}
+	}
+}
@@ -0,0 +1,188 @@
+package edu.ncsu.csc316.cleaning.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.FileNotFoundException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc316.cleaning.io.InputReader;
+
+/**
+ * The test class for the RoomEventIndex. Tests to see if the events of every room
+ * are grouped together in descending order by time.
+ * @author Daniel Avisse
+ *
+ */
+public class RoomEventIndexTest {
+
+	/** The store that the index is built from */
+	private CleaningEventStore store;
+
+	/** The RoomEventIndex we will use to test */
+	private RoomEventIndex index;
+
+	/**
+	 * Sets up the index by loading in the files before each test
+	 * @throws FileNotFoundException if the files could not be loaded
+	 */
+	@Before
+	public void setup() throws FileNotFoundException {
+		store = new CleaningEventStore(InputReader.readRoomFile("input/Input-rooms-1.txt"));
+		store.add(LocalDateTime.of(2022, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC), "Gym", 10);
+		store.add(LocalDateTime.of(2023, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC), "Office", 20);
+		store.add(LocalDateTime.of(2024, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC), "Gym", 30);
+		store.add(LocalDateTime.of(2020, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC), "Gym", 40);
+		store.add(LocalDateTime.of(2022, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC), "Gym", 50);
+		index = new RoomEventIndex(store);
+	}
+
+	/**
+	 * Tests that each room's events are in descending order by time
+	 */
+	@Test
+	public void testDescendingOrder() {
+		int gym = store.getRooms().getOrdinal("Gym");
+		assertEquals(4, index.getEventCount(gym));
+		assertEquals(LocalDateTime.of(2024, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC), index.getTimestamp(gym, 0));
+		assertEquals(LocalDateTime.of(2020, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC), index.getTimestamp(gym, 3));
+		//Events at the same time keep the order they were added in
+		assertEquals(0, index.getEvent(gym, 1));
+		assertEquals(4, index.getEvent(gym, 2));
+		assertEquals(2, index.getEvent(gym, 0));
+
+		int office = store.getRooms().getOrdinal("Office");
+		assertEquals(1, index.getEventCount(office));
+		assertEquals(1, index.getEvent(office, 0));
+		assertEquals(0, index.getEventCount(store.getRooms().getOrdinal("Attic")));
+	}
+
+	/**
+	 * Tests reading positions outside of a room's events
+	 */
+	@Test
+	public void testInvalidPosition() {
+		int office = store.getRooms().getOrdinal("Office");
+		try {
+			index.getTimestamp(office, 1);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			assertEquals("Room " + office + " has no event at position 1", e.getMessage());
+		}
+		try {
+			index.getEvent(office, -1);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			assertNotNull(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests adding events after the index is built
+	 */
+	@Test
+	public void testAdd() {
+		int gym = store.getRooms().getOrdinal("Gym");
+		long newest = LocalDateTime.of(2025, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+		long tied = LocalDateTime.of(2022, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+		store.add(newest, gym, 10);
+		index.add(gym, newest, 5, store.getCoverage(5));
+		store.add(tied, gym, 10);
+		index.add(gym, tied, 6, store.getCoverage(6));
+		assertEquals(6, index.getEventCount(gym));
+		assertEquals(5, index.getEvent(gym, 0));
+		assertEquals(2, index.getEvent(gym, 1));
+		//The new event at the same time as older events comes after them
+		assertEquals(0, index.getEvent(gym, 2));
+		assertEquals(4, index.getEvent(gym, 3));
+		assertEquals(6, index.getEvent(gym, 4));
+		assertEquals(3, index.getEvent(gym, 5));
+
+		//A room with no events can grow
+		int attic = store.getRooms().getOrdinal("Attic");
+		for (int i = 0; i < 10; i++) {
+			index.add(attic, i, 100 + i, 1);
+		}
+		assertEquals(10, index.getEventCount(attic));
+		assertEquals(109, index.getEvent(attic, 0));
+		assertEquals(0, index.getTimestamp(attic, 9));
+		assertEquals(10, index.getCoverageBetween(attic, 0, 10));
+
+		//The totals after an event that was added in the middle include it
+		long start = LocalDateTime.of(2022, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+		assertEquals(store.getCoverage(0) + store.getCoverage(4) + store.getCoverage(6), index.getCoverageBetween(gym, start, start + 1));
+		assertEquals(store.getAggregates().getSquareFeetCleaned(gym), index.getCoverageBetween(gym, 0, newest + 1));
+	}
+
+	/**
+	 * Tests the coverage of a room between two times
+	 */
+	@Test
+	public void testGetCoverageBetween() {
+		int gym = store.getRooms().getOrdinal("Gym");
+		long from = LocalDateTime.of(2022, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+		long to = LocalDateTime.of(2024, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+		//The Gym is 50 by 50 feet. Both events at the first time are counted, the one at the second is not
+		assertEquals(250 + 1250, index.getCoverageBetween(gym, from, to));
+		assertEquals(250 + 1250 + 750, index.getCoverageBetween(gym, from, to + 1));
+		assertEquals(1000 + 250 + 1250 + 750, index.getCoverageBetween(gym, Long.MIN_VALUE, Long.MAX_VALUE));
+		assertEquals(0, index.getCoverageBetween(gym, to, from));
+		assertEquals(0, index.getCoverageBetween(store.getRooms().getOrdinal("Attic"), from, to));
+	}
+
+	/**
+	 * Tests that a copy of an index with rooms in several chunks keeps the events it
+	 * was copied with while the index is added to
+	 */
+	@Test
+	public void testCopy() {
+		String[] roomIDs = new String[600];
+		int[] squareFeet = new int[600];
+		int[] sortedOrdinals = new int[600];
+		for (int i = 0; i < roomIDs.length; i++) {
+			roomIDs[i] = String.format("R%03d", i);
+			squareFeet[i] = 100;
+			sortedOrdinals[i] = i;
+		}
+		CleaningEventStore chunkedStore = new CleaningEventStore(new RoomDictionary(roomIDs, squareFeet, sortedOrdinals));
+		chunkedStore.add(10, 0, 100);
+		chunkedStore.add(20, 300, 100);
+		chunkedStore.add(30, 599, 100);
+		RoomEventIndex original = new RoomEventIndex(chunkedStore);
+		RoomEventIndex copy = original.copy().freeze();
+
+		//One event after the rest of its room, and one before it
+		chunkedStore.add(40, 300, 50);
+		original.add(300, 40, 3, chunkedStore.getCoverage(3));
+		chunkedStore.add(5, 599, 50);
+		original.add(599, 5, 4, chunkedStore.getCoverage(4));
+		RoomEventIndex second = original.copy().freeze();
+		chunkedStore.add(1, 300, 100);
+		original.add(300, 1, 5, chunkedStore.getCoverage(5));
+
+		assertEquals(1, copy.getEventCount(300));
+		assertEquals(1, copy.getEvent(300, 0));
+		assertEquals(1, copy.getEventCount(599));
+		assertEquals(30, copy.getTimestamp(599, 0));
+		assertEquals(100, copy.getCoverageBetween(599, 0, 100));
+
+		assertEquals(2, second.getEventCount(300));
+		assertEquals(3, second.getEvent(300, 0));
+		assertEquals(150, second.getCoverageBetween(300, 0, 100));
+
+		assertEquals(3, original.getEventCount(300));
+		assertEquals(5, original.getEvent(300, 2));
+		assertEquals(250, original.getCoverageBetween(300, 0, 100));
+		assertEquals(4, original.getEvent(599, 1));
+		assertEquals(1, original.getEventCount(0));
+		try {
+			copy.add(0, 50, 6, 100);
+			fail();
+		} catch (UnsupportedOperationException e) {
+			assertEquals("The events of a published view cannot be changed", e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package edu.ncsu.csc316.cleaning.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc316.cleaning.io.InputReader;
+
+/**
+ * The test class for the StripedEventBuffer. Tests to see if events from many threads
+ * are all drained, with the events of each room in the order they were added.
+ * @author Daniel Avisse
+ *
+ */
+public class StripedEventBufferTest {
+
+	/** The rooms that events can be added for */
+	private RoomDictionary dictionary;
+
+	/**
+	 * Sets up the dictionary by loading in the room file before each test
+	 * @throws FileNotFoundException if the file could not be loaded
+	 */
+	@Before
+	public void setup() throws FileNotFoundException {
+		dictionary = new RoomDictionary(InputReader.readRoomFile("input/Input-rooms-1.txt"));
+	}
+
+	/**
+	 * Tests adding and draining events on one thread
+	 */
+	@Test
+	public void testAddAndDrain() {
+		StripedEventBuffer buffer = new StripedEventBuffer(dictionary, 4);
+		assertEquals(1, buffer.add(300, 0, 10));
+		assertEquals(1, buffer.add(100, 1, 20));
+		//Room 4 is in the same stripe as room 0
+		assertEquals(2, buffer.add(200, 4, 30));
+		assertEquals(3, buffer.add(100, 0, 40));
+		assertEquals(4, buffer.size());
+
+		CleaningEventStore store = new CleaningEventStore(dictionary);
+		assertEquals(4, buffer.drainTo(store));
+		assertEquals(0, buffer.size());
+		assertEquals(4, store.size());
+		assertEquals(2, store.getAggregates().getCount(0));
+		//Each room keeps the order its events were added in
+		assertEquals(300, store.getTimestamp(0));
+		assertEquals(100, store.getTimestamp(1));
+		assertEquals(0, buffer.drainTo(store));
+
+		//There are never more stripes than rooms
+		StripedEventBuffer wide = new StripedEventBuffer(dictionary, 1000);
+		for (int room = 0; room < dictionary.size(); room++) {
+			assertEquals(1, wide.add(room, room, 50));
+		}
+		assertEquals(dictionary.size(), wide.drainTo(new CleaningEventStore(dictionary)));
+	}
+
+	/**
+	 * Tests adding events from many threads at once while they are being drained
+	 * @throws Exception if a thread failed
+	 */
+	@Test
+	public void testConcurrentAdd() throws Exception {
+		StripedEventBuffer buffer = new StripedEventBuffer(dictionary, 4);
+		CleaningEventStore store = new CleaningEventStore(dictionary);
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			java.util.List<Future<?>> producers = new ArrayList<Future<?>>();
+			for (int i = 0; i < 8; i++) {
+				int producer = i;
+				producers.add(pool.submit(() -> {
+					start.await();
+					for (int j = 0; j < 5000; j++) {
+						//Every producer has its own room, and its times only go up
+						buffer.add(j, producer, 1);
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			int drained = 0;
+			while (drained < 40000) {
+				drained += buffer.drainTo(store);
+			}
+			for (Future<?> producer : producers) {
+				producer.get();
+			}
+		} finally {
+			pool.shutdown();
+		}
+		assertEquals(40000, store.size());
+		long[] last = new long[dictionary.size()];
+		java.util.Arrays.fill(last, -1);
+		for (int i = 0; i < store.size(); i++) {
+			assertTrue(store.getTimestamp(i) > last[store.getRoom(i)]);
+			last[store.getRoom(i)] = store.getTimestamp(i);
+		}
+		for (int room = 0; room < 8; room++) {
+			assertEquals(5000, store.getAggregates().getCount(room));
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package edu.ncsu.csc316.cleaning.manager;
+
+import static org.junit.Assert.*;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * The test class for the TimestampFormatter. Tests to see if every time is written
+ * exactly the way ReportManager.DATE_TIME_FORMAT writes it.
+ * @author Daniel Avisse
+ *
+ */
+public class TimestampFormatterTest {
+
+	/**
+	 * Returns a time the way ReportManager.DATE_TIME_FORMAT writes it
+	 *
+	 * @param epochSecond the time in epoch seconds
+	 * @return the formatted time
+	 */
+	private static String expected(long epochSecond) {
+		return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC).format(ReportManager.DATE_TIME_FORMAT);
+	}
+
+	/**
+	 * Tests times around the edges of days, months, leap years and the epoch
+	 */
+	@Test
+	public void testBoundaries() {
+		TimestampFormatter formatter = new TimestampFormatter();
+		LocalDateTime[] times = {LocalDateTime.of(1970, 1, 1, 0, 0), LocalDateTime.of(1969, 12, 31, 23, 59, 59),
+			LocalDateTime.of(2000, 2, 29, 12, 30, 5), LocalDateTime.of(1900, 3, 1, 0, 0), LocalDateTime.of(2100, 2, 28, 23, 59, 59),
+			LocalDateTime.of(2023, 12, 31, 23, 59, 59), LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(1, 1, 1, 0, 0),
+			LocalDateTime.of(9999, 12, 31, 23, 59, 59), LocalDateTime.of(10000, 1, 1, 0, 0), LocalDateTime.of(0, 6, 1, 8, 0)};
+		for (LocalDateTime time : times) {
+			long epochSecond = time.toEpochSecond(ZoneOffset.UTC);
+			assertEquals(expected(epochSecond), formatter.format(epochSecond));
+		}
+	}
+
+	/**
+	 * Tests writing into a buffer at an offset, including runs of times on the same day
+	 */
+	@Test
+	public void testFormatIntoBuffer() {
+		TimestampFormatter formatter = new TimestampFormatter();
+		char[] buffer = new char[TimestampFormatter.LENGTH + 3];
+		long day = LocalDateTime.of(2022, 5, 23, 0, 0).toEpochSecond(ZoneOffset.UTC);
+		for (long second = day; second < day + 86400; second += 7) {
+			assertEquals(2 + TimestampFormatter.LENGTH, formatter.format(second, buffer, 2));
+			assertEquals(expected(second), new String(buffer, 2, TimestampFormatter.LENGTH));
+		}
+	}
+
+	/**
+	 * Tests random times from year 1 to year 9999
+	 */
+	@Test
+	public void testRandomTimes() {
+		TimestampFormatter formatter = new TimestampFormatter();
+		Random random = new Random(316);
+		long first = LocalDateTime.of(1, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+		long last = LocalDateTime.of(9999, 12, 31, 23, 59, 59).toEpochSecond(ZoneOffset.UTC);
+		for (int i = 0; i < 100000; i++) {
+			long epochSecond = first + (long) (random.nextDouble() * (last - first));
+			assertEquals(expected(epochSecond), formatter.format(epochSecond));
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package edu.ncsu.csc316.cleaning.manager;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * The test class for the TopFrequencySelector. Tests to see if the selector returns
+ * the most frequently cleaned rooms in descending order of count, with rooms that
+ * have the same count ordered alphabetically.
+ * @author Daniel Avisse
+ *
+ */
+public class TopFrequencySelectorTest {
+
+	/** Room IDs used for testing, purposely not in alphabetical order */
+	private String[] roomIDs = {"Office", "Lunch Room", "Closet", "Attic", "Bedroom", "Gym", "Hallway"};
+
+	/** The number of times each room has been cleaned */
+	private int[] counts = {1, 4, 3, 0, 3, 2, 2};
+
+	/**
+	 * Tests selecting every room. The selector should rank every room and break ties alphabetically
+	 */
+	@Test
+	public void testSelectAll() {
+		int[] ranking = TopFrequencySelector.select(roomIDs, counts, 7);
+		assertEquals(7, ranking.length);
+		assertEquals("Lunch Room", roomIDs[ranking[0]]);
+		assertEquals("Bedroom", roomIDs[ranking[1]]);
+		assertEquals("Closet", roomIDs[ranking[2]]);
+		assertEquals("Gym", roomIDs[ranking[3]]);
+		assertEquals("Hallway", roomIDs[ranking[4]]);
+		assertEquals("Office", roomIDs[ranking[5]]);
+		assertEquals("Attic", roomIDs[ranking[6]]);
+	}
+
+	/**
+	 * Tests selecting fewer rooms than exist, including a cutoff in the middle of a tie
+	 */
+	@Test
+	public void testSelectSome() {
+		int[] ranking = TopFrequencySelector.select(roomIDs, counts, 2);
+		assertEquals(2, ranking.length);
+		assertEquals("Lunch Room", roomIDs[ranking[0]]);
+		assertEquals("Bedroom", roomIDs[ranking[1]]);
+
+		ranking = TopFrequencySelector.select(roomIDs, counts, 4);
+		assertEquals(4, ranking.length);
+		assertEquals("Gym", roomIDs[ranking[3]]);
+
+		ranking = TopFrequencySelector.select(roomIDs, counts, 1);
+		assertEquals(1, ranking.length);
+		assertEquals("Lunch Room", roomIDs[ranking[0]]);
+	}
+
+	/**
+	 * Tests boundary cases where there are more requested rooms than rooms, or no rooms are requested
+	 */
+	@Test
+	public void testSelectBoundaries() {
+		assertEquals(7, TopFrequencySelector.select(roomIDs, counts, 100).length);
+		assertEquals(0, TopFrequencySelector.select(roomIDs, counts, 0).length);
+		assertEquals(0, TopFrequencySelector.select(new String[0], new int[0], 3).length);
+	}
+}
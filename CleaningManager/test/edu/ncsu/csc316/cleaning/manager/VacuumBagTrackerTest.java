@@ -0,0 +1,183 @@
+package edu.ncsu.csc316.cleaning.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.FileNotFoundException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc316.cleaning.data.CleaningLogEntry;
+
+/**
+ * The test class for the VacuumBagTracker. Tests to see if the remaining life of each bag
+ * is kept up to date as events are added, and that the overdue bags are always the bags
+ * that a full scan of the events would find.
+ * @author Daniel Avisse
+ *
+ */
+public class VacuumBagTrackerTest {
+
+	/** The CleaningManager we will use to test */
+	private CleaningManager manager;
+
+	/** The tracker of the manager */
+	private VacuumBagTracker tracker;
+
+	/** A time after every event in the files */
+	private static final LocalDateTime END = LocalDateTime.of(2100, 1, 1, 0, 0);
+
+	/**
+	 * Sets up the manager by loading in the files before each test
+	 * @throws FileNotFoundException if the files could not be loaded
+	 */
+	@Before
+	public void setup() throws FileNotFoundException {
+		manager = new CleaningManager("input/Input-rooms-1.txt", "input/Input-cleaned-rooms-1.txt",
+				CleaningManager.LoadMode.COLUMNAR);
+		tracker = manager.getVacuumBagTracker();
+	}
+
+	/**
+	 * Tests adding bags that were replaced before some of the events in the files
+	 */
+	@Test
+	public void testAddBag() {
+		LocalDateTime replaced = LocalDateTime.of(2022, 6, 1, 0, 0);
+		tracker.addBag("Hall vacuum", 5280, replaced);
+		assertEquals(5280 - manager.getCoverageSince(replaced), tracker.getRemainingLife("Hall vacuum"));
+
+		CleaningView view = manager.getView();
+		int gym = view.getRooms().getOrdinal("Gym");
+		int office = view.getRooms().getOrdinal("Office");
+		long gymAndOffice = view.getCoverageBetween(gym, replaced.plusSeconds(1), END)
+				+ view.getCoverageBetween(office, replaced.plusSeconds(1), END);
+		tracker.addBag("Gym vacuum", 1000, replaced, "Gym", "Office");
+		assertEquals(1000 - gymAndOffice, tracker.getRemainingLife("Gym vacuum"));
+		//The same rooms in another order share the route
+		tracker.addBag("Spare vacuum", 1000, replaced, "Office", "Gym", "Gym");
+		assertEquals(1000 - gymAndOffice, tracker.getRemainingLife("Spare vacuum"));
+
+		tracker.addBag("Full vacuum", 0, LocalDateTime.of(2000, 1, 1, 0, 0));
+		assertTrue(tracker.isOverdue("Full vacuum"));
+		assertEquals(4, tracker.size());
+
+		try {
+			tracker.addBag("Hall vacuum", 5280, replaced);
+			fail("A bag cannot be tracked twice");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Bag Hall vacuum is already tracked", e.getMessage());
+		}
+		try {
+			tracker.addBag("Pool vacuum", 5280, replaced, "Pool");
+			fail("The room does not exist");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Room Pool does not exist", e.getMessage());
+		}
+		try {
+			tracker.getRemainingLife("Pool vacuum");
+			fail("The bag is not tracked");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Bag Pool vacuum is not tracked", e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that new events fill the bags of their rooms until they are overdue, and that
+	 * replacing or removing a bag takes it off the overdue bags
+	 */
+	@Test
+	public void testRecord() {
+		LocalDateTime replaced = LocalDateTime.of(2030, 1, 1, 0, 0);
+		tracker.addBag("Gym vacuum", 3000, replaced, "Gym");
+		tracker.addBag("Office vacuum", 500, replaced, "Office");
+		tracker.addBag("Hall vacuum", 5000, replaced);
+		assertEquals(0, tracker.getOverdueBags().length);
+
+		//Each Gym event cleans 1250 SQ FT
+		for (int i = 1; i <= 3; i++) {
+			manager.addEvent(new CleaningLogEntry(replaced.plusDays(i), "Gym", 50));
+		}
+		assertEquals(-750, tracker.getRemainingLife("Gym vacuum"));
+		assertEquals(500, tracker.getRemainingLife("Office vacuum"));
+		assertEquals(1250, tracker.getRemainingLife("Hall vacuum"));
+		assertArrayEquals(new String[] {"Gym vacuum"}, tracker.getOverdueBags());
+
+		//An event from before the bags were replaced does not count
+		manager.addEvent(new CleaningLogEntry(replaced.minusDays(1), "Gym", 100));
+		assertEquals(-750, tracker.getRemainingLife("Gym vacuum"));
+		assertEquals(1250, tracker.getRemainingLife("Hall vacuum"));
+
+		manager.addEvent(new CleaningLogEntry(replaced.plusDays(4), "Gym", 60));
+		assertEquals(-250, tracker.getRemainingLife("Hall vacuum"));
+		assertArrayEquals(new String[] {"Gym vacuum", "Hall vacuum"}, tracker.getOverdueBags());
+
+		//A bag replaced after the last Gym event starts empty again
+		tracker.replaceBag("Gym vacuum", replaced.plusDays(4));
+		assertEquals(3000, tracker.getRemainingLife("Gym vacuum"));
+		assertFalse(tracker.isOverdue("Gym vacuum"));
+		tracker.removeBag("Hall vacuum");
+		assertEquals(0, tracker.getOverdueBags().length);
+
+		//A late event between a bag's replacement and the events after it is counted
+		manager.addEvent(new CleaningLogEntry(replaced.plusDays(4).plusHours(1), "Office", 100));
+		assertEquals(100, tracker.getRemainingLife("Office vacuum"));
+		manager.addEvent(new CleaningLogEntry(replaced.plusHours(1), "Office", 100));
+		assertArrayEquals(new String[] {"Office vacuum"}, tracker.getOverdueBags());
+		assertEquals(-300, tracker.getRemainingLife("Office vacuum"));
+	}
+
+	/**
+	 * Tests many bags against a full scan of the events after every batch of random events,
+	 * some of them older than the bags
+	 */
+	@Test
+	public void testMatchesFullScan() {
+		Random random = new Random(21);
+		RoomDictionary rooms = manager.getView().getRooms();
+		String[][] bagRooms = new String[20][];
+		LocalDateTime[] bagReplaced = new LocalDateTime[bagRooms.length];
+		int[] capacity = new int[bagRooms.length];
+		for (int bag = 0; bag < bagRooms.length; bag++) {
+			bagReplaced[bag] = LocalDateTime.of(2023, 1, 1, 0, 0).plusHours(random.nextInt(24 * 60));
+			capacity[bag] = random.nextInt(20000);
+			if (bag % 4 != 0) {
+				bagRooms[bag] = new String[] {rooms.getRoomID(random.nextInt(rooms.size())),
+						rooms.getRoomID(random.nextInt(rooms.size()))};
+			}
+			tracker.addBag("Bag " + bag, capacity[bag], bagReplaced[bag], bagRooms[bag]);
+		}
+		for (int batch = 0; batch < 10; batch++) {
+			for (int i = 0; i < 20; i++) {
+				LocalDateTime time = LocalDateTime.of(2023, 1, 1, 0, 0).plusHours(random.nextInt(24 * 90));
+				manager.addEvent(new CleaningLogEntry(time, rooms.getRoomID(random.nextInt(rooms.size())), random.nextInt(101)));
+			}
+			if (batch == 5) {
+				bagReplaced[3] = bagReplaced[3].plusDays(30);
+				tracker.replaceBag("Bag 3", bagReplaced[3]);
+			}
+			CleaningView view = manager.getView();
+			int overdue = 0;
+			for (int bag = 0; bag < bagRooms.length; bag++) {
+				long collected = 0;
+				if (bagRooms[bag] == null) {
+					collected = view.getCoverageBetween(bagReplaced[bag].plusSeconds(1), END);
+				} else {
+					String[] distinct = Arrays.stream(bagRooms[bag]).distinct().toArray(String[]::new);
+					for (String room : distinct) {
+						collected += view.getCoverageBetween(rooms.getOrdinal(room), bagReplaced[bag].plusSeconds(1), END);
+					}
+				}
+				assertEquals(capacity[bag] - collected, tracker.getRemainingLife("Bag " + bag));
+				assertEquals(collected > capacity[bag], tracker.isOverdue("Bag " + bag));
+				if (collected > capacity[bag]) {
+					overdue++;
+				}
+			}
+			assertEquals(overdue, tracker.getOverdueBags().length);
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package edu.ncsu.csc316.cleaning.metrics;
+
+import static org.junit.Assert.*;
+
+import java.io.FileNotFoundException;
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Test;
+
+import edu.ncsu.csc316.cleaning.manager.CleaningManager;
+import edu.ncsu.csc316.cleaning.manager.ReportManager;
+import edu.ncsu.csc316.cleaning.metrics.CleaningMetrics.Counter;
+import edu.ncsu.csc316.cleaning.metrics.CleaningMetrics.Operation;
+
+/**
+ * The test class for CleaningMetrics. Tests to see if nothing is recorded while metrics
+ * are off, and that loading files and running reports are recorded while they are on.
+ * @author Daniel Avisse
+ *
+ */
+public class CleaningMetricsTest {
+
+	/**
+	 * Turns metrics back off after each test, since they are shared by every test
+	 */
+	@After
+	public void tearDown() {
+		CleaningMetrics.reset();
+		CleaningMetrics.setEnabled(false);
+	}
+
+	/**
+	 * Tests that operations are timed and rows are counted only while metrics are on
+	 * @throws Exception if the files could not be loaded or the MBean could not be read
+	 */
+	@Test
+	public void testRecord() throws Exception {
+		CleaningMetrics.setEnabled(false);
+		CleaningMetrics.reset();
+		new CleaningManager("input/Input-rooms-1.txt", "input/Input-cleaned-rooms-1.txt", CleaningManager.LoadMode.COLUMNAR);
+		assertEquals(0, CleaningMetrics.getHistogram(Operation.LOAD).getCount());
+		assertEquals(0, CleaningMetrics.getCount(Counter.ROWS_PARSED));
+
+		CleaningMetrics.setEnabled(true);
+		assertTrue(CleaningMetrics.isEnabled());
+		ReportManager manager = new ReportManager("input/Input-rooms-1.txt", "input/Input-cleaned-rooms-1.txt");
+		assertEquals(1, CleaningMetrics.getHistogram(Operation.LOAD).getCount());
+		assertEquals(16, CleaningMetrics.getCount(Counter.ROWS_PARSED));
+		assertEquals(0, CleaningMetrics.getCount(Counter.ROWS_REJECTED));
+
+		manager.getFrequencyReport(3);
+		manager.getFrequencyReport(0);
+		manager.getVacuumBagReport("07/12/2021 05:29:02");
+		manager.getRoomReport();
+		assertEquals(2, CleaningMetrics.getHistogram(Operation.FREQUENCY_REPORT).getCount());
+		assertEquals(1, CleaningMetrics.getHistogram(Operation.VACUUM_BAG_REPORT).getCount());
+		assertEquals(1, CleaningMetrics.getHistogram(Operation.GET_COVERAGE_SINCE).getCount());
+		assertEquals(1, CleaningMetrics.getHistogram(Operation.BUILD_COVERAGE_INDEX).getCount());
+		assertEquals(1, CleaningMetrics.getHistogram(Operation.ROOM_REPORT).getCount());
+		assertTrue(CleaningMetrics.getHistogram(Operation.ROOM_REPORT).getMax() > 0);
+
+		String dump = CleaningMetrics.dump();
+		assertTrue(dump.startsWith("Cleaning Manager Metrics [\n   LOAD: 1 runs, mean "));
+		assertTrue(dump.contains("   FREQUENCY_REPORT: 2 runs"));
+		assertTrue(dump.contains("   OVERDUE_BAG_REPORT: never run\n"));
+		assertTrue(dump.endsWith("   Rows parsed: 16\n   Rows rejected: 0\n]"));
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(CleaningMetrics.OBJECT_NAME);
+		assertTrue(server.isRegistered(name));
+		assertEquals(16L, server.getAttribute(name, "RowsParsed"));
+		assertEquals(2L, server.invoke(name, "getCount", new Object[] {"FREQUENCY_REPORT"}, new String[] {String.class.getName()}));
+
+		CleaningMetrics.setEnabled(false);
+		manager.getFrequencyReport(3);
+		assertEquals(2, CleaningMetrics.getHistogram(Operation.FREQUENCY_REPORT).getCount());
+		assertTrue(CleaningMetrics.dump().startsWith("Cleaning Manager Metrics (paused) ["));
+	}
+
+	/**
+	 * Tests that rows for rooms that do not exist are counted as rejected in every load mode
+	 * @throws FileNotFoundException if the files could not be loaded
+	 */
+	@Test
+	public void testRowsRejected() throws FileNotFoundException {
+		CleaningMetrics.setEnabled(true);
+		for (CleaningManager.LoadMode mode : new CleaningManager.LoadMode[] {CleaningManager.LoadMode.COLUMNAR,
+				CleaningManager.LoadMode.STREAMING, CleaningManager.LoadMode.MAPPED, CleaningManager.LoadMode.PARALLEL}) {
+			CleaningMetrics.reset();
+			//Only the Gym is in the room file, and 2 of the 16 cleanings are of the Gym
+			new CleaningManager("input/Input-boundary-rooms-1.txt", "input/Input-cleaned-rooms-1.txt", mode);
+			assertEquals(mode.toString(), 16, CleaningMetrics.getCount(Counter.ROWS_PARSED));
+			assertEquals(mode.toString(), 14, CleaningMetrics.getCount(Counter.ROWS_REJECTED));
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package edu.ncsu.csc316.cleaning.metrics;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * The test class for the LatencyHistogram. Tests to see if every value is counted in a
+ * bucket close to it, and that percentiles are read back within the bucket width.
+ * @author Daniel Avisse
+ *
+ */
+public class LatencyHistogramTest {
+
+	/**
+	 * Tests that small values are exact and larger values land in a bucket whose largest
+	 * value is within 1/64 of them
+	 */
+	@Test
+	public void testBuckets() {
+		for (long value = 0; value < 128; value++) {
+			assertEquals(value, LatencyHistogram.getHighestValue(LatencyHistogram.getBucket(value)));
+		}
+		long[] values = {128, 129, 255, 256, 1000, 123456789, 1L << 40, Long.MAX_VALUE - 1, Long.MAX_VALUE};
+		int previous = LatencyHistogram.getBucket(127);
+		for (long value : values) {
+			int bucket = LatencyHistogram.getBucket(value);
+			assertTrue(bucket >= previous);
+			previous = bucket;
+			long highest = LatencyHistogram.getHighestValue(bucket);
+			assertTrue(highest >= value);
+			assertTrue(highest - value <= value / 64);
+		}
+		assertEquals(Long.MAX_VALUE, LatencyHistogram.getHighestValue(LatencyHistogram.getBucket(Long.MAX_VALUE)));
+		//Neighboring buckets do not overlap
+		assertEquals(LatencyHistogram.getBucket(255) + 1, LatencyHistogram.getBucket(256));
+	}
+
+	/**
+	 * Tests the count, mean, maximum and percentiles of recorded values
+	 */
+	@Test
+	public void testRecord() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getValueAtPercentile(50));
+		assertEquals(0, histogram.getMean(), 0);
+
+		for (long value = 1; value <= 1000; value++) {
+			histogram.record(value * 1000);
+		}
+		histogram.record(-5);
+		assertEquals(1001, histogram.getCount());
+		assertEquals(1000000, histogram.getMax());
+		assertEquals(500500000, histogram.getTotal());
+		assertEquals(500500000.0 / 1001, histogram.getMean(), 0.001);
+		assertEquals(0, histogram.getValueAtPercentile(0));
+		long median = histogram.getValueAtPercentile(50);
+		assertTrue(median >= 500000 && median <= 500000 + 500000 / 64);
+		long p99 = histogram.getValueAtPercentile(99);
+		assertTrue(p99 >= 990000 && p99 <= 990000 + 990000 / 64);
+		assertEquals(1000000, histogram.getValueAtPercentile(100));
+
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMax());
+		assertEquals(0, histogram.getValueAtPercentile(99));
+	}
+}
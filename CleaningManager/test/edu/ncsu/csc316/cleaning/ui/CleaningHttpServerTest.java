@@ -0,0 +1,191 @@
+package edu.ncsu.csc316.cleaning.ui;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc316.cleaning.data.CleaningLogEntry;
+import edu.ncsu.csc316.cleaning.manager.ReportManager;
+
+/**
+ * The test class for CleaningHttpServer. Tests to see if the reports served over HTTP
+ * are the same as the ReportManager's, and that they are only sent again once they change.
+ * @author Daniel Avisse
+ *
+ */
+public class CleaningHttpServerTest {
+
+	/** The manager the server reports from */
+	private ReportManager manager;
+
+	/** The server being tested */
+	private CleaningHttpServer server;
+
+	/**
+	 * Loads the files and starts the server on any free port before each test
+	 * @throws Exception if the files could not be loaded or the port could not be listened on
+	 */
+	@Before
+	public void setup() throws Exception {
+		manager = new ReportManager("input/Input-rooms-1.txt", "input/Input-cleaned-rooms-1.txt");
+		server = new CleaningHttpServer(manager, 0);
+		server.start();
+	}
+
+	/**
+	 * Stops the server after each test
+	 */
+	@After
+	public void tearDown() {
+		server.stop();
+	}
+
+	/**
+	 * Tests that every report is served, and that mistakes in the arguments are bad requests
+	 * @throws IOException if the server could not be reached
+	 */
+	@Test
+	public void testReports() throws IOException {
+		HttpURLConnection connection = open("/frequency?n=3");
+		assertEquals(200, connection.getResponseCode());
+		assertEquals("text/plain; charset=utf-8", connection.getHeaderField("Content-Type"));
+		assertEquals(manager.getFrequencyReport(3), read(connection));
+
+		//The room report is written as it is generated, so its length is not known up front
+		connection = open("/rooms");
+		assertEquals(200, connection.getResponseCode());
+		assertEquals("chunked", connection.getHeaderField("Transfer-Encoding"));
+		assertEquals(manager.getRoomReport(), read(connection));
+
+		//After that it is answered from the cache, whole, until an event is added
+		connection = open("/rooms");
+		assertEquals(200, connection.getResponseCode());
+		assertEquals(String.valueOf(manager.getRoomReport().getBytes(StandardCharsets.UTF_8).length),
+				connection.getHeaderField("Content-Length"));
+		assertEquals(manager.getRoomReport(), read(connection));
+
+		connection = open("/rooms");
+		connection.setRequestMethod("HEAD");
+		assertEquals(200, connection.getResponseCode());
+		assertEquals("", read(connection));
+
+		connection = open("/vacuum?since=" + URLEncoder.encode("07/12/2021 05:29:02", "UTF-8"));
+		assertEquals(200, connection.getResponseCode());
+		assertEquals(manager.getVacuumBagReport("07/12/2021 05:29:02"), read(connection));
+
+		assertEquals(400, open("/frequency?n=three").getResponseCode());
+		assertEquals(400, open("/frequency").getResponseCode());
+		assertEquals(400, open("/vacuum").getResponseCode());
+		assertEquals(404, open("/coverage").getResponseCode());
+		//Paths that only start with the path of a report are not that report
+		assertEquals(404, open("/roomsXYZ").getResponseCode());
+		assertEquals(404, open("/frequency/x?n=3").getResponseCode());
+		assertEquals(404, open("/vacuum/").getResponseCode());
+
+		connection = open("/rooms");
+		connection.setRequestMethod("POST");
+		assertEquals(405, connection.getResponseCode());
+	}
+
+	/**
+	 * Tests that a report is not modified until an event is added, and is sent again after
+	 * @throws IOException if the server could not be reached
+	 */
+	@Test
+	public void testNotModified() throws IOException {
+		HttpURLConnection connection = open("/rooms");
+		assertEquals(200, connection.getResponseCode());
+		String etag = connection.getHeaderField("ETag");
+		assertEquals("\"" + manager.getDataVersion() + "\"", etag);
+		read(connection);
+
+		connection = open("/rooms");
+		connection.setRequestProperty("If-None-Match", etag);
+		assertEquals(304, connection.getResponseCode());
+		assertEquals(etag, connection.getHeaderField("ETag"));
+
+		//Every report has the version of the events it was generated from as its tag
+		connection = open("/frequency?n=2");
+		assertEquals(200, connection.getResponseCode());
+		assertEquals(etag, connection.getHeaderField("ETag"));
+		read(connection);
+		connection = open("/frequency?n=2");
+		connection.setRequestProperty("If-None-Match", etag);
+		assertEquals(304, connection.getResponseCode());
+
+		assertTrue(manager.addEvent(new CleaningLogEntry(LocalDateTime.of(2030, 1, 1, 0, 0), "Office", 100)));
+		connection = open("/rooms");
+		connection.setRequestProperty("If-None-Match", etag);
+		assertEquals(200, connection.getResponseCode());
+		assertFalse(etag.equals(connection.getHeaderField("ETag")));
+		assertEquals("chunked", connection.getHeaderField("Transfer-Encoding"));
+		String report = read(connection);
+		assertEquals(manager.getRoomReport(), report);
+		assertTrue(report.contains("01/01/2030 00:00:00"));
+		connection = open("/rooms");
+		assertEquals(200, connection.getResponseCode());
+		assertEquals(report, read(connection));
+	}
+
+	/**
+	 * Tests that If-None-Match can list several tags, weak tags, or *
+	 * @throws IOException if the server could not be reached
+	 */
+	@Test
+	public void testIfNoneMatch() throws IOException {
+		String etag = "\"" + manager.getDataVersion() + "\"";
+		HttpURLConnection connection = open("/rooms");
+		connection.setRequestProperty("If-None-Match", "\"old\", " + etag);
+		assertEquals(304, connection.getResponseCode());
+		connection = open("/frequency?n=1");
+		connection.setRequestProperty("If-None-Match", "W/" + etag);
+		assertEquals(304, connection.getResponseCode());
+		connection = open("/rooms");
+		connection.setRequestProperty("If-None-Match", "*");
+		assertEquals(304, connection.getResponseCode());
+		connection = open("/rooms");
+		connection.setRequestProperty("If-None-Match", "\"old\", W/\"older\"");
+		assertEquals(200, connection.getResponseCode());
+
+		assertTrue(CleaningHttpServer.matchesAny(Arrays.asList("\"a,b\"", "\"1\""), "\"1\""));
+		assertFalse(CleaningHttpServer.matchesAny(Arrays.asList("\"a,\"1\"\""), "\"1\""));
+		assertFalse(CleaningHttpServer.matchesAny(Arrays.asList("1", "W/", "\"1", ""), "\"1\""));
+		assertFalse(CleaningHttpServer.matchesAny(null, "\"1\""));
+	}
+
+	/**
+	 * Opens a connection to a path of the server
+	 * @param path the path and query
+	 * @return the connection
+	 * @throws IOException if the server could not be reached
+	 */
+	private HttpURLConnection open(String path) throws IOException {
+		return (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path).openConnection();
+	}
+
+	/**
+	 * Reads the body of a response
+	 * @param connection the connection
+	 * @return the body
+	 * @throws IOException if the body could not be read
+	 */
+	private String read(HttpURLConnection connection) throws IOException {
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		try (InputStream in = connection.getInputStream()) {
+			in.transferTo(body);
+		}
+		return new String(body.toByteArray(), StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,144 @@
+package edu.ncsu.csc316.cleaning.ui;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc316.cleaning.manager.ReportManager;
+
+/**
+ * The test class for CleaningManagerBatch and CleaningDaemon. Tests to see if commands
+ * given on the command line, in a script, or over a socket give the same reports as
+ * the ReportManager.
+ * @author Daniel Avisse
+ *
+ */
+public class CleaningManagerBatchTest {
+
+	/** The room file */
+	private static final String ROOMS = "input/Input-rooms-1.txt";
+
+	/** The cleaning log file */
+	private static final String LOGS = "input/Input-cleaned-rooms-1.txt";
+
+	/** A ReportManager with the same files, to compare against */
+	private ReportManager manager;
+
+	/**
+	 * Loads the files before each test
+	 * @throws Exception if the files could not be loaded
+	 */
+	@Before
+	public void setup() throws Exception {
+		manager = new ReportManager(ROOMS, LOGS);
+	}
+
+	/**
+	 * Tests running commands from the command line to standard output
+	 */
+	@Test
+	public void testRun() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ByteArrayOutputStream err = new ByteArrayOutputStream();
+		int status = CleaningManagerBatch.run(new String[] {ROOMS, LOGS, "F 2", "v 07/12/2021 05:29:02", "F two", "X"},
+				new PrintStream(out), new PrintStream(err));
+		assertEquals(0, status);
+		assertEquals(manager.getFrequencyReport(2) + "\n\n"
+				+ manager.getVacuumBagReport("07/12/2021 05:29:02") + "\n\n"
+				+ "Number of rooms must be a number: two\n\n"
+				+ "Unknown command: X\n\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+		assertEquals(0, err.size());
+
+		assertEquals(1, CleaningManagerBatch.run(new String[] {ROOMS}, new PrintStream(out), new PrintStream(err)));
+		assertEquals(1, CleaningManagerBatch.run(new String[] {ROOMS, "input/missing.txt", "R"}, new PrintStream(out), new PrintStream(err)));
+		assertEquals(1, CleaningManagerBatch.run(new String[] {ROOMS, LOGS, "-daemon", "port"}, new PrintStream(out), new PrintStream(err)));
+	}
+
+	/**
+	 * Tests running the commands of a script and writing each result to its own file
+	 * @throws Exception if the files could not be written or read
+	 */
+	@Test
+	public void testScriptToFiles() throws Exception {
+		Path script = Files.createTempFile("commands", ".txt");
+		Path directory = Files.createTempDirectory("reports");
+		Files.write(script, Arrays.asList("# The reports for the week", "R", "", "V 07/12/2021 05:29:02 10/25/2022 10:00:15"),
+				StandardCharsets.UTF_8);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		int status = CleaningManagerBatch.run(new String[] {ROOMS, LOGS, "F 1", "-script", script.toString(), "-out", directory.toString()},
+				new PrintStream(out), new PrintStream(out));
+		assertEquals(0, status);
+		assertEquals(0, out.size());
+		assertEquals(manager.getFrequencyReport(1), new String(Files.readAllBytes(directory.resolve("001-F.txt")), StandardCharsets.UTF_8));
+		assertEquals(manager.getRoomReport(), new String(Files.readAllBytes(directory.resolve("002-R.txt")), StandardCharsets.UTF_8));
+		assertEquals(manager.getVacuumBagReport("07/12/2021 05:29:02", "10/25/2022 10:00:15"),
+				new String(Files.readAllBytes(directory.resolve("003-V.txt")), StandardCharsets.UTF_8));
+		assertEquals(3, directory.toFile().list().length);
+	}
+
+	/**
+	 * Tests sending commands to a daemon over a socket, from two connections, and shutting it down
+	 * @throws Exception if the socket could not be used
+	 */
+	@Test
+	public void testDaemon() throws Exception {
+		CleaningDaemon daemon = new CleaningDaemon(manager, 0);
+		Thread serving = new Thread(daemon::serve);
+		serving.start();
+		try {
+			for (int connection = 0; connection < 2; connection++) {
+				try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), daemon.getPort());
+						BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+						Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+					out.write("F 3\nR\nQUIT\n");
+					out.flush();
+					assertEquals(manager.getFrequencyReport(3), readResult(in));
+					assertEquals(manager.getRoomReport(), readResult(in));
+					assertNull(in.readLine());
+				}
+			}
+			try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), daemon.getPort());
+					Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+				out.write("SHUTDOWN\n");
+				out.flush();
+			}
+			serving.join(10000);
+			assertFalse(serving.isAlive());
+		} finally {
+			daemon.shutdown();
+		}
+	}
+
+	/**
+	 * Reads the result of one command from a daemon
+	 * @param in the connection to the daemon
+	 * @return the result, without the END line
+	 * @throws Exception if the connection could not be read
+	 */
+	private String readResult(BufferedReader in) throws Exception {
+		StringBuilder result = new StringBuilder();
+		String line = in.readLine();
+		while (!CleaningDaemon.END_OF_RESULT.equals(line)) {
+			if (result.length() > 0) {
+				result.append('\n');
+			}
+			result.append(line);
+			line = in.readLine();
+		}
+		return result.toString();
+	}
+}